@@ -0,0 +1,233 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.elegoff.plugins.communityrust;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.elegoff.plugins.communityrust.clippy.ClippySensor;
+import org.elegoff.plugins.communityrust.coverage.cobertura.CoberturaSensor;
+import org.elegoff.plugins.communityrust.coverage.lcov.LCOVSensor;
+import org.elegoff.plugins.communityrust.language.RustLanguage;
+import org.elegoff.plugins.communityrust.xunit.XUnitSensor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+
+/**
+ * Import of generated LCOV, Cobertura, Clippy and xUnit reports covering a given number of files. Each invocation
+ * gets a new sensor context, so that coverage and issues are not saved twice on the same files.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReportImportBenchmark {
+
+  private static final int LINES_PER_FILE = 200;
+  private static final int ISSUES_PER_FILE = 10;
+  private static final int TESTS_PER_FILE = 20;
+
+  private static final String LCOV_REPORT = "lcov.info";
+  private static final String COBERTURA_REPORT = "cobertura.xml";
+  private static final String CLIPPY_REPORT = "clippy.json";
+  private static final String XUNIT_REPORT = "rust-test.xml";
+
+  @Param({"10", "1000"})
+  public int files;
+
+  private Path baseDir;
+  private final List<DefaultInputFile> inputFiles = new ArrayList<>();
+  private SensorContextTester context;
+
+  @Setup
+  public void createReports() throws IOException {
+    baseDir = Files.createTempDirectory("community-rust-benchmark");
+    Files.createDirectories(baseDir.resolve("src"));
+    for (int i = 0; i < files; i++) {
+      String path = sourcePath(i);
+      var content = new StringBuilder();
+      for (int line = 1; line <= LINES_PER_FILE; line++) {
+        content.append("    let value_").append(line).append(" = ").append(i).append(";\n");
+      }
+      Files.writeString(baseDir.resolve(path), content);
+      inputFiles.add(new TestInputFileBuilder("moduleKey", path)
+        .setModuleBaseDir(baseDir)
+        .setLanguage(RustLanguage.KEY)
+        .setType(InputFile.Type.MAIN)
+        .setCharset(StandardCharsets.UTF_8)
+        .initMetadata(content.toString())
+        .build());
+    }
+    writeLcov();
+    writeCobertura();
+    writeClippy();
+    writeXUnit();
+  }
+
+  @Setup(Level.Invocation)
+  public void createContext() {
+    var settings = new MapSettings();
+    settings.setProperty(CommunityRustPlugin.LCOV_REPORT_PATHS, LCOV_REPORT);
+    settings.setProperty(CommunityRustPlugin.COBERTURA_REPORT_PATHS, COBERTURA_REPORT);
+    settings.setProperty(ClippySensor.REPORT_PROPERTY_KEY, CLIPPY_REPORT);
+    settings.setProperty(XUnitSensor.REPORT_PATH_KEY, XUNIT_REPORT);
+    context = SensorContextTester.create(baseDir);
+    context.setSettings(settings);
+    inputFiles.forEach(context.fileSystem()::add);
+  }
+
+  @TearDown
+  public void deleteReports() throws IOException {
+    try (Stream<Path> paths = Files.walk(baseDir)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Benchmark
+  public SensorContextTester lcov() {
+    new LCOVSensor().execute(context);
+    return context;
+  }
+
+  @Benchmark
+  public SensorContextTester cobertura() {
+    new CoberturaSensor().execute(context);
+    return context;
+  }
+
+  @Benchmark
+  public SensorContextTester clippy() {
+    new ClippySensor().execute(context);
+    return context;
+  }
+
+  @Benchmark
+  public SensorContextTester xunit() {
+    new XUnitSensor().execute(context);
+    return context;
+  }
+
+  private static String sourcePath(int file) {
+    return "src/file_" + file + ".rs";
+  }
+
+  private void writeLcov() throws IOException {
+    try (Writer out = Files.newBufferedWriter(baseDir.resolve(LCOV_REPORT))) {
+      for (int i = 0; i < files; i++) {
+        out.write("SF:" + sourcePath(i) + "\n");
+        for (int line = 1; line <= LINES_PER_FILE; line++) {
+          out.write("DA:" + line + "," + (line % 3) + "\n");
+          if (line % 10 == 0) {
+            out.write("BRDA:" + line + ",0,0," + (line % 20 == 0 ? "1" : "-") + "\n");
+            out.write("BRDA:" + line + ",0,1,1\n");
+          }
+        }
+        out.write("end_of_record\n");
+      }
+    }
+  }
+
+  private void writeCobertura() throws IOException {
+    try (Writer out = Files.newBufferedWriter(baseDir.resolve(COBERTURA_REPORT))) {
+      out.write("<?xml version=\"1.0\"?>\n<coverage version=\"1.9\">\n");
+      out.write("<sources><source>" + baseDir.toAbsolutePath() + "</source></sources>\n<packages><package name=\"src\"><classes>\n");
+      for (int i = 0; i < files; i++) {
+        out.write("<class name=\"file_" + i + "\" filename=\"" + sourcePath(i) + "\"><methods/><lines>\n");
+        for (int line = 1; line <= LINES_PER_FILE; line++) {
+          if (line % 10 == 0) {
+            out.write("<line number=\"" + line + "\" hits=\"" + (line % 3) + "\" branch=\"true\" condition-coverage=\"50% (1/2)\"/>\n");
+          } else {
+            out.write("<line number=\"" + line + "\" hits=\"" + (line % 3) + "\"/>\n");
+          }
+        }
+        out.write("</lines></class>\n");
+      }
+      out.write("</classes></package></packages>\n</coverage>\n");
+    }
+  }
+
+  private void writeClippy() throws IOException {
+    try (Writer out = Files.newBufferedWriter(baseDir.resolve(CLIPPY_REPORT))) {
+      out.write("    Checking benchmark v0.1.0\n");
+      for (int i = 0; i < files; i++) {
+        for (int issue = 1; issue <= ISSUES_PER_FILE; issue++) {
+          int line = issue * LINES_PER_FILE / ISSUES_PER_FILE;
+          out.write("{\"reason\":\"compiler-message\",\"message\":{\"message\":\"this let-binding has unit value\","
+            + "\"code\":{\"code\":\"clippy::let_unit_value\",\"explanation\":null},\"level\":\"warning\","
+            + "\"spans\":[{\"file_name\":\"" + sourcePath(i) + "\",\"line_start\":" + line + ",\"line_end\":" + line
+            + ",\"column_start\":5,\"column_end\":14}],"
+            + "\"children\":[{\"children\":[],\"code\":null,\"level\":\"help\",\"message\":\"omit the `let` binding\","
+            + "\"spans\":[{\"suggested_replacement\":\"value;\"}]}]}}\n");
+        }
+      }
+      out.write("    Finished dev [unoptimized + debuginfo] target(s)\n");
+    }
+  }
+
+  private void writeXUnit() throws IOException {
+    try (Writer out = Files.newBufferedWriter(baseDir.resolve(XUNIT_REPORT))) {
+      out.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<testsuites>\n");
+      for (int i = 0; i < files; i++) {
+        out.write("<testsuite id=\"" + i + "\" name=\"cargo test #" + i + "\" tests=\"" + TESTS_PER_FILE + "\" errors=\"0\" failures=\"1\" time=\"0.5\">\n");
+        for (int test = 0; test < TESTS_PER_FILE; test++) {
+          out.write("<testcase name=\"test_" + test + "\" classname=\"file_" + i + "\" time=\"0.025\"");
+          if (test == 0) {
+            out.write("><failure message=\"assertion failed\">assertion failed: left == right</failure></testcase>\n");
+          } else if (test == 1) {
+            out.write("><skipped/></testcase>\n");
+          } else {
+            out.write("/>\n");
+          }
+        }
+        out.write("</testsuite>\n");
+      }
+      out.write("</testsuites>\n");
+    }
+  }
+
+}
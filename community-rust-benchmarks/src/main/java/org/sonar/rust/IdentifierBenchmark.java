@@ -0,0 +1,120 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.rust.api.RustKeyword;
+
+/**
+ * Matching of the identifiers of {@link RustSources#IDENTIFIERS}, by {@link NonKeywordIdentifierExpression} and by
+ * the regular expression with a keyword lookbehind it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdentifierBenchmark {
+
+  private String source;
+  private int[] starts;
+  private Input input;
+  private Matcher matcher;
+
+  @Setup
+  public void setup() {
+    source = RustSources.load(RustSources.IDENTIFIERS);
+    starts = Pattern.compile("[_\\p{L}\\p{Nl}][\\pL\\p{Nl}\\p{Mn}\\p{Mc}\\p{Nd}\\p{Pc}]*").matcher(source).results()
+      .mapToInt(MatchResult::start)
+      .toArray();
+    input = new Input(source);
+    var sb = new StringBuilder("[_\\p{L}\\p{Nl}][\\pL\\p{Nl}\\p{Mn}\\p{Mc}\\p{Nd}\\p{Pc}]*(?<!(");
+    String[] keywords = RustKeyword.keywordValues();
+    for (int i = 0; i < keywords.length; i++) {
+      sb.append(i == 0 ? "^" : "|^").append(keywords[i]).append("$");
+    }
+    matcher = Pattern.compile(sb.append("))").toString()).matcher(source);
+  }
+
+  @Benchmark
+  public int expression() {
+    int length = 0;
+    for (int start : starts) {
+      input.offset = start;
+      length += NonKeywordIdentifierExpression.match(input);
+    }
+    return length;
+  }
+
+  @Benchmark
+  public int lookbehind() {
+    int length = 0;
+    for (int start : starts) {
+      matcher.region(start, source.length());
+      length += matcher.lookingAt() ? (matcher.end() - start) : 0;
+    }
+    return length;
+  }
+
+  /**
+   * Input starting at a given offset, as seen by the expressions of the parsers.
+   */
+  private static final class Input implements CharSequence {
+
+    private final String source;
+    private int offset;
+
+    private Input(String source) {
+      this.source = source;
+    }
+
+    @Override
+    public int length() {
+      return source.length() - offset;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return source.charAt(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      throw new UnsupportedOperationException();
+    }
+
+  }
+
+}
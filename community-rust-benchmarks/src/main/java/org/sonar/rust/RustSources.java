@@ -0,0 +1,190 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Rust inputs of the benchmarks, from a tiny function to generated multi-megabyte files. Names ending with ".rs"
+ * are the rustc test files of the plugin, "identifiers" is 100KB of generated code made mostly of identifiers,
+ * "chains" is 100KB of generated code made of long method chains and nested generics, other names are a size
+ * ("100KB", "1MB"...) of generated code.
+ */
+public final class RustSources {
+
+  public static final String TINY = "tiny";
+  public static final String IDENTIFIERS = "identifiers";
+  public static final String CHAINS = "chains";
+
+  private static final String TINY_SOURCE = "fn main() {\n  println!(\"Hello, world!\");\n}\n";
+
+  private static final String CHUNK = ""
+    + "/// A shape with an area, number %1$d\n"
+    + "#[derive(Debug, Clone, PartialEq)]\n"
+    + "pub struct Shape%1$d {\n"
+    + "    name: String,\n"
+    + "    sides: Vec<f64>,\n"
+    + "}\n"
+    + "\n"
+    + "impl Shape%1$d {\n"
+    + "    pub fn new(name: &str, sides: &[f64]) -> Self {\n"
+    + "        Shape%1$d { name: name.to_string(), sides: sides.to_vec() }\n"
+    + "    }\n"
+    + "\n"
+    + "    // the perimeter is the sum of the sides\n"
+    + "    pub fn perimeter(&self) -> f64 {\n"
+    + "        self.sides.iter().map(|s| s * 1.0).filter(|s| *s > 0.0).sum()\n"
+    + "    }\n"
+    + "\n"
+    + "    pub fn kind(&self, count: usize) -> Result<&'static str, String> {\n"
+    + "        let kind = match self.sides.len() {\n"
+    + "            0 => return Err(format!(\"{} has no side\", self.name)),\n"
+    + "            3 => \"triangle\",\n"
+    + "            4 if count > 2 => \"square\",\n"
+    + "            _ => \"polygon\",\n"
+    + "        };\n"
+    + "        for i in 0..count {\n"
+    + "            if i %% 2 == 0 && self.sides[0] > 1.5e3 {\n"
+    + "                println!(\"{}: {}\", i, kind);\n"
+    + "            } else {\n"
+    + "                while let Some(side) = self.sides.get(i) {\n"
+    + "                    let _x = side.max(0x10 as f64);\n"
+    + "                    break;\n"
+    + "                }\n"
+    + "            }\n"
+    + "        }\n"
+    + "        Ok(kind)\n"
+    + "    }\n"
+    + "}\n"
+    + "\n"
+    + "#[cfg(test)]\n"
+    + "mod tests%1$d {\n"
+    + "    use super::*;\n"
+    + "\n"
+    + "    #[test]\n"
+    + "    fn perimeter() {\n"
+    + "        let shape = Shape%1$d::new(\"s\", &[1.0, 2.0, 3.0]);\n"
+    + "        assert_eq!(shape.perimeter(), 6.0);\n"
+    + "    }\n"
+    + "}\n"
+    + "\n";
+
+  private static final String IDENTIFIERS_CHUNK = ""
+    + "fn compute_total_%1$d(first_value: Amount, second_value: Amount, rate_limiter: RateLimiter) -> Amount {\n"
+    + "    let adjusted_value = rate_limiter.adjust(first_value, second_value.currency_code);\n"
+    + "    let converted_value = exchange_service.convert(adjusted_value, target_currency, conversion_date);\n"
+    + "    accumulated_total.add(converted_value).with_context(transaction_context).unwrap_or(default_amount)\n"
+    + "}\n"
+    + "\n";
+
+  private static final String CHAINS_CHUNK = ""
+    + "fn build_%1$d() -> Result<HashMap<String, Vec<Option<Box<dyn Fn(Vec<Arc<Mutex<u32>>>) -> Option<u8>>>>>, Error> {\n"
+    + "    let client = Client::builder().timeout(Duration::from_secs(30)).header(\"a\", \"b\").retries(3)\n"
+    + "        .proxy(Proxy::new(&config.proxy_url).with_auth(user.name.clone(), user.token.as_ref().unwrap()))\n"
+    + "        .pool(Pool::<Vec<HashMap<String, Arc<Mutex<Option<u32>>>>>>::with_capacity(items.len() * 2 + 1))\n"
+    + "        .build()?;\n"
+    + "    Ok(client.get(url).send()?.json::<Vec<Item>>()?.into_iter().filter(|i| i.size > 0 && !i.hidden)\n"
+    + "        .map(|i| (i.name.to_lowercase(), vec![None, Some(Box::new(move |v: Vec<Arc<Mutex<u32>>>| v.first().map(|x| *x.lock().unwrap() as u8)) as Box<_>)]))\n"
+    + "        .collect::<HashMap<String, Vec<Option<Box<dyn Fn(Vec<Arc<Mutex<u32>>>) -> Option<u8>>>>>>())\n"
+    + "}\n"
+    + "\n";
+
+  private RustSources() {
+  }
+
+  public static String load(String name) {
+    if (TINY.equals(name)) {
+      return TINY_SOURCE;
+    }
+    if (name.endsWith(".rs")) {
+      return resource(name);
+    }
+    if (IDENTIFIERS.equals(name)) {
+      return generate(IDENTIFIERS_CHUNK, 100 * 1024);
+    }
+    if (CHAINS.equals(name)) {
+      return generate(CHAINS_CHUNK, 100 * 1024);
+    }
+    return generate(size(name));
+  }
+
+  public static RustFile file(String name, String content) {
+    return new RustFile() {
+      @Override
+      public String name() {
+        return name;
+      }
+
+      @Override
+      public String content() {
+        return content;
+      }
+
+      @Override
+      public URI uri() {
+        return URI.create("file:///" + name);
+      }
+    };
+  }
+
+  /**
+   * Generated Rust code of at least the given size in bytes.
+   */
+  public static String generate(int size) {
+    return generate(CHUNK, size);
+  }
+
+  private static String generate(String chunk, int size) {
+    var sb = new StringBuilder(size + chunk.length() * 2);
+    for (int i = 0; sb.length() < size; i++) {
+      sb.append(String.format(Locale.ROOT, chunk, i));
+    }
+    return sb.toString();
+  }
+
+  private static int size(String name) {
+    String upper = name.toUpperCase(Locale.ROOT);
+    if (upper.endsWith("MB")) {
+      return Integer.parseInt(upper.substring(0, upper.length() - 2)) * 1024 * 1024;
+    }
+    if (upper.endsWith("KB")) {
+      return Integer.parseInt(upper.substring(0, upper.length() - 2)) * 1024;
+    }
+    return Integer.parseInt(upper);
+  }
+
+  private static String resource(String name) {
+    try (InputStream in = RustSources.class.getResourceAsStream("/" + name)) {
+      if (in == null) {
+        throw new IllegalArgumentException("Unknown benchmark input: " + name);
+      }
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust.metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.rust.RustParser;
+import org.sonar.rust.RustParserConfiguration;
+import org.sonar.rust.RustSources;
+import org.sonar.rust.RustVisitorContext;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xss16m")
+public class MetricsVisitorBenchmark {
+
+  @Param({"tiny", "rustc/debuginfo/associated-types.rs", "rustc/ui/fmt/format-args-capture.rs", "100KB", "1MB", "4MB"})
+  public String input;
+
+  private final MetricsVisitor visitor = new MetricsVisitor();
+  private RustVisitorContext context;
+
+  @Setup
+  public void setup() {
+    var source = RustSources.load(input);
+    var tree = RustParser.create(RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build()).parse(source);
+    context = new RustVisitorContext(RustSources.file(input, source), tree);
+    // the tokens are lexed once, as in the analysis
+    context.tokens();
+  }
+
+  @Benchmark
+  public int scanFile() {
+    visitor.scanFile(context);
+    return visitor.linesOfCodeSet().size() + visitor.complexity();
+  }
+
+}
@@ -23,6 +23,7 @@ package org.elegoff.rust.checks;
 import com.sonar.sslr.api.AstNode;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
+import org.sonar.rust.LineIndex;
 
 @Rule(key = "LineLength")
 public class LineLengthCheck extends RustCheck {
@@ -37,13 +38,13 @@ public class LineLengthCheck extends RustCheck {
 
   @Override
   public void visitFile(AstNode astNode) {
-    String[] lines = getContext().file().content().split("\\r?\\n");
-    for (int i = 0; i < lines.length; i++) {
-      int length = lines[i].length();
+    LineIndex lines = getContext().lineIndex();
+    for (int line = 1; line <= lines.lineCount(); line++) {
+      int length = lines.lineLength(line);
       if (length > maximumLineLength) {
         addLineIssue(
           "Split this " + length + " characters long line (which is greater than " + maximumLineLength + " authorized).",
-          i + 1);
+          line);
       }
     }
   }
@@ -34,7 +34,17 @@ public class RustCheck extends RustVisitor {
   public List<Issue> scanFileForIssues(RustVisitorContext context) {
     issues.clear();
     scanFile(context);
-    return Collections.unmodifiableList(new ArrayList<>(issues));
+    return pollIssues();
+  }
+
+  /**
+   * Returns and forgets the issues raised since the previous call, for checks run along with other visitors
+   * by a {@link org.sonar.rust.RustTreeWalker}.
+   */
+  public List<Issue> pollIssues() {
+    List<Issue> result = Collections.unmodifiableList(new ArrayList<>(issues));
+    issues.clear();
+    return result;
   }
 
   public void addIssue(String message, AstNode node) {
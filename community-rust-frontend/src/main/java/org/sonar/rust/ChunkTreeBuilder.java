@@ -0,0 +1,182 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import com.sonar.sslr.api.Trivia;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.sonar.sslr.internal.matchers.ParseNode;
+
+/**
+ * Builds the syntax tree of chunks of a file from their parse trees the way the parser does from the parse tree of a
+ * whole file, with indexes, lines and columns relative to the file. Chunks are added in order, as comments are
+ * attached to the next token, which may belong to the next chunk. What the parse nodes matched is read through
+ * {@link ParseNodes}.
+ */
+final class ChunkTreeBuilder {
+
+  // URI of the tokens of a string, as set by the parser
+  private static final URI STRING_URI = URI.create("tests://unittest");
+
+  private final String source;
+  private final URI uri;
+  private final LineIndex lineIndex;
+  private final Token.Builder tokenBuilder = Token.builder();
+  private final List<Trivia> trivia = new ArrayList<>();
+  private int offset;
+
+  ChunkTreeBuilder(String source, URI uri) {
+    this.source = source;
+    this.uri = uri == null ? STRING_URI : uri;
+    this.lineIndex = new LineIndex(source);
+  }
+
+  static AstNode compilationUnit(List<AstNode> children, int length) {
+    AstNode root = new AstNode(RustGrammar.COMPILATION_UNIT, RustGrammar.COMPILATION_UNIT.toString(), firstToken(children));
+    children.forEach(root::addChild);
+    root.setFromIndex(0);
+    root.setToIndex(length);
+    return root;
+  }
+
+  /**
+   * Adds the nodes of the children of the root of the parse tree of the chunk starting at the given index.
+   */
+  void addChildren(ParseNode chunkRoot, int chunkStart, List<AstNode> children) {
+    offset = chunkStart;
+    for (ParseNode node : chunkRoot.getChildren()) {
+      addTo(children, visit(node));
+    }
+  }
+
+  /**
+   * Comments preceding the next chunk, which are attached to its first token.
+   */
+  void addTrivia(List<Trivia> comments) {
+    trivia.addAll(comments);
+  }
+
+  /**
+   * Comments following the last token of the chunks added so far.
+   */
+  List<Trivia> trivia() {
+    return new ArrayList<>(trivia);
+  }
+
+  /**
+   * Line of the character at the given index of the file, starting at 1.
+   */
+  int line(int index) {
+    return lineIndex.line(index);
+  }
+
+  /**
+   * Column of the character at the given index of the file, starting at 0.
+   */
+  int column(int index) {
+    return lineIndex.column(index);
+  }
+
+  private AstNode visit(ParseNode node) {
+    AstNodeType rule = ParseNodes.rule(node);
+    if (rule != null) {
+      return visitNonTerminal(node, rule);
+    }
+    return visitTerminal(node);
+  }
+
+  private AstNode visitNonTerminal(ParseNode node, AstNodeType rule) {
+    List<AstNode> children = new ArrayList<>();
+    for (ParseNode child : node.getChildren()) {
+      addTo(children, visit(child));
+    }
+    AstNode astNode = new AstNode(rule, ParseNodes.ruleName(node), firstToken(children));
+    children.forEach(astNode::addChild);
+    astNode.setFromIndex(offset + node.getStartIndex());
+    astNode.setToIndex(offset + node.getEndIndex());
+    return astNode;
+  }
+
+  private AstNode visitTerminal(ParseNode node) {
+    if (ParseNodes.isComment(node)) {
+      addComment(node);
+      return null;
+    }
+    if (ParseNodes.isTrivia(node)) {
+      return null;
+    }
+    setPositionAndValue(node);
+    TokenType type = ParseNodes.tokenType(node);
+    tokenBuilder.setType(type == null ? RustTokenizer.UNDEFINED : type);
+    Token token = tokenBuilder.setTrivia(trivia).build();
+    trivia.clear();
+    AstNode astNode = new AstNode(token);
+    astNode.setFromIndex(offset + node.getStartIndex());
+    astNode.setToIndex(offset + node.getEndIndex());
+    return astNode;
+  }
+
+  private void addComment(ParseNode node) {
+    setPositionAndValue(node);
+    tokenBuilder.setTrivia(Collections.emptyList());
+    tokenBuilder.setType(GenericTokenType.COMMENT);
+    trivia.add(Trivia.createComment(tokenBuilder.build()));
+  }
+
+  private void setPositionAndValue(ParseNode node) {
+    int start = offset + node.getStartIndex();
+    int end = Math.min(offset + node.getEndIndex(), source.length());
+    tokenBuilder.setGeneratedCode(false);
+    tokenBuilder.setLine(lineIndex.line(start));
+    tokenBuilder.setColumn(lineIndex.column(start));
+    tokenBuilder.setURI(uri);
+    tokenBuilder.notCopyBook();
+    tokenBuilder.setValueAndOriginalValue(source.substring(start, end));
+  }
+
+  private static void addTo(List<AstNode> children, AstNode child) {
+    if (child == null) {
+      return;
+    }
+    if (child.hasToBeSkippedFromAst()) {
+      children.addAll(child.getChildren());
+    } else {
+      children.add(child);
+    }
+  }
+
+  static Token firstToken(List<AstNode> children) {
+    for (AstNode child : children) {
+      if (child.getToken() != null) {
+        return child.getToken();
+      }
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Rule;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Parser;
+import com.sonar.sslr.impl.matcher.RuleDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.sonar.sslr.grammar.GrammarRuleKey;
+import org.sonar.sslr.grammar.LexerlessGrammarBuilder;
+import org.sonar.sslr.parser.LexerlessGrammar;
+import org.sonar.sslr.parser.ParseRunner;
+import org.sonar.sslr.parser.ParsingResult;
+
+/**
+ * Parses large files by chunks of top-level items, concurrently on the common fork-join pool, and puts the statements
+ * of all chunks under a single {@link RustGrammar#COMPILATION_UNIT} node. Chunks are found by
+ * {@link TopLevelItems#chunks(CharSequence, int)}, which only counts delimiters: whenever a chunk does not parse,
+ * because of a syntax error or of a chunk boundary which is not a statement boundary, the other chunks are stopped and
+ * the whole file is parsed again by the sequential parser, so that the tree or the error are always the ones of a
+ * sequential parse. The parse timeout applies to the file as a whole, chunks and sequential parse included.
+ * <p>
+ * Only the parse trees are built concurrently. The syntax tree is then built from them in order by a
+ * {@link ChunkTreeBuilder}.
+ * <p>
+ * The adapter wraps the sequential parser rather than extending {@link org.sonar.sslr.parser.ParserAdapter}, which
+ * would compile a parser of the whole grammar that is never run.
+ */
+final class ChunkedParserAdapter extends Parser<Grammar> {
+
+  enum Chunk implements GrammarRuleKey {
+    FIRST,
+    MIDDLE,
+    LAST
+  }
+
+  private final Parser<Grammar> sequential;
+  private final Charset charset;
+  private final int chunkLength;
+  private final long timeoutMillis;
+  private final boolean memoize;
+  private final int memoTableSize;
+  private final ParseRunner first;
+  private final ParseRunner middle;
+  private final ParseRunner last;
+
+  ChunkedParserAdapter(RustParserConfiguration conf, Parser<Grammar> sequential) {
+    super(sequential.getGrammar());
+    this.sequential = sequential;
+    this.charset = conf.getCharset();
+    this.chunkLength = conf.getParallelChunkLength();
+    this.timeoutMillis = conf.getParseTimeoutMillis();
+    this.memoize = !conf.getMemoizedRules().isEmpty();
+    this.memoTableSize = conf.getMemoTableSize();
+    LexerlessGrammar grammar = RustGrammarRegistry.chunkGrammar(conf.getMemoizedRules());
+    this.first = new ParseRunner(grammar.rule(Chunk.FIRST));
+    this.middle = new ParseRunner(grammar.rule(Chunk.MIDDLE));
+    this.last = new ParseRunner(grammar.rule(Chunk.LAST));
+  }
+
+  /**
+   * {@link RustGrammar} with a rule for each kind of chunk, so that the first, middle and last chunks of a file
+   * together match the children of its {@link RustGrammar#COMPILATION_UNIT}.
+   */
+  static LexerlessGrammarBuilder grammar() {
+    LexerlessGrammarBuilder b = RustGrammar.create();
+    b.rule(Chunk.FIRST).is(RustGrammar.SPC, b.zeroOrMore(RustGrammar.INNER_ATTRIBUTE, RustGrammar.SPC),
+      b.zeroOrMore(RustGrammar.STATEMENT, RustGrammar.SPC), b.endOfInput());
+    b.rule(Chunk.MIDDLE).is(b.zeroOrMore(RustGrammar.STATEMENT, RustGrammar.SPC), b.endOfInput());
+    b.rule(Chunk.LAST).is(b.zeroOrMore(RustGrammar.STATEMENT, RustGrammar.SPC),
+      b.zeroOrMore(RustGrammar.MACRO_INVOCATION, RustGrammar.SPC), RustGrammar.EOF);
+    return b;
+  }
+
+  @Override
+  public AstNode parse(String source) {
+    boolean budget = ParseBudget.startIfNone(timeoutMillis);
+    try {
+      AstNode tree = parse(source, null);
+      return tree == null ? sequential.parse(source) : tree;
+    } finally {
+      stopBudget(budget);
+    }
+  }
+
+  @Override
+  public AstNode parse(File file) {
+    String source;
+    try {
+      source = new String(Files.readAllBytes(file.toPath()), charset);
+    } catch (IOException e) {
+      throw new RecognitionException(0, e.getMessage(), e);
+    }
+    boolean budget = ParseBudget.startIfNone(timeoutMillis);
+    try {
+      AstNode tree = parse(source, file.toURI());
+      return tree == null ? sequential.parse(file) : tree;
+    } finally {
+      stopBudget(budget);
+    }
+  }
+
+  @Override
+  public AstNode parse(List<Token> tokens) {
+    return sequential.parse(tokens);
+  }
+
+  @Override
+  public RuleDefinition getRootRule() {
+    return sequential.getRootRule();
+  }
+
+  @Override
+  public void setRootRule(Rule rootRule) {
+    sequential.setRootRule(rootRule);
+  }
+
+  /**
+   * The budget of the file is started on the current thread, so that the sequential parse of a file whose chunks did
+   * not parse only gets what remains of it. It is stopped unless it was started by a caller.
+   */
+  private static void stopBudget(boolean started) {
+    if (started) {
+      ParseBudget.stop();
+    }
+  }
+
+  /**
+   * Tree of the given file, null when it is too small to be split or a chunk does not parse.
+   */
+  private AstNode parse(String source, URI uri) {
+    if (source.length() <= 2 * chunkLength) {
+      return null;
+    }
+    int[] starts = TopLevelItems.chunks(source, chunkLength);
+    if (starts.length < 2) {
+      return null;
+    }
+    // chunks share the deadline of the file, and the first chunk which fails stops the other ones
+    ParseBudget budget = ParseBudget.fork();
+    List<ForkJoinTask<ParsingResult>> tasks = new ArrayList<>(starts.length);
+    for (int i = 0; i < starts.length; i++) {
+      ParseRunner runner = i == 0 ? first : (i == starts.length - 1 ? last : middle);
+      int end = i == starts.length - 1 ? source.length() : starts[i + 1];
+      tasks.add(ForkJoinPool.commonPool().submit(parseTask(runner, source.substring(starts[i], end).toCharArray(), budget)));
+    }
+    List<ParsingResult> results = new ArrayList<>(tasks.size());
+    try {
+      for (ForkJoinTask<ParsingResult> task : tasks) {
+        ParsingResult result = task.join();
+        if (!result.isMatched()) {
+          return null;
+        }
+        results.add(result);
+      }
+    } catch (CancellationException e) {
+      // another chunk failed, the sequential parse reports its error
+      return null;
+    } finally {
+      if (results.size() < tasks.size()) {
+        budget.cancel();
+        tasks.forEach(task -> task.cancel(false));
+      }
+    }
+    ChunkTreeBuilder builder = new ChunkTreeBuilder(source, uri);
+    List<AstNode> children = new ArrayList<>();
+    for (int i = 0; i < results.size(); i++) {
+      builder.addChildren(results.get(i).getParseTreeRoot(), starts[i], children);
+    }
+    return ChunkTreeBuilder.compilationUnit(children, source.length());
+  }
+
+  private Callable<ParsingResult> parseTask(ParseRunner runner, char[] chunk, ParseBudget budget) {
+    return () -> {
+      ParseBudget.startLike(budget);
+      if (memoize) {
+        ParseMemo.start(Math.min(memoTableSize, chunk.length));
+      }
+      try {
+        ParsingResult result = runner.parse(chunk);
+        if (!result.isMatched()) {
+          budget.cancel();
+        }
+        return result;
+      } catch (RuntimeException e) {
+        budget.cancel();
+        throw e;
+      } finally {
+        ParseBudget.stop();
+        ParseMemo.stop();
+      }
+    };
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.TokenType;
+import com.sonar.sslr.api.Trivia.TriviaKind;
+import java.util.EnumMap;
+import java.util.Map;
+import org.sonar.rust.api.RustTokenType;
+import org.sonar.sslr.internal.matchers.Matcher;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+import org.sonar.sslr.internal.vm.TokenExpression;
+import org.sonar.sslr.internal.vm.TriviaExpression;
+
+/**
+ * Delimited token tree at the current position, as scanned by {@link RustTokenizer#delimitedTokenTree(CharSequence)}:
+ * the tokens of the group, nested groups included, are the children of the rule node, with the same types and comment
+ * trivia as when matched token by token. Fails when the group has to be matched by the grammar rules.
+ */
+class DelimitedTokenTreeExpression extends NativeExpression implements Matcher {
+
+  private final Map<RustTokenType, Matcher> tokens = new EnumMap<>(RustTokenType.class);
+  private final Matcher comment = new TriviaExpression(TriviaKind.COMMENT, this);
+
+  DelimitedTokenTreeExpression() {
+    for (RustTokenType type : RustTokenType.values()) {
+      tokens.put(type, new TokenExpression(type, this));
+    }
+  }
+
+  @Override
+  public void execute(Machine machine) {
+    char c = machine.length() > 0 ? machine.charAt(0) : 0;
+    RustTokenizer.Spans spans = (c == '(' || c == '[' || c == '{') ? RustTokenizer.delimitedTokenTree(machine) : null;
+    if (spans == null) {
+      machine.backtrack();
+      return;
+    }
+    int pos = 0;
+    for (int i = 0; i < spans.size(); i++) {
+      // spacing is skipped trivia, which has no node
+      machine.advanceIndex(spans.start(i) - pos);
+      pos = spans.end(i);
+      machine.createLeafNode(matcher(spans.type(i)), pos - spans.start(i));
+    }
+    machine.jump(1);
+  }
+
+  /**
+   * Nodes of undefined tokens are created by this expression, like those of string expressions.
+   */
+  private Matcher matcher(TokenType type) {
+    if (type == GenericTokenType.COMMENT) {
+      return comment;
+    }
+    return type instanceof RustTokenType ? tokens.get(type) : this;
+  }
+
+  @Override
+  public String toString() {
+    return "DelimitedTokenTree";
+  }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.Parser;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.sslr.parser.LexerlessGrammar;
+import org.sonar.sslr.parser.ParseRunner;
+import org.sonar.sslr.parser.ParsingResult;
+
+/**
+ * Parser keeping the tree of the last files it parsed, so that a file edited in an IDE is only parsed again around the
+ * edit: the top-level statements overlapping the edit are parsed again, the ones before it are reused as they are and
+ * the ones after it are reused with their indexes, lines and columns shifted. The whole file is parsed again when the
+ * edit is not within top-level statements, or when the statements around it cannot be parsed on their own, so that the
+ * tree or the parse error are always the ones of {@link RustParser}.
+ * <p>
+ * The trees returned by the parser must not be modified, and a file's previous tree must not be used once the file
+ * has been parsed again, as nodes it shares with the new tree are moved into it. A file is parsed by one thread at a
+ * time, different files can be parsed concurrently.
+ */
+public final class IncrementalParser {
+
+  /**
+   * Number of files whose tree is kept, the least recently parsed ones being forgotten first.
+   */
+  public static final int MAX_FILES = 16;
+
+  private final Parser<Grammar> parser;
+  private final ParseRunner middle;
+  private final ParseRunner last;
+  private final long timeoutMillis;
+  private final boolean memoize;
+  private final int memoTableSize;
+  private static final int LOCKS = 64;
+
+  private final Map<String, ParsedFile> files = Collections.synchronizedMap(new LinkedHashMap<>(MAX_FILES, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, ParsedFile> eldest) {
+      return size() > MAX_FILES;
+    }
+  });
+  // a file is locked while parsed, as its new tree moves nodes of its previous one: locks are shared by the files
+  // having the same hash modulo their number, which bounds them
+  private final Object[] locks = new Object[LOCKS];
+
+  IncrementalParser(RustParserConfiguration conf) {
+    this.parser = RustParser.create(conf);
+    LexerlessGrammar grammar = RustGrammarRegistry.chunkGrammar(conf.getMemoizedRules());
+    this.middle = new ParseRunner(grammar.rule(ChunkedParserAdapter.Chunk.MIDDLE));
+    this.last = new ParseRunner(grammar.rule(ChunkedParserAdapter.Chunk.LAST));
+    this.timeoutMillis = conf.getParseTimeoutMillis();
+    this.memoize = !conf.getMemoizedRules().isEmpty();
+    this.memoTableSize = conf.getMemoTableSize();
+    Arrays.setAll(locks, i -> new Object());
+  }
+
+  /**
+   * Tree of the given source of the file with the given key, parsed again around the changes since the last time the
+   * file was parsed successfully, if it is still known. The parse timeout applies to the file as a whole, the parse
+   * of the whole file after the changes could not be parsed on their own included.
+   *
+   * @throws com.sonar.sslr.api.RecognitionException if the source cannot be parsed, the last tree of the file being kept
+   */
+  public AstNode parse(String key, String source) {
+    synchronized (lock(key)) {
+      boolean budget = ParseBudget.startIfNone(timeoutMillis);
+      try {
+        ParsedFile previous = files.get(key);
+        AstNode tree = previous == null ? null : reparse(previous, source);
+        if (tree == null) {
+          tree = parser.parse(source);
+        }
+        files.put(key, new ParsedFile(source, tree));
+        return tree;
+      } finally {
+        if (budget) {
+          ParseBudget.stop();
+        }
+      }
+    }
+  }
+
+  /**
+   * Forgets the tree of the given file, e.g. when it is closed.
+   */
+  public void forget(String key) {
+    synchronized (lock(key)) {
+      files.remove(key);
+    }
+  }
+
+  private Object lock(String key) {
+    return locks[Math.floorMod(key.hashCode(), LOCKS)];
+  }
+
+  /**
+   * @return the tree of the new source, null when it has to be parsed as a whole
+   */
+  private AstNode reparse(ParsedFile previous, String source) {
+    String oldSource = previous.source;
+    if (oldSource.equals(source)) {
+      return previous.tree;
+    }
+    int oldLength = oldSource.length();
+    int newLength = source.length();
+    int editStart = 0;
+    int maxPrefix = Math.min(oldLength, newLength);
+    while (editStart < maxPrefix && oldSource.charAt(editStart) == source.charAt(editStart)) {
+      editStart++;
+    }
+    int suffix = 0;
+    while (suffix < maxPrefix - editStart && oldSource.charAt(oldLength - 1 - suffix) == source.charAt(newLength - 1 - suffix)) {
+      suffix++;
+    }
+    int oldEditEnd = oldLength - suffix;
+
+    // the statements from the last one starting before the edit to the first one starting after it: the spacing
+    // preceding a statement starting at the edit could change
+    List<AstNode> children = previous.tree.getChildren();
+    int first = -1;
+    int next = -1;
+    for (int i = 0; i < children.size(); i++) {
+      AstNode child = children.get(i);
+      if (child.is(RustGrammar.STATEMENT)) {
+        if (child.getFromIndex() < editStart) {
+          first = i;
+        } else if (child.getFromIndex() > oldEditEnd) {
+          next = i;
+          break;
+        }
+      }
+    }
+    if (first < 0) {
+      return null;
+    }
+    int delta = newLength - oldLength;
+    int regionStart = children.get(first).getFromIndex();
+    int regionEnd = next < 0 ? newLength : (children.get(next).getFromIndex() + delta);
+    ParsingResult result = parse(next < 0 ? last : middle, source.substring(regionStart, regionEnd));
+    if (!result.isMatched()) {
+      return null;
+    }
+
+    ChunkTreeBuilder builder = new ChunkTreeBuilder(source, null);
+    builder.addTrivia(children.get(first).getToken().getTrivia());
+    List<AstNode> newChildren = new ArrayList<>(children.subList(0, first));
+    builder.addChildren(result.getParseTreeRoot(), regionStart, newChildren);
+    if (next >= 0) {
+      Token nextToken = children.get(next).getToken();
+      List<Trivia> nextTrivia = builder.trivia();
+      var shift = new Shift(delta, nextToken.getLine(), builder.line(regionEnd) - nextToken.getLine(),
+        builder.column(regionEnd) - nextToken.getColumn(), nextTrivia.isEmpty() && nextToken.getTrivia().isEmpty() ? null : nextTrivia);
+      for (AstNode child : children.subList(next, children.size())) {
+        newChildren.add(shift.apply(child));
+      }
+    }
+    return ChunkTreeBuilder.compilationUnit(newChildren, newLength);
+  }
+
+  private ParsingResult parse(ParseRunner runner, String region) {
+    if (memoize) {
+      ParseMemo.start(Math.min(memoTableSize, region.length()));
+    }
+    try {
+      return runner.parse(region.toCharArray());
+    } finally {
+      ParseMemo.stop();
+    }
+  }
+
+  private static final class ParsedFile {
+    private final String source;
+    private final AstNode tree;
+
+    ParsedFile(String source, AstNode tree) {
+      this.source = source;
+      this.tree = tree;
+    }
+  }
+
+  /**
+   * Moves the nodes following the edit: indexes move by the difference of length, lines by the difference of number
+   * of lines, and columns on the line where the edit ends by the difference of length of that line. The comments
+   * preceding the first token, which were part of the edited text, are replaced.
+   */
+  private static final class Shift {
+
+    private final int delta;
+    private final int line;
+    private final int lineDelta;
+    private final int columnDelta;
+    private List<Trivia> firstTrivia;
+
+    Shift(int delta, int line, int lineDelta, int columnDelta, List<Trivia> firstTrivia) {
+      this.delta = delta;
+      this.line = line;
+      this.lineDelta = lineDelta;
+      this.columnDelta = columnDelta;
+      this.firstTrivia = firstTrivia;
+    }
+
+    AstNode apply(AstNode node) {
+      Token token = node.getToken();
+      if (firstTrivia == null && lineDelta == 0 && (columnDelta == 0 || token == null || token.getLine() > line)) {
+        // none of the tokens moves
+        moveIndexes(node);
+        return node;
+      }
+      if (!node.hasChildren() && token != null) {
+        AstNode moved = new AstNode(apply(token));
+        moved.setFromIndex(node.getFromIndex() + delta);
+        moved.setToIndex(node.getToIndex() + delta);
+        return moved;
+      }
+      List<AstNode> children = new ArrayList<>(node.getNumberOfChildren());
+      for (AstNode child : node.getChildren()) {
+        children.add(apply(child));
+      }
+      AstNode moved = new AstNode(node.getType(), node.getName(), ChunkTreeBuilder.firstToken(children));
+      children.forEach(moved::addChild);
+      moved.setFromIndex(node.getFromIndex() + delta);
+      moved.setToIndex(node.getToIndex() + delta);
+      return moved;
+    }
+
+    private Token apply(Token token) {
+      List<Trivia> trivia;
+      if (firstTrivia != null) {
+        trivia = firstTrivia;
+        firstTrivia = null;
+      } else if (token.getTrivia().isEmpty()) {
+        trivia = Collections.emptyList();
+      } else {
+        trivia = new ArrayList<>(token.getTrivia().size());
+        for (Trivia comment : token.getTrivia()) {
+          trivia.add(Trivia.createComment(move(comment.getToken()).build()));
+        }
+      }
+      return move(token).setTrivia(trivia).build();
+    }
+
+    private Token.Builder move(Token token) {
+      return Token.builder(token)
+        .setLine(token.getLine() + lineDelta)
+        .setColumn(token.getLine() == line ? (token.getColumn() + columnDelta) : token.getColumn());
+    }
+
+    private void moveIndexes(AstNode root) {
+      if (delta == 0) {
+        return;
+      }
+      Deque<AstNode> stack = new ArrayDeque<>();
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        AstNode node = stack.pop();
+        node.setFromIndex(node.getFromIndex() + delta);
+        node.setToIndex(node.getToIndex() + delta);
+        for (AstNode child : node.getChildren()) {
+          stack.push(child);
+        }
+      }
+    }
+  }
+
+}
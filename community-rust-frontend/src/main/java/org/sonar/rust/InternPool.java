@@ -0,0 +1,115 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Strings shared by all the files of an analysis, so that the many tokens holding the same keyword, punctuator or
+ * identifier hold the same string rather than a copy each: tokens, duplication images and highlighting outlive the
+ * parse of their file when files are analyzed in parallel or results are cached.
+ * <p>
+ * Each pool is a fixed-size table indexed by hash, where a string replaces the one with the same index, so that the
+ * memory it takes is bounded whatever the number of distinct identifiers of a project. Lookups and updates are
+ * lock-free: concurrent updates at the same index simply keep one of the strings. Only short strings are pooled.
+ */
+public final class InternPool {
+
+  static final int MAX_LENGTH = 64;
+  private static final int SIZE = 1 << 14;
+  private static final AtomicReferenceArray<String> VALUES = new AtomicReferenceArray<>(SIZE);
+  // pairs of a string and its lower case
+  private static final AtomicReferenceArray<String[]> LOWER_CASES = new AtomicReferenceArray<>(SIZE);
+
+  private InternPool() {
+  }
+
+  /**
+   * Pooled string equal to the given range of the source, only created when it is not pooled yet.
+   */
+  public static String intern(String source, int start, int end) {
+    int length = end - start;
+    if (length > MAX_LENGTH) {
+      return source.substring(start, end);
+    }
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + source.charAt(i);
+    }
+    int index = index(hash);
+    String pooled = VALUES.get(index);
+    if (pooled != null && pooled.length() == length && source.regionMatches(start, pooled, 0, length)) {
+      return pooled;
+    }
+    String value = source.substring(start, end);
+    VALUES.set(index, value);
+    return value;
+  }
+
+  /**
+   * Pooled string equal to the given one.
+   */
+  public static String intern(String value) {
+    return intern(value, 0, value.length());
+  }
+
+  /**
+   * Pooled lower case of the given string, the string itself when it has no upper case character.
+   */
+  public static String toLowerCase(String value) {
+    if (isLowerCase(value)) {
+      return value;
+    }
+    if (value.length() > MAX_LENGTH) {
+      return value.toLowerCase(Locale.ENGLISH);
+    }
+    int index = index(value.hashCode());
+    String[] pair = LOWER_CASES.get(index);
+    if (pair != null && (pair[0] == value || pair[0].equals(value))) {
+      return pair[1];
+    }
+    String lowerCase = value.toLowerCase(Locale.ENGLISH);
+    if (lowerCase != value) {
+      lowerCase = intern(lowerCase);
+    }
+    LOWER_CASES.set(index, new String[] {value, lowerCase});
+    return lowerCase;
+  }
+
+  /**
+   * Whether the string is known to be its own lower case: it has no upper case or non-ASCII character.
+   */
+  private static boolean isLowerCase(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if ((c >= 'A' && c <= 'Z') || c >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int index(int hash) {
+    return (hash ^ (hash >>> 16)) & (SIZE - 1);
+  }
+
+}
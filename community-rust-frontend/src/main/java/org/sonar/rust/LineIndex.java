@@ -0,0 +1,115 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.Arrays;
+
+/**
+ * Start offsets of the lines of a file, to find the line and column of an offset or the bounds of a line without
+ * splitting the file content. Lines end with a line feed, a carriage return and a line feed, or a carriage return, as
+ * for the tokens. Lines are numbered from 1 and columns from 0.
+ */
+public final class LineIndex {
+
+  private final CharSequence content;
+  private final int[] lineStarts;
+  private final int lineCount;
+
+  public LineIndex(CharSequence content) {
+    this.content = content;
+    int length = content.length();
+    int[] starts = new int[16];
+    int count = 1;
+    for (int i = 0; i < length; i++) {
+      char c = content.charAt(i);
+      if (c == '\n' || (c == '\r' && (i + 1 == length || content.charAt(i + 1) != '\n'))) {
+        if (count == starts.length) {
+          starts = Arrays.copyOf(starts, 2 * count);
+        }
+        starts[count++] = i + 1;
+      }
+    }
+    this.lineStarts = starts;
+    this.lineCount = count;
+  }
+
+  /**
+   * @return the number of lines, the empty text after a final line terminator being a line
+   */
+  public int lineCount() {
+    return lineCount;
+  }
+
+  /**
+   * @return the offset of the first character of the given line
+   */
+  public int lineStart(int line) {
+    return lineStarts[checkLine(line) - 1];
+  }
+
+  /**
+   * @return the offset of the line terminator ending the given line, or the length of the content for the last line
+   */
+  public int lineEnd(int line) {
+    if (checkLine(line) == lineCount) {
+      return content.length();
+    }
+    int end = lineStarts[line] - 1;
+    return end > 0 && content.charAt(end) == '\n' && content.charAt(end - 1) == '\r' ? (end - 1) : end;
+  }
+
+  /**
+   * @return the number of characters of the given line, line terminator excluded
+   */
+  public int lineLength(int line) {
+    return lineEnd(line) - lineStart(line);
+  }
+
+  /**
+   * @return the line of the character at the given offset, the last line for the length of the content
+   */
+  public int line(int offset) {
+    if (offset < 0 || offset > content.length()) {
+      throw new IllegalArgumentException("Offset " + offset + " is out of the content of length " + content.length());
+    }
+    int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+    return index >= 0 ? (index + 1) : -(index + 1);
+  }
+
+  public int column(int offset) {
+    return offset - lineStarts[line(offset) - 1];
+  }
+
+  /**
+   * @return the offset of the given line and column
+   */
+  public int offset(int line, int column) {
+    return lineStart(line) + column;
+  }
+
+  private int checkLine(int line) {
+    if (line < 1 || line > lineCount) {
+      throw new IllegalArgumentException("Line " + line + " is out of the " + lineCount + " lines of the content");
+    }
+    return line;
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Matches the empty string when the next character is one of the given ASCII characters. Put in front of a rule
+ * whose alternatives all start with one of them, it makes the rule fail at once instead of trying every alternative.
+ */
+class NextCharExpression extends NativeExpression {
+
+  private final String chars;
+  private final boolean[] accepted = new boolean[128];
+
+  NextCharExpression(String chars) {
+    this.chars = chars;
+    for (char c : chars.toCharArray()) {
+      if (c >= accepted.length) {
+        throw new IllegalArgumentException("Not an ASCII character: " + c);
+      }
+      accepted[c] = true;
+    }
+  }
+
+  @Override
+  public void execute(Machine machine) {
+    if (machine.length() > 0 && machine.charAt(0) < accepted.length && accepted[machine.charAt(0)]) {
+      machine.jump(1);
+    } else {
+      machine.backtrack();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "NextChar[" + chars + "]";
+  }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.sonar.rust.api.RustKeyword;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Identifier which is not a keyword, replacing the regular expression {@code XID_START XID_CONTINUE*} followed by a
+ * negative lookbehind on {@code ^keyword$} for every keyword.
+ * <p>
+ * As {@code $} only matches at the end of the input, possibly before a final line terminator, the lookbehind only
+ * rejects a keyword ending the input: the regular expression then backtracks and matches the keyword without its last
+ * character. Keywords elsewhere are matched like any other identifier. This behavior is kept, so the keyword lookup is
+ * only needed at the end of the input.
+ */
+class NonKeywordIdentifierExpression extends NativeExpression implements org.sonar.sslr.internal.matchers.Matcher {
+
+  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(RustKeyword.keywordValues()));
+
+  @Override
+  public void execute(Machine machine) {
+    int end = match(machine);
+    if (end > 0) {
+      machine.createLeafNode(this, end);
+      machine.jump(1);
+    } else {
+      machine.backtrack();
+    }
+  }
+
+  /**
+   * @return the length of the identifier at the start of the given input, 0 when there is none
+   */
+  static int match(CharSequence input) {
+    int length = input.length();
+    if (length == 0) {
+      return 0;
+    }
+    int cp = Character.codePointAt(input, 0);
+    if (!isXidStart(cp)) {
+      return 0;
+    }
+    int end = Character.charCount(cp);
+    while (end < length) {
+      cp = Character.codePointAt(input, end);
+      if (!isXidContinue(cp)) {
+        break;
+      }
+      end += Character.charCount(cp);
+    }
+    if (isEndOfInput(input, end) && isKeyword(input, end)) {
+      end -= Character.charCount(Character.codePointBefore(input, end));
+    }
+    return end;
+  }
+
+  private static boolean isEndOfInput(CharSequence input, int pos) {
+    int remaining = input.length() - pos;
+    if (remaining == 0) {
+      return true;
+    }
+    char c = input.charAt(pos);
+    if (remaining == 1) {
+      return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+    return remaining == 2 && c == '\r' && input.charAt(pos + 1) == '\n';
+  }
+
+  private static boolean isKeyword(CharSequence input, int end) {
+    var sb = new StringBuilder(end);
+    for (int i = 0; i < end; i++) {
+      sb.append(input.charAt(i));
+    }
+    return KEYWORDS.contains(sb.toString());
+  }
+
+  /**
+   * Same as {@code [_\p{L}\p{Nl}]}.
+   */
+  static boolean isXidStart(int cp) {
+    if (cp < 0x80) {
+      return (cp >= 'a' && cp <= 'z') || (cp >= 'A' && cp <= 'Z') || cp == '_';
+    }
+    return Character.isLetter(cp) || Character.getType(cp) == Character.LETTER_NUMBER;
+  }
+
+  /**
+   * Same as {@code [\p{L}\p{Nl}\p{Mn}\p{Mc}\p{Nd}\p{Pc}]}.
+   */
+  static boolean isXidContinue(int cp) {
+    if (cp < 0x80) {
+      return (cp >= 'a' && cp <= 'z') || (cp >= 'A' && cp <= 'Z') || (cp >= '0' && cp <= '9') || cp == '_';
+    }
+    int type = Character.getType(cp);
+    return Character.isLetter(cp)
+      || type == Character.LETTER_NUMBER
+      || type == Character.NON_SPACING_MARK
+      || type == Character.COMBINING_SPACING_MARK
+      || type == Character.DECIMAL_DIGIT_NUMBER
+      || type == Character.CONNECTOR_PUNCTUATION;
+  }
+
+  @Override
+  public String toString() {
+    return "NonKeywordIdentifier";
+  }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.concurrent.CancellationException;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Bounds the time spent parsing a single file. The grammar checks the budget each time whitespace may occur, which
+ * happens between almost every pair of tokens, backtracking included. Budgets are per thread, so that the grammar
+ * can still be shared.
+ */
+final class ParseBudget {
+
+  /**
+   * Expression matching the empty string, which fails the parse with a {@link ParseTimeoutException} once the budget
+   * of the current thread is exhausted.
+   */
+  static final Object CHECKPOINT = new Checkpoint();
+
+  private static final ThreadLocal<ParseBudget> CURRENT = new ThreadLocal<>();
+  // reading the clock on each checkpoint would dominate the cost of the check
+  private static final int STEPS_BETWEEN_CLOCK_READS = 1 << 10;
+
+  // 0 when the budget only ends when cancelled
+  private final long timeoutMillis;
+  private final long deadline;
+  // budget whose cancellation ends this one, this budget itself when null
+  private final ParseBudget parent;
+  private volatile boolean cancelled;
+  private int steps;
+
+  private ParseBudget(long timeoutMillis, long deadline, ParseBudget parent) {
+    this.timeoutMillis = timeoutMillis;
+    this.deadline = deadline;
+    this.parent = parent;
+  }
+
+  static void start(long timeoutMillis) {
+    CURRENT.set(new ParseBudget(timeoutMillis, System.nanoTime() + timeoutMillis * 1_000_000L, null));
+  }
+
+  /**
+   * Starts a budget on the current thread, unless it already has one: the budget of a caller parsing the same file,
+   * e.g. before falling back to another parser, is kept so that the file does not get more time.
+   *
+   * @return whether a budget was started, which the caller then has to stop
+   */
+  static boolean startIfNone(long timeoutMillis) {
+    if (timeoutMillis <= 0 || CURRENT.get() != null) {
+      return false;
+    }
+    start(timeoutMillis);
+    return true;
+  }
+
+  /**
+   * Budget for the parts of a file parsed by other threads: it ends with the budget of the current thread, if any,
+   * or when cancelled.
+   */
+  static ParseBudget fork() {
+    var budget = CURRENT.get();
+    return budget == null ? new ParseBudget(0, 0, null) : new ParseBudget(budget.timeoutMillis, budget.deadline, null);
+  }
+
+  /**
+   * Starts on the current thread a budget ending with the given one, so that the parts of a file parsed by other
+   * threads share its deadline and are stopped when it is cancelled.
+   */
+  static void startLike(ParseBudget budget) {
+    CURRENT.set(new ParseBudget(budget.timeoutMillis, budget.deadline, budget));
+  }
+
+  /**
+   * Budget of the current thread, null when it has none.
+   */
+  static ParseBudget current() {
+    return CURRENT.get();
+  }
+
+  static void stop() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Makes the parses using this budget, or one started like it, fail with a {@link CancellationException} at their
+   * next check.
+   */
+  void cancel() {
+    cancelled = true;
+  }
+
+  private void check() {
+    steps++;
+    if (steps % STEPS_BETWEEN_CLOCK_READS != 0) {
+      return;
+    }
+    if ((parent == null ? this : parent).cancelled) {
+      throw new CancellationException();
+    }
+    if (timeoutMillis > 0 && System.nanoTime() - deadline > 0) {
+      throw new ParseTimeoutException(timeoutMillis);
+    }
+  }
+
+  private static final class Checkpoint extends NativeExpression {
+
+    @Override
+    public void execute(Machine machine) {
+      var budget = CURRENT.get();
+      if (budget != null) {
+        budget.check();
+      }
+      machine.jump(1);
+    }
+
+    @Override
+    public String toString() {
+      return "ParseBudget";
+    }
+  }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.Arrays;
+import java.util.List;
+import org.sonar.sslr.internal.matchers.ParseNode;
+import org.sonar.sslr.internal.vm.CompilationHandler;
+import org.sonar.sslr.internal.vm.Instruction;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.MachineStack;
+import org.sonar.sslr.internal.vm.ParsingExpression;
+
+/**
+ * Packrat memoization of the results of some rules: whether a rule matched at a position and, if so, its nodes and
+ * end. The parser itself only remembers the last node created at each position, which does not help when a rule is
+ * tried again after another one, or when it failed.
+ * <p>
+ * Results are kept in a direct-mapped table of bounded size: a result evicts the one of another rule or position
+ * mapped to the same slot. Tables are per thread and per parse, so that the grammar can still be shared.
+ */
+final class ParseMemo {
+
+  private static final ThreadLocal<ParseMemo> CURRENT = new ThreadLocal<>();
+  private static final Object FAILURE = new Object();
+  private static final long EMPTY = -1L;
+  private static final int MIN_SIZE = 16;
+
+  private final long[] keys;
+  private final Object[] results;
+  private final int shift;
+
+  private ParseMemo(int size) {
+    int capacity = Integer.highestOneBit(Math.max(MIN_SIZE, size));
+    this.keys = new long[capacity];
+    this.results = new Object[capacity];
+    this.shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    Arrays.fill(keys, EMPTY);
+  }
+
+  /**
+   * Starts memoizing for the current thread, with a table of at most the given number of results.
+   */
+  static void start(int size) {
+    CURRENT.set(new ParseMemo(size));
+  }
+
+  static void stop() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Rule expression whose results are memoized when a table was started for the current thread.
+   *
+   * @param id distinct for each memoized rule of a grammar
+   */
+  static ParsingExpression memoize(int id, ParsingExpression expression) {
+    return new MemoExpression(id, expression);
+  }
+
+  private int slot(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+
+  private Object get(long key) {
+    int slot = slot(key);
+    return keys[slot] == key ? results[slot] : null;
+  }
+
+  private void put(long key, Object result) {
+    int slot = slot(key);
+    keys[slot] = key;
+    results[slot] = result;
+  }
+
+  private static long key(int id, int index) {
+    return ((long) id << Integer.SIZE) | index;
+  }
+
+  private static final class Success {
+
+    private final int end;
+    private final ParseNode[] nodes;
+
+    private Success(int end, ParseNode[] nodes) {
+      this.end = end;
+      this.nodes = nodes;
+    }
+
+  }
+
+  private static final class MemoExpression implements ParsingExpression {
+
+    private final int id;
+    private final ParsingExpression subExpression;
+
+    private MemoExpression(int id, ParsingExpression subExpression) {
+      this.id = id;
+      this.subExpression = subExpression;
+    }
+
+    /**
+     * Compiles this expression into a sequence of instructions:
+     * <pre>
+     * Lookup L2
+     * Choice L1
+     * subExpression
+     * Store
+     * L1: Fail
+     * L2: ...
+     * </pre>
+     */
+    @Override
+    public Instruction[] compile(CompilationHandler compiler) {
+      Instruction[] instr = compiler.compile(subExpression);
+      Instruction[] result = new Instruction[instr.length + 4];
+      result[0] = new LookupInstruction(id, result.length);
+      result[1] = Instruction.choice(instr.length + 2);
+      System.arraycopy(instr, 0, result, 2, instr.length);
+      result[instr.length + 2] = new StoreInstruction(id);
+      result[instr.length + 3] = new FailInstruction(id);
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "Memo[" + subExpression + "]";
+    }
+
+  }
+
+  /**
+   * Replays a memoized result, or goes on with the expression.
+   */
+  private static final class LookupInstruction extends Instruction {
+
+    private final int id;
+    private final int offset;
+
+    private LookupInstruction(int id, int offset) {
+      this.id = id;
+      this.offset = offset;
+    }
+
+    @Override
+    public void execute(Machine machine) {
+      var memo = CURRENT.get();
+      Object result = memo == null ? null : memo.get(key(id, machine.getIndex()));
+      if (result == FAILURE) {
+        machine.backtrack();
+      } else if (result != null) {
+        var success = (Success) result;
+        machine.peek().subNodes().addAll(Arrays.asList(success.nodes));
+        machine.setIndex(success.end);
+        machine.jump(offset);
+      } else {
+        machine.jump(1);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "MemoLookup " + id;
+    }
+
+  }
+
+  /**
+   * Memoizes a match, then commits like {@link Instruction#commit(int)}.
+   */
+  private static final class StoreInstruction extends Instruction {
+
+    private final int id;
+
+    private StoreInstruction(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public void execute(Machine machine) {
+      MachineStack stack = machine.peek();
+      List<ParseNode> nodes = stack.subNodes();
+      var memo = CURRENT.get();
+      if (memo != null) {
+        memo.put(key(id, stack.index()), new Success(machine.getIndex(), nodes.toArray(new ParseNode[0])));
+      }
+      stack.parent().subNodes().addAll(nodes);
+      machine.pop();
+      machine.jump(2);
+    }
+
+    @Override
+    public String toString() {
+      return "MemoStore " + id;
+    }
+
+  }
+
+  /**
+   * Memoizes a failure, the input being back at the start of the expression, then backtracks.
+   */
+  private static final class FailInstruction extends Instruction {
+
+    private final int id;
+
+    private FailInstruction(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public void execute(Machine machine) {
+      var memo = CURRENT.get();
+      if (memo != null) {
+        memo.put(key(id, machine.getIndex()), FAILURE);
+      }
+      machine.backtrack();
+    }
+
+    @Override
+    public String toString() {
+      return "MemoFail " + id;
+    }
+
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.TokenType;
+import com.sonar.sslr.api.Trivia;
+import javax.annotation.CheckForNull;
+import org.sonar.sslr.internal.grammar.MutableParsingRule;
+import org.sonar.sslr.internal.matchers.ParseNode;
+import org.sonar.sslr.internal.vm.TokenExpression;
+import org.sonar.sslr.internal.vm.TriviaExpression;
+
+/**
+ * What the nodes of a parse tree matched, as used by the parser to build the syntax tree. The parse tree is returned
+ * by {@link org.sonar.sslr.parser.ParsingResult}, but what its nodes matched is only exposed by classes of the internal
+ * API of SSLR: this is the only class reading them, so that an upgrade of SSLR only has to be checked here.
+ */
+final class ParseNodes {
+
+  private ParseNodes() {
+  }
+
+  /**
+   * @return the rule matched by the node, null when it matched a token or trivia
+   */
+  @CheckForNull
+  static AstNodeType rule(ParseNode node) {
+    Object matcher = node.getMatcher();
+    return matcher instanceof MutableParsingRule ? (MutableParsingRule) matcher : null;
+  }
+
+  static String ruleName(ParseNode node) {
+    return ((MutableParsingRule) node.getMatcher()).getName();
+  }
+
+  /**
+   * @return whether the node matched trivia, which does not become a token
+   */
+  static boolean isTrivia(ParseNode node) {
+    return node.getMatcher() instanceof TriviaExpression;
+  }
+
+  /**
+   * @return whether the node matched a comment, either as comment trivia or as a token of type comment
+   */
+  static boolean isComment(ParseNode node) {
+    Object matcher = node.getMatcher();
+    if (matcher instanceof TriviaExpression) {
+      return ((TriviaExpression) matcher).getTriviaKind() == Trivia.TriviaKind.COMMENT;
+    }
+    return matcher instanceof TokenExpression && ((TokenExpression) matcher).getTokenType() == GenericTokenType.COMMENT;
+  }
+
+  /**
+   * @return the type of the token matched by the node, null when it matched text which was not given a type by the
+   * grammar
+   */
+  @CheckForNull
+  static TokenType tokenType(ParseNode node) {
+    Object matcher = node.getMatcher();
+    return matcher instanceof TokenExpression ? ((TokenExpression) matcher).getTokenType() : null;
+  }
+
+}
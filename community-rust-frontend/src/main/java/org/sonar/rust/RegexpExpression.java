@@ -0,0 +1,69 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.sonar.sslr.grammar.GrammarException;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Same as the regular expressions of {@link org.sonar.sslr.grammar.LexerlessGrammarBuilder#regexp(String)}, except that
+ * the {@link Matcher} is not shared between threads, so that a built grammar can be used by several parsers at once.
+ */
+class RegexpExpression extends NativeExpression implements org.sonar.sslr.internal.matchers.Matcher {
+
+  private final Pattern pattern;
+  private final ThreadLocal<Matcher> matcher;
+
+  RegexpExpression(String regexp) {
+    this.pattern = Pattern.compile(regexp);
+    this.matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
+  }
+
+  @Override
+  public void execute(Machine machine) {
+    var m = matcher.get();
+    m.reset(machine);
+    boolean result;
+    try {
+      result = m.lookingAt();
+    } catch (StackOverflowError e) {
+      throw new GrammarException(e, "The regular expression '" + pattern.pattern() + "' has led to a stack overflow error.");
+    }
+    if (result) {
+      machine.createLeafNode(this, m.end());
+      machine.jump(1);
+    } else {
+      machine.backtrack();
+    }
+
+    // Avoid keeping a reference to the "Machine" instance
+    m.reset("");
+  }
+
+  @Override
+  public String toString() {
+    return "Pattern " + pattern.pattern();
+  }
+
+}
@@ -21,14 +21,12 @@
 package org.sonar.rust;
 
 import com.sonar.sslr.api.GenericTokenType;
-import org.apache.commons.lang3.ArrayUtils;
 import org.sonar.rust.api.RustKeyword;
 import org.sonar.rust.api.RustPunctuator;
 import org.sonar.rust.api.RustTokenType;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 import org.sonar.sslr.grammar.LexerlessGrammarBuilder;
 
-import java.util.Arrays;
 
 public enum RustGrammar implements GrammarRuleKey {
   ABI,
@@ -219,6 +217,7 @@ public enum RustGrammar implements GrammarRuleKey {
   OUTER_BLOCK_DOC,
   OUTER_LINE_DOC,
   PARENTHESIZED_TYPE,
+  PARSE_ERROR,
   PATH_EXPRESSION,
   PATH_EXPR_SEGMENT,
   PATH_IDENT_SEGMENT,
@@ -361,21 +360,49 @@ public enum RustGrammar implements GrammarRuleKey {
     patterns(b);
     statement(b);
 
+    b.rule(PARSE_ERROR).is(new UnparsedItemExpression());
+
     b.setRootRule(COMPILATION_UNIT);
 
     return b;
   }
 
+  /**
+   * Grammar which does not fail on the top-level statements it cannot parse: each of them is matched by a
+   * {@link #PARSE_ERROR} node, up to the next item boundary, and the parse goes on with the rest of the file.
+   * Statements which can be parsed get the same nodes as with {@link #create()}.
+   */
+  public static LexerlessGrammarBuilder createRecovering() {
+    LexerlessGrammarBuilder b = create();
+    b.rule(COMPILATION_UNIT).override(SPC, b.zeroOrMore(INNER_ATTRIBUTE, SPC),
+      b.zeroOrMore(b.firstOf(STATEMENT, MACRO_INVOCATION, PARSE_ERROR), SPC),
+      EOF);
+    return b;
+  }
+
+  // first characters of all the alternatives of EXPRESSION_TERM and EXPRESSION_TERM_EXCEPT_STRUCT: operators,
+  // calls, indexes, fields, methods, ranges, "?" and "as"
+  private static final Object EXPRESSION_TERM_START = new NextCharExpression(".([?a|&!<>=+-*/%^");
+
+  /**
+   * Unlike {@link LexerlessGrammarBuilder#regexp(String)}, the returned expression can be used concurrently,
+   * see {@link RustGrammarRegistry}.
+   */
+  private static Object regexp(String regexp) {
+    return new RegexpExpression(regexp);
+  }
+
   private static Object inlineComment(LexerlessGrammarBuilder b) {
-    return b.regexp("//[^\\n\\r]*+");
+    return regexp("//[^\\n\\r]*+");
   }
 
   private static Object multilineComment(LexerlessGrammarBuilder b) {
-    return b.regexp("/\\*[\\s\\S]*?\\*\\/");
+    return regexp("/\\*[\\s\\S]*?\\*\\/");
   }
 
   private static void literals(LexerlessGrammarBuilder b) {
     b.rule(SPC).is(
+      ParseBudget.CHECKPOINT,
       b.skippedTrivia(whitespace(b)),
       b.zeroOrMore(
         b.commentTrivia(b.firstOf(inlineComment(b), multilineComment(b))),
@@ -384,7 +411,7 @@ public enum RustGrammar implements GrammarRuleKey {
     b.rule(EOF).is(b.token(GenericTokenType.EOF, b.endOfInput())).skip();
 
     b.rule(UNKNOWN_CHAR).is(
-      b.token(GenericTokenType.UNKNOWN_CHAR, b.regexp("(?s).")),
+      b.token(GenericTokenType.UNKNOWN_CHAR, regexp("(?s).")),
       SPC).skip();
 
     b.rule(CHAR_LITERAL).is(b.token(RustTokenType.CHARACTER_LITERAL,
@@ -393,12 +420,12 @@ public enum RustGrammar implements GrammarRuleKey {
           UNICODE_ESCAPE,
           QUOTE_ESCAPE,
           ASCII_ESCAPE,
-          b.regexp("[\\x00-\\x08\\x11-\\x12\\x14-\\x26\\x28-x5b\\x5d-\\x{1ffff}]")),
+          regexp("[\\x00-\\x08\\x11-\\x12\\x14-\\x26\\x28-x5b\\x5d-\\x{1ffff}]")),
         "'"
 
       ))).skip();
 
-    b.rule(STRING_CONTENT).is(b.oneOrMore(b.regexp("[\\x{0000}-\\x{0021}\\x{0023}-\\x{005b}\\x{005d}-\\x{1ffff}]")));
+    b.rule(STRING_CONTENT).is(b.oneOrMore(regexp("[\\x{0000}-\\x{0021}\\x{0023}-\\x{005b}\\x{005d}-\\x{1ffff}]")));
 
     b.rule(STRING_LITERAL).is(b.token(RustTokenType.STRING_LITERAL,
       b.sequence(
@@ -418,19 +445,19 @@ public enum RustGrammar implements GrammarRuleKey {
 
   private static void comments(LexerlessGrammarBuilder b) {
     b.rule(LINE_COMMENT).is(b.commentTrivia(
-      b.regexp("////[^!/\\n]*|//[^!/\\n]*")));
+      regexp("////[^!/\\n]*|//[^!/\\n]*")));
 
     b.rule(BLOCK_COMMENT).is(b.commentTrivia(
       b.firstOf(
         "/***/",
         "/**/",
-        b.regexp("^\\/\\*.*\\*\\/"))));
+        regexp("^\\/\\*.*\\*\\/"))));
 
-    b.rule(INNER_LINE_DOC).is(b.commentTrivia(b.regexp("(?!\\n\\r)//!.*")));
+    b.rule(INNER_LINE_DOC).is(b.commentTrivia(regexp("(?!\\n\\r)//!.*")));
     b.rule(INNER_BLOCK_DOC).is(
-      b.regexp("^\\/\\*!.*\\*\\/"));
-    b.rule(OUTER_LINE_DOC).is(b.commentTrivia(b.regexp("///[^\\r\\n\\/]*")));
-    b.rule(OUTER_BLOCK_DOC).is(b.regexp("^\\/\\*\\*[^\\r\\n\\*].*\\*\\/"));
+      regexp("^\\/\\*!.*\\*\\/"));
+    b.rule(OUTER_LINE_DOC).is(b.commentTrivia(regexp("///[^\\r\\n\\/]*")));
+    b.rule(OUTER_BLOCK_DOC).is(regexp("^\\/\\*\\*[^\\r\\n\\*].*\\*\\/"));
     b.rule(BLOCK_COMMENT_OR_DOC).is(b.commentTrivia(
       b.firstOf(BLOCK_COMMENT, OUTER_BLOCK_DOC, INNER_BLOCK_DOC)));
   }
@@ -458,49 +485,22 @@ public enum RustGrammar implements GrammarRuleKey {
       b.rule(tokenType).is(tokenType.getValue());
     }
     String[] punctuators = RustPunctuator.punctuatorValues();
-
-    String[] punctuatorsExceptDollar = RustGrammar.getPunctuatorsExcept(punctuators, "$");
-    String[] punctuatorsExceptSemi = RustGrammar.getPunctuatorsExcept(punctuators, ";");
-
-    Arrays.sort(punctuators);
-    ArrayUtils.reverse(punctuators);
-    b.rule(PUNCTUATION).is(
-      b.firstOf(
-        punctuators[0],
-        punctuators[1],
-        ArrayUtils.subarray(punctuators, 2, punctuators.length)));
-    Arrays.sort(punctuatorsExceptDollar);
-    ArrayUtils.reverse(punctuatorsExceptDollar);
-    Arrays.sort(punctuatorsExceptSemi);
-    ArrayUtils.reverse(punctuatorsExceptSemi);
+    b.rule(PUNCTUATION).is(new TrieExpression("Punctuation", punctuators));
     b.rule(PUNCTUATION_EXCEPT_DOLLAR).is(
-      b.firstOf(
-        punctuatorsExceptDollar[0],
-        punctuatorsExceptDollar[1],
-        ArrayUtils.subarray(punctuatorsExceptDollar, 2, punctuatorsExceptDollar.length)));
+      new TrieExpression("PunctuationExceptDollar", RustGrammar.getPunctuatorsExcept(punctuators, "$")));
     b.rule(PUNCTUATION_EXCEPT_SEMI).is(
-      b.firstOf(
-        punctuatorsExceptSemi[0],
-        punctuatorsExceptSemi[1],
-        ArrayUtils.subarray(punctuatorsExceptSemi, 2, punctuatorsExceptSemi.length)));
+      new TrieExpression("PunctuationExceptSemi", RustGrammar.getPunctuatorsExcept(punctuators, ";")));
   }
 
   private static void keywords(LexerlessGrammarBuilder b) {
     for (RustKeyword tokenType : RustKeyword.values()) {
       b.rule(tokenType).is(tokenType.getValue(), SPC);
     }
-    String[] keywords = RustKeyword.keywordValues();
-    Arrays.sort(keywords);
-    ArrayUtils.reverse(keywords);
-    b.rule(KEYWORD).is(
-      b.firstOf(
-        keywords[0],
-        keywords[1],
-        ArrayUtils.subarray(keywords, 2, keywords.length)));
+    b.rule(KEYWORD).is(new TrieExpression("Keyword", RustKeyword.keywordValues()));
   }
 
   private static Object whitespace(LexerlessGrammarBuilder b) {
-    return b.skippedTrivia(b.regexp("[ \t\n\r]*+"));
+    return b.skippedTrivia(regexp("[ \t\n\r]*+"));
   }
 
   /* recurring grammar pattern */
@@ -805,7 +805,10 @@ public enum RustGrammar implements GrammarRuleKey {
     b.rule(MACRO_INVOCATION).is(
       SIMPLE_PATH, SPC, RustPunctuator.NOT, SPC, DELIM_TOKEN_TREE);
 
+    // the tokens of macro bodies are scanned in a single pass, the rules only match the groups the scanner leaves over
+    var tokenTree = new DelimitedTokenTreeExpression();
     b.rule(DELIM_TOKEN_TREE).is(b.firstOf(
+      tokenTree,
       b.sequence("(", SPC, b.zeroOrMore(TOKEN_TREE, SPC), SPC, ")"),
       b.sequence("[", SPC, b.zeroOrMore(TOKEN_TREE, SPC), SPC, "]"),
       b.sequence("{", SPC, b.zeroOrMore(TOKEN_TREE, SPC), SPC, "}")));
@@ -817,6 +820,9 @@ public enum RustGrammar implements GrammarRuleKey {
         TOKEN_EXCEPT_DELIMITERS,
         DELIM_TOKEN_TREE));
     b.rule(MACRO_INVOCATION_SEMI).is(b.firstOf(
+      b.sequence(SIMPLE_PATH, SPC, RustPunctuator.NOT, SPC, b.firstOf(
+        b.sequence(b.next("{"), tokenTree),
+        b.sequence(b.nextNot("{"), tokenTree, ";"))),
       b.sequence(SIMPLE_PATH, SPC, RustPunctuator.NOT, SPC, "(", b.zeroOrMore(SPC, TOKEN_TREE, SPC), ");"),
       b.sequence(SIMPLE_PATH, SPC, RustPunctuator.NOT, SPC, "[", b.zeroOrMore(SPC, TOKEN_TREE, SPC), "];"),
       b.sequence(SIMPLE_PATH, SPC, RustPunctuator.NOT, SPC, "{", b.zeroOrMore(SPC, TOKEN_TREE, SPC), "}")));
@@ -926,7 +932,7 @@ public enum RustGrammar implements GrammarRuleKey {
           // PATH_EXPR_SEGMENT,
           b.sequence(b.firstOf(
             b.sequence(RustKeyword.KW_SUPER, b.nextNot(IDENTIFIER)),
-            b.regexp("^[sS]elf$"), RustKeyword.KW_CRATE, b.regexp(DOLLAR_CRATE_REGEX), IDENTIFIER), b.optional(b.sequence(RustPunctuator.PATHSEP, GENERIC_ARGS))),
+            regexp("^[sS]elf$"), RustKeyword.KW_CRATE, regexp(DOLLAR_CRATE_REGEX), IDENTIFIER), b.optional(b.sequence(RustPunctuator.PATHSEP, GENERIC_ARGS))),
           b.oneOrMore(b.sequence(SPC, RustPunctuator.PATHSEP, SPC, PATH_EXPR_SEGMENT))),
         QUALIFIED_PATH_IN_EXPRESSION),
       BYTE_LITERAL,
@@ -1192,6 +1198,7 @@ public enum RustGrammar implements GrammarRuleKey {
         b.sequence(TUPLE_EXPRESSION, b.zeroOrMore(SPC, EXPRESSION_TERM_EXCEPT_STRUCT))));
 
     b.rule(EXPRESSION_TERM).is(
+      EXPRESSION_TERM_START,
       b.firstOf(
         b.sequence(RustPunctuator.DOTDOT, b.nextNot(RustPunctuator.EQ), b.endOfInput()),
         b.sequence(RustPunctuator.DOTDOTEQ, SPC, EXPRESSION),
@@ -1271,6 +1278,7 @@ public enum RustGrammar implements GrammarRuleKey {
         b.sequence(RustPunctuator.SHREQ, SPC, EXPRESSION)));
 
     b.rule(EXPRESSION_TERM_EXCEPT_STRUCT).is(
+      EXPRESSION_TERM_START,
       b.firstOf(
         b.sequence(RustPunctuator.DOTDOT, b.nextNot(RustPunctuator.EQ), b.endOfInput()),
         b.sequence(RustPunctuator.DOTDOTEQ, SCRUTINEE),
@@ -1877,8 +1885,8 @@ public enum RustGrammar implements GrammarRuleKey {
       b.zeroOrMore(b.sequence(SPC, RustPunctuator.PATHSEP, SPC, SIMPLE_PATH_SEGMENT)));
     b.rule(SIMPLE_PATH_SEGMENT).is(b.firstOf(
       b.sequence(RustKeyword.KW_SUPER, b.nextNot(IDENTIFIER)),
-      b.sequence(RustKeyword.KW_SELF_VALUE, b.nextNot(b.regexp("[a-zA-Z0-9_]"))),
-      b.regexp("^crate$"), b.regexp(DOLLAR_CRATE_REGEX), IDENTIFIER));
+      b.sequence(RustKeyword.KW_SELF_VALUE, b.nextNot(regexp("[a-zA-Z0-9_]"))),
+      regexp("^crate$"), regexp(DOLLAR_CRATE_REGEX), IDENTIFIER));
 
     b.rule(PATH_IN_EXPRESSION).is(
       b.optional(SPC, RustPunctuator.PATHSEP, SPC),
@@ -1890,9 +1898,9 @@ public enum RustGrammar implements GrammarRuleKey {
 
     b.rule(PATH_IDENT_SEGMENT).is(b.firstOf(
       b.sequence(RustKeyword.KW_SUPER, b.nextNot(IDENTIFIER)),
-      b.regexp("^[sS]elf$"),
+      regexp("^[sS]elf$"),
       b.sequence(RustKeyword.KW_CRATE, b.nextNot(IDENTIFIER)),
-      b.regexp(DOLLAR_CRATE_REGEX),
+      regexp(DOLLAR_CRATE_REGEX),
       IDENTIFIER));
 
     b.rule(GENERIC_ARGS).is(b.firstOf(
@@ -1993,7 +2001,7 @@ public enum RustGrammar implements GrammarRuleKey {
         b.sequence(DEC_LITERAL, RustPunctuator.DOT, DEC_LITERAL, b.optional(FLOAT_EXPONENT)),
         b.sequence(DEC_LITERAL, FLOAT_EXPONENT),
         b.sequence(DEC_LITERAL, RustPunctuator.DOT, b.nextNot(b.firstOf(IDENTIFIER, RustPunctuator.DOT, RustPunctuator.UNDERSCORE))))));
-    b.rule(FLOAT_EXPONENT).is(b.regexp("[eE]+[+-]?[0-9][0-9_]*"));
+    b.rule(FLOAT_EXPONENT).is(regexp("[eE]+[+-]?[0-9][0-9_]*"));
 
     b.rule(FLOAT_SUFFIX).is(b.firstOf("f64", "f32"));
   }
@@ -2003,11 +2011,11 @@ public enum RustGrammar implements GrammarRuleKey {
     b.rule(BYTE_LITERAL).is(b.token(RustTokenType.BYTE_LITERAL,
       b.firstOf(
         "b'\\''",
-        b.sequence("b'", b.regexp("[\\x00-\\x08\\x11-\\x12\\x14-\\x26\\x28-x5b\\x5d-\\x7f]"), "'"),
+        b.sequence("b'", regexp("[\\x00-\\x08\\x11-\\x12\\x14-\\x26\\x28-x5b\\x5d-\\x7f]"), "'"),
         b.sequence("b'", BYTE_ESCAPE, "'"))));
 
-    b.rule(ASCII_FOR_CHAR).is(b.regexp("[^\\'\\n\\r\\t\\\\].*"));
-    b.rule(ASCII_FOR_STRING).is(b.regexp("[\\x00-\\x21\\x23-\\x5b\\x5d-\\x7f]"));// except ", \ and IsolatedCR (lookahead? (?![m-o])[a-z])
+    b.rule(ASCII_FOR_CHAR).is(regexp("[^\\'\\n\\r\\t\\\\].*"));
+    b.rule(ASCII_FOR_STRING).is(regexp("[\\x00-\\x21\\x23-\\x5b\\x5d-\\x7f]"));// except ", \ and IsolatedCR (lookahead? (?![m-o])[a-z])
 
     b.rule(BYTE_STRING_LITERAL).is(b.token(RustTokenType.BYTE_STRING_LITERAL,
       b.sequence(
@@ -2024,11 +2032,11 @@ public enum RustGrammar implements GrammarRuleKey {
 
     b.rule(RAW_BYTE_STRING_CONTENT).is(
       b.firstOf(
-        b.regexp("(?=\"+)([\\s\\S]+?\"+)"),
-        b.regexp("(#\"[\\s\\S]+?\\\"#)"),
+        regexp("(?=\"+)([\\s\\S]+?\"+)"),
+        regexp("(#\"[\\s\\S]+?\\\"#)"),
         b.sequence("#", RAW_BYTE_STRING_CONTENT, "#")));
 
-    b.rule(ASCII).is(b.regexp("[\\x00-\\x7F]"));
+    b.rule(ASCII).is(regexp("[\\x00-\\x7F]"));
   }
 
   private static void identifiers(LexerlessGrammarBuilder b) {
@@ -2036,7 +2044,7 @@ public enum RustGrammar implements GrammarRuleKey {
     final String XID_CONTINUE = "[\\pL\\p{Nl}\\p{Mn}\\p{Mc}\\p{Nd}\\p{Pc}]";
 
     b.rule(IDENTIFIER_OR_KEYWORD).is(b.firstOf(
-      b.sequence(b.regexp(XID_START), b.zeroOrMore(b.regexp(XID_CONTINUE))),
+      b.sequence(regexp(XID_START), b.zeroOrMore(regexp(XID_CONTINUE))),
       b.sequence("_", b.oneOrMore(XID_CONTINUE))));
 
     b.rule(RAW_IDENTIFIER).is("r#",
@@ -2046,32 +2054,13 @@ public enum RustGrammar implements GrammarRuleKey {
       b.nextNot("Self"),
       IDENTIFIER_OR_KEYWORD);
 
-    b.rule(NON_KEYWORD_IDENTIFIER).is(b.firstOf(
-      b.regexp(XID_START + XID_CONTINUE + "*" + exceptKeywords()),
-      b.regexp("^_" + XID_CONTINUE + "+" + exceptKeywords())));
+    b.rule(NON_KEYWORD_IDENTIFIER).is(new NonKeywordIdentifierExpression());
 
     b.rule(IDENTIFIER).is(b.token(RustTokenType.IDENTIFIER,
       b.firstOf(RAW_IDENTIFIER, NON_KEYWORD_IDENTIFIER))).skip();
 
   }
 
-  private static String exceptKeywords() {
-    String[] values = RustKeyword.keywordValues();
-    if (values.length == 0) {
-      return "";
-    }
-
-    StringBuilder sb = new StringBuilder("(?<!(");
-    sb.append("^").append(values[0]).append("$");
-    for (int i = 1; i < values.length; i++) {
-      sb.append("|^").append(values[i]).append("$");
-    }
-    sb.append("))");
-
-    return sb.toString();
-
-  }
-
   private static void characters(LexerlessGrammarBuilder b) {
 
     b.rule(QUOTE_ESCAPE).is(b.firstOf("\\'", "\\\""));
@@ -2085,14 +2074,14 @@ public enum RustGrammar implements GrammarRuleKey {
       b.firstOf(
 
         b.sequence("r", RAW_STRING_CONTENT),
-        b.regexp("r(#+\"[\\s\\S]+?\\\"#.*\\\"#+)")
+        regexp("r(#+\"[\\s\\S]+?\\\"#.*\\\"#+)")
 
       )));
 
     b.rule(RAW_STRING_CONTENT).is(
       b.firstOf(
-        b.regexp("(?=\"+)([\\s\\S]+?\"+)"),
-        b.regexp("(#\"[\\s\\S]+?\\\"#)"),
+        regexp("(?=\"+)([\\s\\S]+?\"+)"),
+        regexp("(#\"[\\s\\S]+?\\\"#)"),
         b.sequence("#", RAW_STRING_CONTENT, "#")
 
       ));
@@ -2112,11 +2101,11 @@ public enum RustGrammar implements GrammarRuleKey {
     b.rule(OCT_LITERAL).is("0o", b.zeroOrMore(b.firstOf(OCT_DIGIT, RustPunctuator.UNDERSCORE)));
     b.rule(HEX_LITERAL).is("0x", b.zeroOrMore(b.firstOf(HEX_DIGIT, RustPunctuator.UNDERSCORE)));
 
-    b.rule(BIN_DIGIT).is(b.regexp("[0-1]"));
-    b.rule(OCT_DIGIT).is(b.regexp("[0-7]"));
-    b.rule(DEC_DIGIT).is(b.regexp("[0-9]"));
-    b.rule(NON_ZERO_DEC_DIGIT).is(b.regexp("[1-9]"));
-    b.rule(HEX_DIGIT).is(b.regexp("[0-9a-fA-F]"));
+    b.rule(BIN_DIGIT).is(regexp("[0-1]"));
+    b.rule(OCT_DIGIT).is(regexp("[0-7]"));
+    b.rule(DEC_DIGIT).is(regexp("[0-9]"));
+    b.rule(NON_ZERO_DEC_DIGIT).is(regexp("[1-9]"));
+    b.rule(HEX_DIGIT).is(regexp("[0-9a-fA-F]"));
     b.rule(INTEGER_SUFFIX).is(b.firstOf("u8", "u16", "u32", "u64", "u128", "usize", "i8", "i16", "i32", "i64", "i128", "isize"));
 
   }
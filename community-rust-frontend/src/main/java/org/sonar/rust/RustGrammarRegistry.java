@@ -0,0 +1,113 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.sonar.sslr.grammar.GrammarRuleKey;
+import org.sonar.sslr.internal.grammar.MutableParsingRule;
+import org.sonar.sslr.parser.LexerlessGrammar;
+
+/**
+ * Built grammars are immutable and can be shared by parsers of all threads, so each of them is built once per JVM,
+ * on first use.
+ */
+public final class RustGrammarRegistry {
+
+  private static final Map<GrammarRuleKey, LexerlessGrammar> GRAMMARS_BY_ROOT = new ConcurrentHashMap<>();
+  private static final Map<Set<GrammarRuleKey>, LexerlessGrammar> GRAMMARS_BY_MEMOIZED_RULES = new ConcurrentHashMap<>();
+  private static final Map<Set<GrammarRuleKey>, LexerlessGrammar> RECOVERING_GRAMMARS_BY_MEMOIZED_RULES = new ConcurrentHashMap<>();
+  private static final Map<Set<GrammarRuleKey>, LexerlessGrammar> CHUNK_GRAMMARS_BY_MEMOIZED_RULES = new ConcurrentHashMap<>();
+
+  private RustGrammarRegistry() {
+  }
+
+  /**
+   * Full grammar, rooted at {@link RustGrammar#COMPILATION_UNIT}.
+   */
+  public static LexerlessGrammar rustGrammar() {
+    return RustGrammarHolder.GRAMMAR;
+  }
+
+  /**
+   * Full grammar memoizing the results of the given rules, see {@link ParseMemo}.
+   */
+  public static LexerlessGrammar rustGrammar(Set<? extends GrammarRuleKey> memoizedRules) {
+    if (memoizedRules.isEmpty()) {
+      return rustGrammar();
+    }
+    return GRAMMARS_BY_MEMOIZED_RULES.computeIfAbsent(new LinkedHashSet<>(memoizedRules),
+      rules -> memoize(RustGrammar.create().build(), rules));
+  }
+
+  /**
+   * Full grammar recovering from parse errors, see {@link RustGrammar#createRecovering()}, and memoizing the results of
+   * the given rules.
+   */
+  public static LexerlessGrammar recoveringRustGrammar(Set<? extends GrammarRuleKey> memoizedRules) {
+    return RECOVERING_GRAMMARS_BY_MEMOIZED_RULES.computeIfAbsent(new LinkedHashSet<>(memoizedRules),
+      rules -> memoize(RustGrammar.createRecovering().build(), rules));
+  }
+
+  /**
+   * Full grammar with the rules matching chunks of top-level items, see {@link ChunkedParserAdapter}, and memoizing the
+   * results of the given rules.
+   */
+  static LexerlessGrammar chunkGrammar(Set<? extends GrammarRuleKey> memoizedRules) {
+    return CHUNK_GRAMMARS_BY_MEMOIZED_RULES.computeIfAbsent(new LinkedHashSet<>(memoizedRules),
+      rules -> memoize(ChunkedParserAdapter.grammar().build(), rules));
+  }
+
+  private static LexerlessGrammar memoize(LexerlessGrammar grammar, Set<GrammarRuleKey> memoizedRules) {
+    int id = 0;
+    for (GrammarRuleKey ruleKey : memoizedRules) {
+      var rule = (MutableParsingRule) grammar.rule(ruleKey);
+      rule.setExpression(ParseMemo.memoize(id, rule.getExpression()));
+      id++;
+    }
+    return grammar;
+  }
+
+  /**
+   * Grammar of the lexer, rooted at {@link RustLexer#TOKENS}.
+   */
+  public static LexerlessGrammar tokensGrammar() {
+    return TokensGrammarHolder.GRAMMAR;
+  }
+
+  /**
+   * Lexer grammar rooted at the given rule, see {@link RustLexer#create(RustParserConfiguration, GrammarRuleKey)}.
+   */
+  public static LexerlessGrammar grammar(GrammarRuleKey root) {
+    return GRAMMARS_BY_ROOT.computeIfAbsent(root, key -> RustLexer.create(key).build());
+  }
+
+  private static class RustGrammarHolder {
+    private static final LexerlessGrammar GRAMMAR = RustGrammar.create().build();
+  }
+
+  private static class TokensGrammarHolder {
+    private static final LexerlessGrammar GRAMMAR = RustLexer.create().build();
+  }
+
+}
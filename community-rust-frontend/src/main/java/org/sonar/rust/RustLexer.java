@@ -40,7 +40,7 @@ public enum RustLexer implements GrammarRuleKey {
     return b;
   }
 
-  private static LexerlessGrammarBuilder create(GrammarRuleKey root) {
+  static LexerlessGrammarBuilder create(GrammarRuleKey root) {
     LexerlessGrammarBuilder b = RustGrammar.create();
 
     b.rule(TOKENS).is(RustGrammar.SPC, b.zeroOrMore(RustGrammar.ANY_TOKEN), RustGrammar.EOF);
@@ -51,11 +51,11 @@ public enum RustLexer implements GrammarRuleKey {
   }
 
   public static ParserAdapter<LexerlessGrammar> create(RustParserConfiguration conf) {
-    return new ParserAdapter<>(conf.getCharset(), create().build());
+    return new ParserAdapter<>(conf.getCharset(), RustGrammarRegistry.tokensGrammar());
   }
 
   public static ParserAdapter<LexerlessGrammar> create(RustParserConfiguration conf, GrammarRuleKey root) {
-    return new ParserAdapter<>(conf.getCharset(), create(root).build());
+    return new ParserAdapter<>(conf.getCharset(), RustGrammarRegistry.grammar(root));
   }
 
 }
@@ -20,8 +20,12 @@
  */
 package org.sonar.rust;
 
+import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.impl.Parser;
+import java.io.File;
+import java.util.function.Supplier;
+import org.sonar.sslr.parser.LexerlessGrammar;
 import org.sonar.sslr.parser.ParserAdapter;
 
 public final class RustParser {
@@ -29,8 +33,115 @@ public final class RustParser {
   private RustParser() {
   }
 
+  /**
+   * When the configuration sets a parse timeout, parsing a file which takes longer throws a {@link ParseTimeoutException}.
+   * When it sets memoized rules, their results are memoized while parsing each file.
+   * When it sets a parallel chunk length, large files are parsed by chunks of top-level items on the common fork-join
+   * pool.
+   */
   public static Parser<Grammar> create(RustParserConfiguration conf) {
-    return new ParserAdapter(conf.getCharset(), RustGrammar.create().build());
+    Parser<Grammar> parser = createSequential(conf);
+    if (conf.getParallelChunkLength() > 0) {
+      return (Parser) new ChunkedParserAdapter(conf, parser);
+    }
+    return parser;
+  }
+
+  private static Parser<Grammar> createSequential(RustParserConfiguration conf) {
+    if (conf.getParseTimeoutMillis() > 0 || !conf.getMemoizedRules().isEmpty()) {
+      return (Parser) new ConfiguredParserAdapter(conf, RustGrammarRegistry.rustGrammar(conf.getMemoizedRules()));
+    }
+    return new ParserAdapter(conf.getCharset(), RustGrammarRegistry.rustGrammar());
+  }
+
+  /**
+   * Parser which does not throw on syntax errors: the top-level statements it cannot parse are skipped up to the next
+   * item boundary and become {@link RustGrammar#PARSE_ERROR} nodes, so that the rest of the file still gets a tree.
+   * As it does not report where the parse failed, it is meant to be used once the parser of
+   * {@link #create(RustParserConfiguration)} threw.
+   * The parse timeout and memoized rules of the configuration apply.
+   */
+  public static Parser<Grammar> createRecovering(RustParserConfiguration conf) {
+    return (Parser) new ConfiguredParserAdapter(conf, RustGrammarRegistry.recoveringRustGrammar(conf.getMemoizedRules()));
+  }
+
+  /**
+   * Runs the given parses of a single file within one parse timeout of the configuration: the parsers of this class
+   * called by {@code parses} share its budget instead of starting their own, e.g. when a file is parsed again by the
+   * {@link #createRecovering(RustParserConfiguration) recovering parser} after a syntax error.
+   */
+  public static <T> T withinTimeout(RustParserConfiguration conf, Supplier<T> parses) {
+    boolean budget = ParseBudget.startIfNone(conf.getParseTimeoutMillis());
+    try {
+      return parses.get();
+    } finally {
+      if (budget) {
+        ParseBudget.stop();
+      }
+    }
+  }
+
+  /**
+   * Parser keeping the tree of the last parsed files, to only parse again the top-level items of a file which changed
+   * since the last time it was parsed, as when analyzing the file being edited in an IDE.
+   * The parse timeout and memoized rules of the configuration apply.
+   */
+  public static IncrementalParser createIncremental(RustParserConfiguration conf) {
+    return new IncrementalParser(conf);
+  }
+
+  private static class ConfiguredParserAdapter extends ParserAdapter<LexerlessGrammar> {
+
+    private final long timeoutMillis;
+    private final boolean memoize;
+    private final int memoTableSize;
+
+    ConfiguredParserAdapter(RustParserConfiguration conf, LexerlessGrammar grammar) {
+      super(conf.getCharset(), grammar);
+      this.timeoutMillis = conf.getParseTimeoutMillis();
+      this.memoize = !conf.getMemoizedRules().isEmpty();
+      this.memoTableSize = conf.getMemoTableSize();
+    }
+
+    @Override
+    public AstNode parse(String source) {
+      boolean budget = start(source.length());
+      try {
+        return super.parse(source);
+      } finally {
+        stop(budget);
+      }
+    }
+
+    @Override
+    public AstNode parse(File file) {
+      boolean budget = start(file.length());
+      try {
+        return super.parse(file);
+      } finally {
+        stop(budget);
+      }
+    }
+
+    /**
+     * @return whether the budget was started here rather than by a caller parsing the file, like
+     * {@link ChunkedParserAdapter} falling back to this parser
+     */
+    private boolean start(long length) {
+      boolean budget = ParseBudget.startIfNone(timeoutMillis);
+      if (memoize) {
+        // no need for more slots than characters
+        ParseMemo.start((int) Math.min(memoTableSize, length));
+      }
+      return budget;
+    }
+
+    private static void stop(boolean budget) {
+      if (budget) {
+        ParseBudget.stop();
+      }
+      ParseMemo.stop();
+    }
   }
 
 }
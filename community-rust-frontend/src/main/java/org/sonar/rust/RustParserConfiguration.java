@@ -21,15 +21,45 @@
 package org.sonar.rust;
 
 import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import org.sonar.sslr.grammar.GrammarRuleKey;
 
 public class RustParserConfiguration {
 
+  /**
+   * Rules through which the parser backtracks the most, worth memoizing on files with long method chains or deeply
+   * nested expressions and generics.
+   */
+  public static final List<GrammarRuleKey> BACKTRACKING_RULES = List.of(
+    RustGrammar.EXPRESSION,
+    RustGrammar.EXPRESSION_WITHOUT_BLOCK,
+    RustGrammar.STRUCT_EXPRESSION,
+    RustGrammar.TYPE,
+    RustGrammar.PATTERN);
+  public static final int DEFAULT_MEMO_TABLE_SIZE = 1 << 16;
+  /**
+   * Length in characters of the chunks of top-level items parsed concurrently, large enough for the cost of scheduling
+   * a chunk to be negligible.
+   */
+  public static final int DEFAULT_PARALLEL_CHUNK_LENGTH = 1 << 15;
+
   private final Charset charset;
+  private final long parseTimeoutMillis;
+  private final Set<GrammarRuleKey> memoizedRules;
+  private final int memoTableSize;
+  private final int parallelChunkLength;
 
   private RustParserConfiguration(Builder builder) {
     this.charset = builder.charset;
-
+    this.parseTimeoutMillis = builder.parseTimeoutMillis;
+    this.memoizedRules = Collections.unmodifiableSet(new LinkedHashSet<>(builder.memoizedRules));
+    this.memoTableSize = builder.memoTableSize;
+    this.parallelChunkLength = builder.parallelChunkLength;
   }
 
   public static Builder builder() {
@@ -40,9 +70,42 @@ public class RustParserConfiguration {
     return charset;
   }
 
+  /**
+   * Maximum time spent parsing a single file, 0 when unbounded.
+   */
+  public long getParseTimeoutMillis() {
+    return parseTimeoutMillis;
+  }
+
+  /**
+   * Rules whose results are memoized for each position of the parsed file, none by default.
+   */
+  public Set<GrammarRuleKey> getMemoizedRules() {
+    return memoizedRules;
+  }
+
+  /**
+   * Maximum number of memoized results per file, the table being smaller for small files.
+   */
+  public int getMemoTableSize() {
+    return memoTableSize;
+  }
+
+  /**
+   * Files longer than twice this length are split into chunks of top-level items of about this length, which are
+   * parsed concurrently. 0, the default, parses every file at once.
+   */
+  public int getParallelChunkLength() {
+    return parallelChunkLength;
+  }
+
   public static final class Builder {
 
     private Charset charset = null;
+    private long parseTimeoutMillis = 0;
+    private Collection<? extends GrammarRuleKey> memoizedRules = Collections.emptySet();
+    private int memoTableSize = DEFAULT_MEMO_TABLE_SIZE;
+    private int parallelChunkLength = 0;
 
     private Builder() {
     }
@@ -56,8 +119,45 @@ public class RustParserConfiguration {
       return this;
     }
 
+    public long getParseTimeoutMillis() {
+      return parseTimeoutMillis;
+    }
+
+    public Builder setParseTimeoutMillis(long parseTimeoutMillis) {
+      this.parseTimeoutMillis = parseTimeoutMillis;
+      return this;
+    }
+
+    public Collection<? extends GrammarRuleKey> getMemoizedRules() {
+      return memoizedRules;
+    }
+
+    public Builder setMemoizedRules(Collection<? extends GrammarRuleKey> memoizedRules) {
+      this.memoizedRules = memoizedRules;
+      return this;
+    }
+
+    public int getMemoTableSize() {
+      return memoTableSize;
+    }
+
+    public Builder setMemoTableSize(int memoTableSize) {
+      this.memoTableSize = memoTableSize;
+      return this;
+    }
+
+    public int getParallelChunkLength() {
+      return parallelChunkLength;
+    }
+
+    public Builder setParallelChunkLength(int parallelChunkLength) {
+      this.parallelChunkLength = parallelChunkLength;
+      return this;
+    }
+
     public RustParserConfiguration build() {
       Objects.requireNonNull(charset, "charset is mandatory and cannot be left null");
+      Objects.requireNonNull(memoizedRules, "memoizedRules cannot be null");
       return new RustParserConfiguration(this);
     }
 
@@ -0,0 +1,812 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import com.sonar.sslr.api.Trivia;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.sonar.rust.api.RustKeyword;
+import org.sonar.rust.api.RustPunctuator;
+import org.sonar.rust.api.RustTokenType;
+
+import static org.sonar.rust.NonKeywordIdentifierExpression.isXidContinue;
+import static org.sonar.rust.NonKeywordIdentifierExpression.isXidStart;
+
+/**
+ * Single pass, character level scanner producing the same tokens and comment trivia as {@link RustLexer}, which runs
+ * the lexerless grammar over the whole file.
+ * <p>
+ * The scanner reproduces the token boundaries of the grammar rules rather than those of the Rust reference: for
+ * instance integer literals include the spacing which follows them, and lifetimes are split in one token per
+ * character. The few inputs it does not reproduce, as well as the inputs which cannot be lexed, are handed over to
+ * {@link RustLexer}, so that results and errors are always the same.
+ * <p>
+ * Unlike {@link RustLexer}, the identifiers which are keywords are given the {@link RustTokenType#KEYWORD} type, so
+ * that they are known without looking at their value.
+ */
+public final class RustTokenizer {
+
+  private static final int NO_MATCH = -1;
+  private static final int UNSUPPORTED = -2;
+
+  // URI of the tokens created by a lexerless parser from a string
+  private static final URI URI = java.net.URI.create("tests://unittest");
+
+  private static final String[] INTEGER_SUFFIXES = {"u8", "u16", "u32", "u64", "u128", "usize", "i8", "i16", "i32", "i64", "i128", "isize"};
+  private static final String[] RAW_IDENTIFIER_EXCLUSIONS = {"crate", "self", "super", "Self"};
+  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(RustKeyword.keywordValues()));
+  private static final TrieExpression PUNCTUATORS = new TrieExpression("PunctuationExceptSemi",
+    Arrays.stream(RustPunctuator.punctuatorValues()).filter(punctuator -> !punctuator.contains(";")).toArray(String[]::new));
+  // type of the tokens which are neither keywords, punctuators nor literals, only known to the lexerless parser
+  static final TokenType UNDEFINED = undefinedTokenType();
+
+  private final CharSequence source;
+  private final int length;
+  private final List<Token> tokens = new ArrayList<>();
+  private final List<Trivia> trivia = new ArrayList<>();
+  // when not null, the positions of the tokens and comments are recorded instead of creating them
+  private final Spans spans;
+  // line and start of the line of the last created token
+  private int line = 1;
+  private int lineStart = 0;
+  private int lineScanned = 0;
+
+  private RustTokenizer(CharSequence source, Spans spans) {
+    this.source = source;
+    this.length = source.length();
+    this.spans = spans;
+  }
+
+  /**
+   * Tokens of the given source, including comment trivia and the final EOF token.
+   *
+   * @throws com.sonar.sslr.api.RecognitionException when the source cannot be lexed
+   */
+  public static List<Token> tokenize(String source) {
+    List<Token> tokens = new RustTokenizer(source, null).scan();
+    if (tokens == null) {
+      return typeKeywords(RustLexer.create(RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build())
+        .parse(source)
+        .getTokens());
+    }
+    return tokens;
+  }
+
+  /**
+   * @return the given tokens, the identifiers which are keywords being replaced by {@link RustTokenType#KEYWORD} tokens
+   */
+  static List<Token> typeKeywords(List<Token> tokens) {
+    List<Token> typed = new ArrayList<>(tokens.size());
+    for (Token token : tokens) {
+      typed.add(isKeyword(token.getType(), token.getValue()) ? Token.builder(token).setType(RustTokenType.KEYWORD).build() : token);
+    }
+    return typed;
+  }
+
+  private static boolean isKeyword(TokenType type, String value) {
+    return type == RustTokenType.IDENTIFIER && KEYWORDS.contains(value);
+  }
+
+  /**
+   * Same as the TOKENS rule of {@link RustLexer}: tokens separated by spacing, semicolons being only allowed after
+   * another token.
+   *
+   * @return null when the source has to be lexed by {@link RustLexer}
+   */
+  private List<Token> scan() {
+    int pos = spacing(0, true);
+    while (pos < length) {
+      int end = anyToken(pos);
+      if (end < 0) {
+        return null;
+      }
+      pos = spacing(end, true);
+      if (pos < length && source.charAt(pos) == ';') {
+        addToken(UNDEFINED, pos, pos + 1);
+        pos = spacing(pos + 1, true);
+      }
+    }
+    addToken(GenericTokenType.EOF, length, length);
+    return tokens;
+  }
+
+  /**
+   * Same as the DELIM_TOKEN_TREE rule of {@link RustGrammar}: the tokens of a group starting with a delimiter up to the
+   * matching closing delimiter, nested groups included, scanned in a single pass instead of matching each token by
+   * the TOKEN_TREE rule. Literals, comments and the spacing after integers are matched as by the grammar, so that a
+   * delimiter in a string or a comment does not end the group.
+   *
+   * @return the spans of the tokens and comments of the group at the start of the input, null when there is none or it
+   * has to be matched by the grammar
+   */
+  static Spans delimitedTokenTree(CharSequence input) {
+    var spans = new Spans();
+    return new RustTokenizer(input, spans).delimitedTokenTree() < 0 ? null : spans;
+  }
+
+  private int delimitedTokenTree() {
+    var closers = new StringBuilder();
+    int pos = 0;
+    do {
+      if (pos >= length) {
+        return NO_MATCH;
+      }
+      char c = source.charAt(pos);
+      int end;
+      if (c == '(' || c == '[' || c == '{') {
+        closers.append(c == '(' ? ')' : (c == '[' ? ']' : '}'));
+        addToken(UNDEFINED, pos, pos + 1);
+        end = pos + 1;
+      } else if (closers.length() == 0) {
+        return NO_MATCH;
+      } else if (c == ')' || c == ']' || c == '}') {
+        if (c != closers.charAt(closers.length() - 1)) {
+          return NO_MATCH;
+        }
+        closers.setLength(closers.length() - 1);
+        addToken(UNDEFINED, pos, pos + 1);
+        end = pos + 1;
+      } else if (c == ';') {
+        addToken(UNDEFINED, pos, pos + 1);
+        end = pos + 1;
+      } else {
+        end = anyToken(pos);
+        if (end < 0) {
+          return end;
+        }
+      }
+      pos = closers.length() == 0 ? end : spacing(end, true);
+    } while (closers.length() > 0);
+    return pos;
+  }
+
+  private int anyToken(int pos) {
+    char c = source.charAt(pos);
+    if (c == '{' || c == '}' || c == '[' || c == ']' || c == '(' || c == ')') {
+      addToken(UNDEFINED, pos, pos + 1);
+      return pos + 1;
+    }
+    int end = literal(pos);
+    if (end != NO_MATCH) {
+      return end;
+    }
+    end = identifier(pos);
+    if (end != NO_MATCH) {
+      return end;
+    }
+    end = punctuation(pos);
+    if (end != NO_MATCH) {
+      addToken(UNDEFINED, pos, end);
+      return end;
+    }
+    return lifetime(pos);
+  }
+
+  private int literal(int pos) {
+    char c = source.charAt(pos);
+    if (c == '\'') {
+      return token(RustTokenType.CHARACTER_LITERAL, pos, charLiteral(pos));
+    }
+    if (c == '"') {
+      return token(RustTokenType.STRING_LITERAL, pos, stringLiteral(pos));
+    }
+    if (c == 'r') {
+      return token(RustTokenType.RAW_STRING_LITERAL, pos, rawStringLiteral(pos));
+    }
+    if (c == 'b') {
+      int end = token(RustTokenType.BYTE_LITERAL, pos, byteLiteral(pos));
+      if (end == NO_MATCH) {
+        end = token(RustTokenType.BYTE_STRING_LITERAL, pos, byteStringLiteral(pos));
+      }
+      if (end == NO_MATCH && startsWith("br", pos)) {
+        end = token(RustTokenType.RAW_BYTE_STRING_LITERAL, pos, rawContent(pos + 2));
+      }
+      return end;
+    }
+    if (isDigit(c)) {
+      int end = token(RustTokenType.FLOAT_LITERAL, pos, floatLiteral(pos));
+      if (end == NO_MATCH) {
+        end = token(RustTokenType.INTEGER_LITERAL, pos, integerLiteral(pos));
+      }
+      return end;
+    }
+    if (c == 't' || c == 'f') {
+      return token(RustTokenType.BOOLEAN_LITERAL, pos, booleanLiteral(pos));
+    }
+    return NO_MATCH;
+  }
+
+  private int token(TokenType type, int start, int end) {
+    if (end >= 0) {
+      addToken(type, start, end);
+    }
+    return end;
+  }
+
+  private int charLiteral(int pos) {
+    int end = charContent(pos + 1);
+    return end >= 0 && end < length && source.charAt(end) == '\'' ? (end + 1) : NO_MATCH;
+  }
+
+  private int charContent(int pos) {
+    if (pos >= length) {
+      return NO_MATCH;
+    }
+    int end = unicodeEscape(pos);
+    if (end == NO_MATCH) {
+      end = quoteEscape(pos);
+    }
+    if (end == NO_MATCH) {
+      end = asciiEscape(pos);
+    }
+    if (end == NO_MATCH) {
+      int cp = Character.codePointAt(source, pos);
+      if (cp <= 0x08 || (cp >= 0x11 && cp <= 0x12) || (cp >= 0x14 && cp <= 0x26) || (cp >= 0x28 && cp <= 0x1ffff)) {
+        end = pos + Character.charCount(cp);
+      }
+    }
+    return end;
+  }
+
+  private int stringLiteral(int pos) {
+    int p = pos + 1;
+    int end = stringElement(p);
+    while (end >= 0) {
+      p = spacing(end, false);
+      end = stringElement(p);
+    }
+    return p < length && source.charAt(p) == '"' ? (p + 1) : NO_MATCH;
+  }
+
+  private int stringElement(int pos) {
+    if (pos >= length) {
+      return NO_MATCH;
+    }
+    if (source.charAt(pos) == '\\') {
+      int end = unicodeEscape(pos);
+      if (end == NO_MATCH && startsWith("\\n//", pos)) {
+        end = pos + 4;
+      }
+      if (end == NO_MATCH) {
+        end = quoteEscape(pos);
+      }
+      if (end == NO_MATCH) {
+        end = asciiEscape(pos);
+      }
+      if (end == NO_MATCH && startsWith("\\\n", pos)) {
+        end = pos + 2;
+      }
+      return end;
+    }
+    int p = pos;
+    while (p < length) {
+      int cp = Character.codePointAt(source, p);
+      if (cp == '"' || cp == '\\' || cp > 0x1ffff) {
+        break;
+      }
+      p += Character.charCount(cp);
+    }
+    return p > pos ? p : NO_MATCH;
+  }
+
+  private int unicodeEscape(int pos) {
+    if (!startsWith("\\u{", pos)) {
+      return NO_MATCH;
+    }
+    int p = pos + 3;
+    int start = p;
+    while (p < length && isHexDigit(source.charAt(p))) {
+      p++;
+      while (p < length && source.charAt(p) == '_') {
+        p++;
+      }
+    }
+    return p > start && p < length && source.charAt(p) == '}' ? (p + 1) : NO_MATCH;
+  }
+
+  private int quoteEscape(int pos) {
+    if (pos + 1 < length && source.charAt(pos) == '\\') {
+      char c = source.charAt(pos + 1);
+      if (c == '\'' || c == '"') {
+        return pos + 2;
+      }
+    }
+    return NO_MATCH;
+  }
+
+  private int asciiEscape(int pos) {
+    if (pos + 1 >= length || source.charAt(pos) != '\\') {
+      return NO_MATCH;
+    }
+    char c = source.charAt(pos + 1);
+    if (c == 'x') {
+      return pos + 3 < length && isOctDigit(source.charAt(pos + 2)) && isHexDigit(source.charAt(pos + 3)) ? (pos + 4) : NO_MATCH;
+    }
+    return c == 'n' || c == 'r' || c == 't' || c == '\\' || c == '0' ? (pos + 2) : NO_MATCH;
+  }
+
+  private int byteEscape(int pos) {
+    if (pos + 1 >= length || source.charAt(pos) != '\\') {
+      return NO_MATCH;
+    }
+    char c = source.charAt(pos + 1);
+    if (c == 'x') {
+      return pos + 3 < length && isHexDigit(source.charAt(pos + 2)) && isHexDigit(source.charAt(pos + 3)) ? (pos + 4) : NO_MATCH;
+    }
+    return c == 'n' || c == 'r' || c == 't' || c == '\\' || c == '\'' || c == '"' || c == '0' ? (pos + 2) : NO_MATCH;
+  }
+
+  private int rawStringLiteral(int pos) {
+    int end = rawContent(pos + 1);
+    if (end == NO_MATCH && startsWith("r#", pos)) {
+      int p = pos + 1;
+      while (p < length && source.charAt(p) == '#') {
+        p++;
+      }
+      if (p < length && source.charAt(p) == '"') {
+        // the fallback regular expression of the rule is not reproduced
+        return UNSUPPORTED;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * Raw string content: the shortest text up to a run of quotes, or between {@code #"} and {@code "#}, or
+   * recursively between {@code #}.
+   */
+  private int rawContent(int pos) {
+    if (pos >= length) {
+      return NO_MATCH;
+    }
+    char c = source.charAt(pos);
+    if (c == '"') {
+      int end = indexOf("\"", pos + 1);
+      if (end < 0) {
+        return NO_MATCH;
+      }
+      while (end < length && source.charAt(end) == '"') {
+        end++;
+      }
+      return end;
+    }
+    if (c != '#') {
+      return NO_MATCH;
+    }
+    if (pos + 1 < length && source.charAt(pos + 1) == '"') {
+      int end = indexOf("\"#", pos + 3);
+      if (end >= 0) {
+        return end + 2;
+      }
+    }
+    int end = rawContent(pos + 1);
+    return end >= 0 && end < length && source.charAt(end) == '#' ? (end + 1) : NO_MATCH;
+  }
+
+  private int byteLiteral(int pos) {
+    if (!startsWith("b'", pos)) {
+      return NO_MATCH;
+    }
+    if (startsWith("b'\\''", pos)) {
+      return pos + 5;
+    }
+    int p = pos + 2;
+    if (p + 1 < length && source.charAt(p + 1) == '\'') {
+      char c = source.charAt(p);
+      if (c <= 0x08 || (c >= 0x11 && c <= 0x12) || (c >= 0x14 && c <= 0x26) || (c >= 0x28 && c <= 0x7f)) {
+        return p + 2;
+      }
+    }
+    int end = byteEscape(p);
+    return end >= 0 && end < length && source.charAt(end) == '\'' ? (end + 1) : NO_MATCH;
+  }
+
+  private int byteStringLiteral(int pos) {
+    if (!startsWith("b\"", pos)) {
+      return NO_MATCH;
+    }
+    int p = pos + 2;
+    while (p < length) {
+      char c = source.charAt(p);
+      if (startsWith("\\\"", p)) {
+        p += 2;
+      } else if (c <= 0x21 || (c >= 0x23 && c <= 0x5b) || (c >= 0x5d && c <= 0x7f)) {
+        p++;
+      } else {
+        int end = byteEscape(p);
+        if (end == NO_MATCH && startsWith("\\\n", p)) {
+          end = p + 2;
+        }
+        if (end == NO_MATCH) {
+          break;
+        }
+        p = end;
+      }
+    }
+    return p < length && source.charAt(p) == '"' ? (p + 1) : NO_MATCH;
+  }
+
+  private int floatLiteral(int pos) {
+    int dec = decLiteral(pos);
+    boolean fraction = dec + 1 < length && source.charAt(dec) == '.' && isDigit(source.charAt(dec + 1));
+
+    // with a suffix
+    int p = fraction ? decLiteral(dec + 1) : dec;
+    int exponent = exponent(p);
+    p = exponent >= 0 ? exponent : p;
+    if (startsWith("f64", p) || startsWith("f32", p)) {
+      return p + 3;
+    }
+    // with a fraction
+    if (fraction) {
+      p = decLiteral(dec + 1);
+      exponent = exponent(p);
+      return exponent >= 0 ? exponent : p;
+    }
+    // with an exponent
+    exponent = exponent(dec);
+    if (exponent >= 0) {
+      return exponent;
+    }
+    // ending with a dot not followed by an identifier, a dot or an underscore
+    if (dec < length && source.charAt(dec) == '.') {
+      p = dec + 1;
+      if (p >= length || (source.charAt(p) != '.' && !isXidStart(Character.codePointAt(source, p)))) {
+        return p;
+      }
+    }
+    return NO_MATCH;
+  }
+
+  private int decLiteral(int pos) {
+    int p = pos + 1;
+    while (p < length && (isDigit(source.charAt(p)) || source.charAt(p) == '_')) {
+      p++;
+    }
+    return p;
+  }
+
+  private int exponent(int pos) {
+    int p = pos;
+    while (p < length && (source.charAt(p) == 'e' || source.charAt(p) == 'E')) {
+      p++;
+    }
+    if (p == pos) {
+      return NO_MATCH;
+    }
+    if (p < length && (source.charAt(p) == '+' || source.charAt(p) == '-')) {
+      p++;
+    }
+    if (p >= length || !isDigit(source.charAt(p))) {
+      return NO_MATCH;
+    }
+    p++;
+    while (p < length && (isDigit(source.charAt(p)) || source.charAt(p) == '_')) {
+      p++;
+    }
+    return p;
+  }
+
+  private int integerLiteral(int pos) {
+    int p;
+    if (startsWith("0x", pos)) {
+      p = pos + 2;
+      while (p < length && (isHexDigit(source.charAt(p)) || source.charAt(p) == '_')) {
+        p++;
+      }
+    } else if (startsWith("0o", pos)) {
+      p = pos + 2;
+      while (p < length && (isOctDigit(source.charAt(p)) || source.charAt(p) == '_')) {
+        p++;
+      }
+    } else if (startsWith("0b", pos)) {
+      p = pos + 2;
+      while (p < length && (source.charAt(p) == '0' || source.charAt(p) == '1' || source.charAt(p) == '_')) {
+        p++;
+      }
+    } else {
+      p = decLiteral(pos);
+    }
+    for (String suffix : INTEGER_SUFFIXES) {
+      if (startsWith(suffix, p)) {
+        p += suffix.length();
+        break;
+      }
+    }
+    // the spacing after an integer is part of its token
+    return spacing(p, false);
+  }
+
+  private int booleanLiteral(int pos) {
+    int end;
+    if (startsWith("true", pos)) {
+      end = pos + 4;
+    } else if (startsWith("false", pos)) {
+      end = pos + 5;
+    } else {
+      return NO_MATCH;
+    }
+    return end < length && isXidStart(Character.codePointAt(source, end)) ? NO_MATCH : end;
+  }
+
+  private int identifier(int pos) {
+    if (startsWith("r#", pos) && pos + 2 < length && isXidStart(Character.codePointAt(source, pos + 2)) && !isRawIdentifierExclusion(pos + 2)) {
+      return token(RustTokenType.IDENTIFIER, pos, identifierEnd(pos + 2));
+    }
+    if (!isXidStart(Character.codePointAt(source, pos))) {
+      return NO_MATCH;
+    }
+    int end = identifierEnd(pos);
+    if (isAtEndOfInput(end) && KEYWORDS.contains(text(pos, end))) {
+      // a keyword ending the input is matched without its last character, see NonKeywordIdentifierExpression
+      end--;
+    }
+    return token(RustTokenType.IDENTIFIER, pos, end);
+  }
+
+  /**
+   * End of input as matched by {@code $} in a regular expression: possibly followed by a final line terminator.
+   */
+  private boolean isAtEndOfInput(int pos) {
+    int remaining = length - pos;
+    if (remaining == 0) {
+      return true;
+    }
+    char c = source.charAt(pos);
+    if (remaining == 1) {
+      return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+    return remaining == 2 && c == '\r' && source.charAt(pos + 1) == '\n';
+  }
+
+  private boolean isRawIdentifierExclusion(int pos) {
+    for (String exclusion : RAW_IDENTIFIER_EXCLUSIONS) {
+      if (startsWith(exclusion, pos)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int identifierEnd(int start) {
+    int p = start + Character.charCount(Character.codePointAt(source, start));
+    while (p < length) {
+      int cp = Character.codePointAt(source, p);
+      if (!isXidContinue(cp)) {
+        break;
+      }
+      p += Character.charCount(cp);
+    }
+    return p;
+  }
+
+  private int punctuation(int pos) {
+    int matched = PUNCTUATORS.match(source, pos);
+    return matched > 0 ? (pos + matched) : NO_MATCH;
+  }
+
+  /**
+   * A quote followed by an identifier, each character of the identifier being a token.
+   */
+  private int lifetime(int pos) {
+    if (source.charAt(pos) != '\'' || pos + 1 >= length || !isXidStart(Character.codePointAt(source, pos + 1))) {
+      return NO_MATCH;
+    }
+    addToken(UNDEFINED, pos, pos + 1);
+    int end = identifierEnd(pos + 1);
+    int p = pos + 1;
+    while (p < end) {
+      int next = p + Character.charCount(Character.codePointAt(source, p));
+      addToken(UNDEFINED, p, next);
+      p = next;
+    }
+    return end;
+  }
+
+  /**
+   * Skips whitespace and comments, which are kept as trivia of the next token when {@code collect} is true.
+   */
+  private int spacing(int pos, boolean collect) {
+    int p = pos;
+    while (true) {
+      while (p < length && isWhitespace(source.charAt(p))) {
+        p++;
+      }
+      int end = comment(p);
+      if (end < 0) {
+        return p;
+      }
+      if (spans != null && collect) {
+        spans.add(GenericTokenType.COMMENT, p, end);
+      } else if (collect) {
+        trivia.add(Trivia.createComment(createToken(GenericTokenType.COMMENT, p, end)));
+      }
+      p = end;
+    }
+  }
+
+  private int comment(int pos) {
+    if (pos + 1 >= length || source.charAt(pos) != '/') {
+      return NO_MATCH;
+    }
+    char c = source.charAt(pos + 1);
+    if (c == '/') {
+      int p = pos + 2;
+      while (p < length && source.charAt(p) != '\n' && source.charAt(p) != '\r') {
+        p++;
+      }
+      return p;
+    }
+    if (c == '*') {
+      int end = indexOf("*/", pos + 2);
+      return end < 0 ? NO_MATCH : (end + 2);
+    }
+    return NO_MATCH;
+  }
+
+  private void addToken(TokenType type, int start, int end) {
+    if (spans != null) {
+      spans.add(type, start, end);
+      return;
+    }
+    tokens.add(createToken(type, start, end));
+    trivia.clear();
+  }
+
+  private Token createToken(TokenType type, int start, int end) {
+    updateLine(start);
+    // identifiers, keywords and punctuators are pooled, literals and comments are mostly unique
+    String value = type == UNDEFINED || type == RustTokenType.IDENTIFIER
+      ? InternPool.intern(source.toString(), start, end)
+      : source.subSequence(start, end).toString();
+    Token.Builder builder = Token.builder()
+      .setType(isKeyword(type, value) ? RustTokenType.KEYWORD : type)
+      .setValueAndOriginalValue(value)
+      .setURI(URI)
+      .setLine(line)
+      .setColumn(start - lineStart)
+      .setGeneratedCode(false)
+      .notCopyBook();
+    if (type != GenericTokenType.COMMENT && !trivia.isEmpty()) {
+      builder.setTrivia(trivia);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Lines end with a line feed, or a carriage return not followed by a line feed, as for the lexerless parsers.
+   */
+  private void updateLine(int pos) {
+    for (int i = lineScanned; i < pos; i++) {
+      char c = source.charAt(i);
+      if (c == '\n' || (c == '\r' && (i + 1 == length || source.charAt(i + 1) != '\n'))) {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    lineScanned = Math.max(lineScanned, pos);
+  }
+
+  /**
+   * Text of the source, which is not necessarily a string when scanning a token tree.
+   */
+  private String text(int start, int end) {
+    return new StringBuilder(end - start).append(source, start, end).toString();
+  }
+
+  private boolean startsWith(String prefix, int pos) {
+    if (pos + prefix.length() > length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (source.charAt(pos + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int indexOf(String value, int from) {
+    for (int i = from; i + value.length() <= length; i++) {
+      if (startsWith(value, i)) {
+        return i;
+      }
+    }
+    return NO_MATCH;
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isOctDigit(char c) {
+    return c >= '0' && c <= '7';
+  }
+
+  private static boolean isHexDigit(char c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  /**
+   * Types, starts and ends of the tokens and comments of a token tree, in order.
+   */
+  static final class Spans {
+
+    private TokenType[] types = new TokenType[16];
+    private int[] bounds = new int[32];
+    private int size;
+
+    private void add(TokenType type, int start, int end) {
+      if (size == types.length) {
+        types = Arrays.copyOf(types, 2 * size);
+        bounds = Arrays.copyOf(bounds, 4 * size);
+      }
+      types[size] = type;
+      bounds[2 * size] = start;
+      bounds[2 * size + 1] = end;
+      size++;
+    }
+
+    int size() {
+      return size;
+    }
+
+    /**
+     * @return the type of the token, {@link GenericTokenType#COMMENT} for a comment
+     */
+    TokenType type(int i) {
+      return types[i];
+    }
+
+    int start(int i) {
+      return bounds[2 * i];
+    }
+
+    int end(int i) {
+      return bounds[2 * i + 1];
+    }
+
+  }
+
+  /**
+   * Type given by the lexerless parsers to the tokens which are not created by a token rule, like punctuators.
+   */
+  private static TokenType undefinedTokenType() {
+    return RustLexer.create(RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build())
+      .parse("(")
+      .getTokens()
+      .get(0)
+      .getType();
+  }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.Token;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walks the tree of a file once for several visitors. Each node is only dispatched to the visitors subscribed to its
+ * type, looked up in a table indexed by {@link RustGrammar} ordinal, and tokens are only dispatched to the visitors
+ * overriding {@link RustVisitor#visitToken(Token)}.
+ * Subscriptions are read once, when the walker is created.
+ */
+public class RustTreeWalker {
+
+  private static final RustVisitor[] NO_VISITORS = new RustVisitor[0];
+  private static final int[] NONE = new int[0];
+  private static final int INITIAL_DEPTH = 256;
+
+  private final RustVisitor[] visitors;
+  // indexes in visitors of the visitors subscribed to each type
+  private final int[][] visitorsByRule = new int[RustGrammar.values().length][];
+  private final Map<AstNodeType, int[]> visitorsByOtherType = new HashMap<>();
+  private final int[] tokenVisitors;
+  private final boolean timed;
+  private final long[] nanos;
+
+  public RustTreeWalker(List<? extends RustVisitor> visitors) {
+    this(visitors, false);
+  }
+
+  /**
+   * @param timed whether to measure the time spent in each visitor, see {@link #timeNanos(RustVisitor)}
+   */
+  public RustTreeWalker(List<? extends RustVisitor> visitors, boolean timed) {
+    this.visitors = visitors.toArray(NO_VISITORS);
+    this.timed = timed;
+    this.nanos = new long[this.visitors.length];
+
+    Map<AstNodeType, List<Integer>> visitorsByType = new LinkedHashMap<>();
+    List<Integer> visitingTokens = new ArrayList<>();
+    for (int i = 0; i < this.visitors.length; i++) {
+      RustVisitor visitor = this.visitors[i];
+      for (AstNodeType type : visitor.subscribedKinds()) {
+        visitorsByType.computeIfAbsent(type, t -> new ArrayList<>()).add(i);
+      }
+      if (overridesVisitToken(visitor)) {
+        visitingTokens.add(i);
+      }
+    }
+    Arrays.fill(visitorsByRule, NONE);
+    visitorsByType.forEach((type, subscribed) -> {
+      int[] array = toArray(subscribed);
+      if (type instanceof RustGrammar) {
+        visitorsByRule[((RustGrammar) type).ordinal()] = array;
+      } else {
+        visitorsByOtherType.put(type, array);
+      }
+    });
+    this.tokenVisitors = toArray(visitingTokens);
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    return list.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static boolean overridesVisitToken(RustVisitor visitor) {
+    try {
+      return visitor.getClass().getMethod("visitToken", Token.class).getDeclaringClass() != RustVisitor.class;
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public void scanFile(RustVisitorContext context) {
+    Arrays.fill(nanos, 0L);
+    AstNode tree = context.rootTree();
+    for (int i = 0; i < visitors.length; i++) {
+      visitors[i].setContext(context);
+      long start = startTime();
+      visitors[i].visitFile(tree);
+      stopTime(i, start);
+    }
+    if (tree != null) {
+      scanNode(tree);
+    }
+    for (int i = 0; i < visitors.length; i++) {
+      long start = startTime();
+      visitors[i].leaveFile(tree);
+      stopTime(i, start);
+    }
+  }
+
+  public boolean isTimed() {
+    return timed;
+  }
+
+  /**
+   * Time spent in the callbacks of the given visitor during the last {@link #scanFile(RustVisitorContext)},
+   * always 0 when the walker is not timed.
+   */
+  public long timeNanos(RustVisitor visitor) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (visitors[i] == visitor) {
+        return nanos[i];
+      }
+    }
+    return 0L;
+  }
+
+  /**
+   * Depth-first traversal with an explicit stack rather than one call per level: lexerless trees are very deep, and
+   * long method chains or nested closures would otherwise overflow the call stack.
+   */
+  private void scanNode(AstNode root) {
+    if (!enter(root)) {
+      return;
+    }
+    // path from the root to the current node, with the index of the next child to visit at each level
+    AstNode[] path = new AstNode[INITIAL_DEPTH];
+    int[] nextChild = new int[INITIAL_DEPTH];
+    int depth = 0;
+    path[0] = root;
+    while (depth >= 0) {
+      AstNode node = path[depth];
+      List<AstNode> children = node.getChildren();
+      int next = nextChild[depth];
+      if (next < children.size()) {
+        nextChild[depth] = next + 1;
+        AstNode child = children.get(next);
+        if (enter(child)) {
+          depth++;
+          if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+            nextChild = Arrays.copyOf(nextChild, depth * 2);
+          }
+          path[depth] = child;
+          nextChild[depth] = 0;
+        }
+      } else {
+        path[depth] = null;
+        depth--;
+        leave(node);
+      }
+    }
+  }
+
+  /**
+   * Visits the node and, when it has no children, its tokens before leaving it.
+   *
+   * @return whether the children of the node remain to be visited
+   */
+  private boolean enter(AstNode node) {
+    for (int i : subscribedTo(node.getType())) {
+      long start = startTime();
+      visitors[i].visitNode(node);
+      stopTime(i, start);
+    }
+    if (node.hasChildren()) {
+      return true;
+    }
+    if (tokenVisitors.length > 0) {
+      visitTokens(node);
+    }
+    leave(node);
+    return false;
+  }
+
+  private void leave(AstNode node) {
+    for (int i : subscribedTo(node.getType())) {
+      long start = startTime();
+      visitors[i].leaveNode(node);
+      stopTime(i, start);
+    }
+  }
+
+  private void visitTokens(AstNode node) {
+    for (Token token : node.getTokens()) {
+      for (int i : tokenVisitors) {
+        long start = startTime();
+        visitors[i].visitToken(token);
+        stopTime(i, start);
+      }
+    }
+  }
+
+  private int[] subscribedTo(AstNodeType type) {
+    if (type instanceof RustGrammar) {
+      return visitorsByRule[((RustGrammar) type).ordinal()];
+    }
+    return visitorsByOtherType.getOrDefault(type, NONE);
+  }
+
+  private long startTime() {
+    return timed ? System.nanoTime() : 0L;
+  }
+
+  private void stopTime(int visitor, long start) {
+    if (timed) {
+      nanos[visitor] += System.nanoTime() - start;
+    }
+  }
+
+}
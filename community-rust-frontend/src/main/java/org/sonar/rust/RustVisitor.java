@@ -29,6 +29,8 @@ import java.util.Set;
 public class RustVisitor {
 
   private RustVisitorContext context;
+  // created on first scan, once the subscriptions of the visitor are known
+  private RustTreeWalker walker;
 
   public Set<AstNodeType> subscribedKinds() {
     return Set.of();
@@ -58,42 +60,15 @@ public class RustVisitor {
     return context;
   }
 
-  // for testing purpose only
   public void setContext(RustVisitorContext context) {
     this.context = context;
   }
 
   public void scanFile(RustVisitorContext context) {
-    this.context = context;
-    AstNode tree = context.rootTree();
-    visitFile(tree);
-    if (tree != null) {
-      scanNode(tree, subscribedKinds());
-    }
-    leaveFile(tree);
-  }
-
-  private void scanNode(AstNode node, Set<AstNodeType> subscribedKinds) {
-    boolean isSubscribedType = subscribedKinds.contains(node.getType());
-
-    if (isSubscribedType) {
-      visitNode(node);
-    }
-
-    List<AstNode> children = node.getChildren();
-    if (children.isEmpty()) {
-      for (Token token : node.getTokens()) {
-        visitToken(token);
-      }
-    } else {
-      for (AstNode child : children) {
-        scanNode(child, subscribedKinds);
-      }
-    }
-
-    if (isSubscribedType) {
-      leaveNode(node);
+    if (walker == null) {
+      walker = new RustTreeWalker(List.of(this));
     }
+    walker.scanFile(context);
   }
 
 }
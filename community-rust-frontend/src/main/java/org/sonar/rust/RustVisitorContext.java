@@ -22,25 +22,38 @@ package org.sonar.rust;
 
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Token;
+import java.util.List;
 
 public class RustVisitorContext {
 
   private final RustFile file;
   private final AstNode rootTree;
   private final RecognitionException parsingException;
+  private List<Token> tokens;
+  private LineIndex lineIndex;
 
   public RustVisitorContext(RustFile file, AstNode tree) {
-    this(file, tree, null);
+    this(file, tree, null, null);
+  }
+
+  public RustVisitorContext(RustFile file, AstNode tree, List<Token> tokens) {
+    this(file, tree, null, tokens);
   }
 
   public RustVisitorContext(RustFile file, RecognitionException parsingException) {
-    this(file, null, parsingException);
+    this(file, null, parsingException, null);
   }
 
-  private RustVisitorContext(RustFile file, AstNode rootTree, RecognitionException parsingException) {
+  /**
+   * Context of a file which could only be parsed by skipping parts of it, see {@link RustParser#createRecovering}:
+   * the tree holds {@link RustGrammar#PARSE_ERROR} nodes and the exception tells where the parse first failed.
+   */
+  public RustVisitorContext(RustFile file, AstNode rootTree, RecognitionException parsingException, List<Token> tokens) {
     this.file = file;
     this.rootTree = rootTree;
     this.parsingException = parsingException;
+    this.tokens = tokens;
   }
 
   public AstNode rootTree() {
@@ -55,4 +68,25 @@ public class RustVisitorContext {
     return parsingException;
   }
 
+  /**
+   * Tokens of the file as produced by {@link RustTokenizer}, including trivia and the final EOF token.
+   * When they were not provided at construction, the file is lexed on first call only.
+   */
+  public List<Token> tokens() {
+    if (tokens == null) {
+      tokens = RustTokenizer.tokenize(file.content());
+    }
+    return tokens;
+  }
+
+  /**
+   * Lines of the file content, indexed on first call only.
+   */
+  public LineIndex lineIndex() {
+    if (lineIndex == null) {
+      lineIndex = new LineIndex(file.content());
+    }
+    return lineIndex;
+  }
+
 }
@@ -0,0 +1,311 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the boundaries of the top-level items of a file by counting delimiters, without parsing it.
+ * <p>
+ * An item ends after a {@code ;} or a closing brace, possibly followed by a {@code ;}, which are not nested in any
+ * delimiter. Comments, strings and character literals are skipped, so that the delimiters they hold are not counted.
+ * Comments do not nest, like in {@link RustGrammar}.
+ */
+final class TopLevelItems {
+
+  private static final List<String> ITEM_KEYWORDS = List.of(
+    "async", "const", "enum", "extern", "fn", "impl", "macro_rules!", "mod", "pub", "static", "struct", "trait", "type",
+    "union", "unsafe", "use");
+
+  private TopLevelItems() {
+  }
+
+  /**
+   * Splits the input into chunks made of whole top-level items, of at least the given length except for the last one.
+   * Each chunk but the first one starts with an item, the whitespace and comments following an item are part of its
+   * chunk.
+   *
+   * @return the start of each chunk, the first one being 0
+   */
+  static int[] chunks(CharSequence input, int chunkLength) {
+    int length = input.length();
+    List<Integer> starts = new ArrayList<>();
+    starts.add(0);
+    int chunkStart = 0;
+    int pos = skipSpacing(input, 0);
+    while (pos < length) {
+      pos = skipSpacing(input, endOfItem(input, pos, false));
+      if (pos - chunkStart >= chunkLength && pos < length) {
+        starts.add(pos);
+        chunkStart = pos;
+      }
+    }
+    return starts.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * When resynchronizing, the item also ends before a line starting with an item keyword or an attribute, whatever the
+   * nesting, so that an unbalanced delimiter only swallows the rest of its item, unless that line follows the
+   * attributes of the item.
+   *
+   * @return the end of the item starting at the given position, the length of the input if it does not end
+   */
+  static int endOfItem(CharSequence input, int start, boolean resynchronize) {
+    int length = input.length();
+    int depth = 0;
+    // depth of the attribute being read, if any, and end of the last one, which is followed by the item it applies to
+    int attributeDepth = -1;
+    int attributeEnd = -1;
+    int i = start;
+    while (i < length) {
+      char c = input.charAt(i);
+      if (resynchronize && i > start && input.charAt(i - 1) == '\n' && startsItem(input, i) && trimEnd(input, i) != attributeEnd) {
+        return trimEnd(input, i);
+      }
+      switch (c) {
+        case '[':
+          if (i > 0 && (input.charAt(i - 1) == '#' || (input.charAt(i - 1) == '!' && i > 1 && input.charAt(i - 2) == '#'))) {
+            attributeDepth = depth;
+          }
+          depth++;
+          i++;
+          break;
+        case '{':
+        case '(':
+          depth++;
+          i++;
+          break;
+        case '}':
+        case ')':
+        case ']':
+          depth--;
+          i++;
+          if (depth == attributeDepth) {
+            attributeDepth = -1;
+            attributeEnd = i;
+          }
+          if (depth < 0) {
+            return i;
+          }
+          if (depth == 0 && c == '}') {
+            return afterSemicolon(input, i);
+          }
+          break;
+        case ';':
+          i++;
+          if (depth <= 0) {
+            return i;
+          }
+          break;
+        case '/':
+          i = skipComment(input, i);
+          break;
+        case '"':
+          i = skipString(input, i + 1);
+          break;
+        case '\'':
+          i = skipCharLiteral(input, i);
+          break;
+        case 'r':
+          i = skipRawString(input, i);
+          break;
+        default:
+          i++;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * @return the position following the whitespace and comments at the given position, as matched by
+   * {@link RustGrammar#SPC}
+   */
+  static int skipSpacing(CharSequence input, int pos) {
+    int length = input.length();
+    int i = pos;
+    while (i < length) {
+      char c = input.charAt(i);
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+        i++;
+      } else if (c == '/' && i + 1 < length && (input.charAt(i + 1) == '/' || input.charAt(i + 1) == '*')) {
+        i = skipComment(input, i);
+      } else {
+        break;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * @return the position following the last character before {@code pos} which is not a whitespace
+   */
+  private static int trimEnd(CharSequence input, int pos) {
+    int i = pos;
+    while (i > 0 && Character.isWhitespace(input.charAt(i - 1))) {
+      i--;
+    }
+    return i;
+  }
+
+  /**
+   * Includes the semicolon ending items like {@code use a::{b, c};} or {@code struct A {};}.
+   */
+  private static int afterSemicolon(CharSequence input, int pos) {
+    int i = skipSpacing(input, pos);
+    return i < input.length() && input.charAt(i) == ';' ? (i + 1) : pos;
+  }
+
+  private static boolean startsItem(CharSequence input, int pos) {
+    if (input.charAt(pos) == '#') {
+      return pos + 1 < input.length() && (input.charAt(pos + 1) == '[' || input.charAt(pos + 1) == '!');
+    }
+    for (String keyword : ITEM_KEYWORDS) {
+      int end = pos + keyword.length();
+      if (end <= input.length()
+        && startsWith(input, pos, keyword)
+        && (end == input.length() || !isIdentifierPart(input.charAt(end)))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean startsWith(CharSequence input, int pos, String prefix) {
+    for (int i = 0; i < prefix.length(); i++) {
+      if (input.charAt(pos + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int skipComment(CharSequence input, int start) {
+    int length = input.length();
+    if (start + 1 >= length) {
+      return start + 1;
+    }
+    char next = input.charAt(start + 1);
+    int i = start + 2;
+    if (next == '/') {
+      while (i < length && input.charAt(i) != '\n' && input.charAt(i) != '\r') {
+        i++;
+      }
+      return i;
+    }
+    if (next != '*') {
+      return start + 1;
+    }
+    while (i + 1 < length && !(input.charAt(i) == '*' && input.charAt(i + 1) == '/')) {
+      i++;
+    }
+    return Math.min(i + 2, length);
+  }
+
+  /**
+   * @param start position following the opening quote
+   */
+  private static int skipString(CharSequence input, int start) {
+    int i = start;
+    while (i < input.length()) {
+      char c = input.charAt(i);
+      if (c == '\\') {
+        i += 2;
+      } else if (c == '"') {
+        return i + 1;
+      } else {
+        i++;
+      }
+    }
+    return input.length();
+  }
+
+  /**
+   * A quote either starts a character literal or a lifetime, which is left as is.
+   */
+  private static int skipCharLiteral(CharSequence input, int start) {
+    int length = input.length();
+    int i = start + 1;
+    if (i < length && input.charAt(i) == '\\') {
+      i += 2;
+      while (i < length && input.charAt(i) != '\'' && input.charAt(i) != '\n') {
+        i++;
+      }
+      return Math.min(i + 1, length);
+    }
+    if (i < length) {
+      i += Character.charCount(Character.codePointAt(input, i));
+    }
+    if (i < length && input.charAt(i) == '\'') {
+      return i + 1;
+    }
+    return start + 1;
+  }
+
+  /**
+   * Raw strings, possibly byte or C strings, like {@code r#"..."#}. Any other {@code r} is a single character.
+   */
+  private static int skipRawString(CharSequence input, int start) {
+    int length = input.length();
+    if (start > 0 && isIdentifierPart(input.charAt(start - 1)) && !isStringPrefix(input, start)) {
+      return start + 1;
+    }
+    int i = start + 1;
+    int hashes = 0;
+    while (i < length && input.charAt(i) == '#') {
+      hashes++;
+      i++;
+    }
+    if (i >= length || input.charAt(i) != '"') {
+      return start + 1;
+    }
+    i++;
+    while (i < length) {
+      if (input.charAt(i) == '"' && closesRawString(input, i + 1, hashes)) {
+        return i + 1 + hashes;
+      }
+      i++;
+    }
+    return length;
+  }
+
+  private static boolean isStringPrefix(CharSequence input, int start) {
+    char previous = input.charAt(start - 1);
+    return (previous == 'b' || previous == 'c') && (start == 1 || !isIdentifierPart(input.charAt(start - 2)));
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return NonKeywordIdentifierExpression.isXidContinue(c);
+  }
+
+  private static boolean closesRawString(CharSequence input, int start, int hashes) {
+    if (start + hashes > input.length()) {
+      return false;
+    }
+    for (int i = start; i < start + hashes; i++) {
+      if (input.charAt(i) != '#') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.Arrays;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Longest of the given ASCII strings at the current position, found in a single pass over a trie indexed by the
+ * first character. Same as a {@code firstOf} of the strings sorted in reverse order, without trying each of them.
+ */
+class TrieExpression extends NativeExpression implements org.sonar.sslr.internal.matchers.Matcher {
+
+  private static final int ASCII = 128;
+
+  private final String name;
+  private final Node[] roots = new Node[ASCII];
+
+  TrieExpression(String name, String... values) {
+    this.name = name;
+    for (String value : values) {
+      add(value);
+    }
+  }
+
+  private void add(String value) {
+    char first = value.charAt(0);
+    if (first >= ASCII) {
+      throw new IllegalArgumentException("Not an ASCII string: " + value);
+    }
+    if (roots[first] == null) {
+      roots[first] = new Node();
+    }
+    Node node = roots[first];
+    for (int i = 1; i < value.length(); i++) {
+      node = node.child(value.charAt(i), true);
+    }
+    node.terminal = true;
+  }
+
+  @Override
+  public void execute(Machine machine) {
+    int length = match(machine, 0);
+    if (length > 0) {
+      machine.createLeafNode(this, length);
+      machine.jump(1);
+    } else {
+      machine.backtrack();
+    }
+  }
+
+  /**
+   * @return the length of the longest string at the given offset of the input, 0 when there is none
+   */
+  int match(CharSequence input, int offset) {
+    int length = input.length();
+    if (offset >= length) {
+      return 0;
+    }
+    char first = input.charAt(offset);
+    Node node = first < ASCII ? roots[first] : null;
+    int matched = 0;
+    int i = offset + 1;
+    while (node != null) {
+      if (node.terminal) {
+        matched = i - offset;
+      }
+      node = i < length ? node.child(input.charAt(i), false) : null;
+      i++;
+    }
+    return matched;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+  private static final class Node {
+
+    private char[] keys = new char[0];
+    private Node[] children = new Node[0];
+    private boolean terminal;
+
+    private Node child(char key, boolean create) {
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] == key) {
+          return children[i];
+        }
+      }
+      if (!create) {
+        return null;
+      }
+      keys = Arrays.copyOf(keys, keys.length + 1);
+      children = Arrays.copyOf(children, children.length + 1);
+      keys[keys.length - 1] = key;
+      children[children.length - 1] = new Node();
+      return children[children.length - 1];
+    }
+
+  }
+
+}
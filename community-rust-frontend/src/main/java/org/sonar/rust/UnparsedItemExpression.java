@@ -0,0 +1,56 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Text from the current position up to the next item boundary, as a single token: used by the grammar of
+ * {@link RustGrammar#createRecovering()} to skip a statement which cannot be parsed. Boundaries are found by
+ * {@link TopLevelItems#endOfItem(CharSequence, int, boolean)}, resynchronizing on lines starting an item.
+ */
+class UnparsedItemExpression extends NativeExpression implements org.sonar.sslr.internal.matchers.Matcher {
+
+  @Override
+  public void execute(Machine machine) {
+    int end = match(machine);
+    if (end > 0) {
+      machine.createLeafNode(this, end);
+      machine.jump(1);
+    } else {
+      machine.backtrack();
+    }
+  }
+
+  /**
+   * @return the length of the text up to the next item boundary, 0 only when the input is empty
+   */
+  static int match(CharSequence input) {
+    return TopLevelItems.endOfItem(input, 0, true);
+  }
+
+  @Override
+  public String toString() {
+    return "UnparsedItem";
+  }
+
+}
@@ -33,7 +33,9 @@ public enum RustTokenType implements TokenType {
   STRING_LITERAL,
   RAW_STRING_LITERAL,
   RAW_BYTE_STRING_LITERAL,
-  IDENTIFIER;
+  IDENTIFIER,
+  // only given by RustTokenizer, keywords being identifiers for the lexerless grammar
+  KEYWORD;
 
   public String getName() {
     return name();
@@ -23,70 +23,93 @@ package org.sonar.rust.metrics;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.Trivia;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import org.sonar.rust.LineIndex;
 import org.sonar.rust.RustVisitor;
 
 public class CommentsVisitor extends RustVisitor {
 
-  private Set<Integer> comments;
-  private boolean seenFirstToken;
+  private LineSet comments;
 
-  public Set<Integer> commentLines() {
+  public LineSet commentLinesSet() {
     return comments;
   }
 
+  /**
+   * @deprecated lines are now kept in a {@link LineSet}, which does not box them: use {@link #commentLinesSet()}
+   */
+  @Deprecated(since = "0.2.6")
+  public Set<Integer> commentLines() {
+    return comments.toSet();
+  }
+
   private void addCommentLine(int line) {
     comments.add(line);
   }
 
+  /**
+   * Comments are read from the tokens of the file rather than from the tree, so that the comments of the items skipped
+   * after a parse error are counted as well. The comments before the first token, like a license header, are ignored.
+   */
   @Override
   public void visitFile(AstNode astNode) {
-    comments = new HashSet<>();
-    seenFirstToken = false;
-  }
-
-  @Override
-  public void visitToken(Token token) {
-    if (seenFirstToken) {
-      for (Trivia trivia : token.getTrivia()) {
+    comments = new LineSet();
+    List<Token> tokens = getContext().tokens();
+    for (int i = 1; i < tokens.size(); i++) {
+      for (Trivia trivia : tokens.get(i).getTrivia()) {
         if (trivia.isComment()) {
-          String[] commentLines = getContents(trivia.getToken().getOriginalValue())
-            .split("(\r)?\n|\r", -1);
-          int line = trivia.getToken().getLine();
-
-          for (String commentLine : commentLines) {
-            if (!isBlank(commentLine)) {
-              addCommentLine(line);
-            }
-
-            line++;
-          }
+          addCommentLines(trivia.getToken());
         }
       }
     }
-
-    seenFirstToken = true;
   }
 
-  public boolean isBlank(String line) {
-    for (int i = 0; i < line.length(); i++) {
-      if (Character.isLetterOrDigit(line.charAt(i))) {
-        return false;
+  /**
+   * Adds the lines of the comment content, without its first two and last two characters, having a letter or a digit.
+   */
+  private void addCommentLines(Token comment) {
+    int length = comment.getOriginalValue().length();
+    if (length <= 3) {
+      return;
+    }
+    LineIndex lineIndex = getContext().lineIndex();
+    CharSequence content = getContext().file().content();
+    int start = lineIndex.offset(comment.getLine(), comment.getColumn()) + 2;
+    int end = start + length - 4;
+    int lastLine = lineIndex.line(end);
+    for (int line = comment.getLine(); line <= lastLine; line++) {
+      if (!isBlank(content, Math.max(start, lineIndex.lineStart(line)), Math.min(end, lineIndex.lineEnd(line)))) {
+        addCommentLine(line);
       }
     }
+  }
 
-    return true;
+  /**
+   * @deprecated comment lines are now read from the file content without splitting the comments
+   */
+  @Deprecated(since = "0.2.6")
+  public boolean isBlank(String line) {
+    return isBlank(line, 0, line.length());
   }
 
+  /**
+   * @deprecated comment lines are now read from the file content without splitting the comments
+   */
+  @Deprecated(since = "0.2.6")
   public String getContents(String comment) {
-    int l = comment.length();
+    int length = comment.length();
+    return length > 3 ? comment.substring(2, length - 2) : "";
+  }
 
-    String res = "";
-    if (l > 3) {
-      res = comment.substring(2, l - 2);
+  private static boolean isBlank(CharSequence content, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (Character.isLetterOrDigit(content.charAt(i))) {
+        return false;
+      }
     }
-    return res;
+
+    return true;
   }
 
 }
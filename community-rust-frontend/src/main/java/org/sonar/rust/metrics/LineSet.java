@@ -0,0 +1,124 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust.metrics;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Set of line numbers backed by a bit set, one bit per line of the file: adding, counting and iterating over lines
+ * does not box them.
+ */
+public final class LineSet {
+
+  private final BitSet lines;
+
+  public LineSet() {
+    this.lines = new BitSet();
+  }
+
+  private LineSet(BitSet lines) {
+    this.lines = lines;
+  }
+
+  public static LineSet of(int... lines) {
+    var set = new LineSet();
+    for (int line : lines) {
+      set.add(line);
+    }
+    return set;
+  }
+
+  public void add(int line) {
+    lines.set(line);
+  }
+
+  /**
+   * Adds the lines of the given set to this one.
+   */
+  public void addAll(LineSet other) {
+    lines.or(other.lines);
+  }
+
+  /**
+   * @return a new set with the lines of both sets
+   */
+  public static LineSet union(LineSet first, LineSet second) {
+    var union = (BitSet) first.lines.clone();
+    union.or(second.lines);
+    return new LineSet(union);
+  }
+
+  public boolean contains(int line) {
+    return line >= 0 && lines.get(line);
+  }
+
+  public int size() {
+    return lines.cardinality();
+  }
+
+  public boolean isEmpty() {
+    return lines.isEmpty();
+  }
+
+  /**
+   * Calls the given action for each line, in increasing order.
+   */
+  public void forEachLine(IntConsumer action) {
+    for (int line = lines.nextSetBit(0); line >= 0; line = lines.nextSetBit(line + 1)) {
+      action.accept(line);
+    }
+  }
+
+  /**
+   * @return a copy of the lines as boxed integers, for the code expecting a {@code Set<Integer>}
+   */
+  public Set<Integer> toSet() {
+    return lines.stream().boxed().collect(Collectors.toCollection(HashSet::new));
+  }
+
+  /**
+   * @return the lines, in increasing order
+   */
+  public int[] toArray() {
+    return lines.stream().toArray();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof LineSet && lines.equals(((LineSet) o).lines);
+  }
+
+  @Override
+  public int hashCode() {
+    return lines.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+}
@@ -21,39 +21,61 @@
 package org.sonar.rust.metrics;
 
 import com.sonar.sslr.api.AstNode;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
 import java.util.Set;
-import org.sonar.rust.RustGrammar;
+import org.sonar.rust.LineIndex;
 import org.sonar.rust.RustVisitor;
+import org.sonar.rust.api.RustPunctuator;
 import org.sonar.sslr.parser.LexerlessGrammar;
 import org.sonar.sslr.parser.ParserAdapter;
 
 public class LinesOfCodeVisitor extends RustVisitor {
 
-  private final ParserAdapter<LexerlessGrammar> lexer;
-  private final Set<Integer> linesOfCode = new HashSet<>();
+  private LineSet linesOfCode = new LineSet();
 
-  public LinesOfCodeVisitor(ParserAdapter<LexerlessGrammar> parser) {
-    this.lexer = parser;
+  public LinesOfCodeVisitor() {
+    // tokens are read from the visitor context
+  }
+
+  /**
+   * @deprecated the tokens are now lexed once and read from the {@link org.sonar.rust.RustVisitorContext}, the lexer is
+   * not needed anymore: use {@link #LinesOfCodeVisitor()}
+   */
+  @Deprecated(since = "0.2.6")
+  public LinesOfCodeVisitor(ParserAdapter<LexerlessGrammar> lexer) {
+    this();
   }
 
   @Override
   public void visitFile(AstNode node) {
-    linesOfCode.clear();
-    List<AstNode> tokens = lexer.parse(getContext().file().content()).getChildren(RustGrammar.ANY_TOKEN);
-
-    for (AstNode token : tokens) {
-      String[] tokenLines = token.getTokenValue().split("(\r)?\n|\r", -1);
+    linesOfCode = new LineSet();
+    LineIndex lineIndex = getContext().lineIndex();
 
-      for (int lineOffset = 0; lineOffset < tokenLines.length; lineOffset++) {
-        linesOfCode.add(token.getTokenLine() + lineOffset);
+    for (Token token : getContext().tokens()) {
+      // a semicolon alone does not make a line of code
+      if (GenericTokenType.EOF.equals(token.getType()) || RustPunctuator.SEMI.getValue().equals(token.getValue())) {
+        continue;
+      }
+      int endLine = lineIndex.line(lineIndex.offset(token.getLine(), token.getColumn()) + token.getOriginalValue().length());
+      for (int line = token.getLine(); line <= endLine; line++) {
+        linesOfCode.add(line);
       }
     }
   }
 
+  /**
+   * Lines of code of the last visited file, not modified by the visit of the next file.
+   */
+  public LineSet linesOfCodeSet() {
+    return linesOfCode;
+  }
+
+  /**
+   * @deprecated lines are now kept in a {@link LineSet}, which does not box them: use {@link #linesOfCodeSet()}
+   */
+  @Deprecated(since = "0.2.6")
   public Set<Integer> linesOfCode() {
-    return Collections.unmodifiableSet(new HashSet<>(linesOfCode));
+    return linesOfCode.toSet();
   }
 }
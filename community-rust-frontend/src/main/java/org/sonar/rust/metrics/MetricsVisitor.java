@@ -20,10 +20,14 @@
  */
 package org.sonar.rust.metrics;
 
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import java.util.List;
 import java.util.Set;
 import org.sonar.rust.RustGrammar;
-import org.sonar.rust.RustLexer;
 import org.sonar.rust.RustParserConfiguration;
+import org.sonar.rust.RustTreeWalker;
+import org.sonar.rust.RustVisitor;
 import org.sonar.rust.RustVisitorContext;
 
 public class MetricsVisitor {
@@ -31,41 +35,97 @@ public class MetricsVisitor {
   private final LinesOfCodeVisitor linesOfCodeVisitor;
   private final CommentsVisitor commentsVisitor;
   private final ComplexityVisitor complexityVisitor;
-  private int numberOfStatements;
-  private int numberOfFunctions;
+  private final CountVisitor countVisitor;
+  private final RustTreeWalker walker;
 
-  public MetricsVisitor(RustParserConfiguration conf) {
-    linesOfCodeVisitor = new LinesOfCodeVisitor(RustLexer.create(conf));
+  public MetricsVisitor() {
+    linesOfCodeVisitor = new LinesOfCodeVisitor();
     commentsVisitor = new CommentsVisitor();
     complexityVisitor = new ComplexityVisitor();
+    countVisitor = new CountVisitor();
+    walker = new RustTreeWalker(visitors());
+  }
+
+  /**
+   * @deprecated the tokens are now lexed once and read from the {@link RustVisitorContext}, the configuration is not
+   * needed anymore: use {@link #MetricsVisitor()}
+   */
+  @Deprecated(since = "0.2.6")
+  public MetricsVisitor(RustParserConfiguration conf) {
+    this();
   }
 
   public void scanFile(RustVisitorContext context) {
-    linesOfCodeVisitor.scanFile(context);
-    commentsVisitor.scanFile(context);
-    complexityVisitor.scanFile(context);
-    numberOfStatements = context.rootTree().getDescendants(RustGrammar.STATEMENT).size();
-    numberOfFunctions = context.rootTree().getDescendants(RustGrammar.FUNCTION).size();
+    walker.scanFile(context);
+  }
+
+  /**
+   * Visitors computing the metrics, to run them along with other visitors in a single {@link RustTreeWalker}
+   * instead of calling {@link #scanFile(RustVisitorContext)}.
+   */
+  public List<RustVisitor> visitors() {
+    return List.of(linesOfCodeVisitor, commentsVisitor, complexityVisitor, countVisitor);
+  }
+
+  public LineSet linesOfCodeSet() {
+    return linesOfCodeVisitor.linesOfCodeSet();
   }
 
+  public LineSet commentLinesSet() {
+    return commentsVisitor.commentLinesSet();
+  }
+
+  /**
+   * @deprecated lines are now kept in a {@link LineSet}, which does not box them: use {@link #linesOfCodeSet()}
+   */
+  @Deprecated(since = "0.2.6")
   public Set<Integer> linesOfCode() {
-    return linesOfCodeVisitor.linesOfCode();
+    return linesOfCodeVisitor.linesOfCodeSet().toSet();
   }
 
+  /**
+   * @deprecated lines are now kept in a {@link LineSet}, which does not box them: use {@link #commentLinesSet()}
+   */
+  @Deprecated(since = "0.2.6")
   public Set<Integer> commentLines() {
-    return commentsVisitor.commentLines();
+    return commentsVisitor.commentLinesSet().toSet();
   }
 
   public int numberOfStatements() {
-    return numberOfStatements;
+    return countVisitor.statements;
   }
 
   public int numberOfFunctions() {
-    return numberOfFunctions;
+    return countVisitor.functions;
   }
 
   public int complexity() {
     return complexityVisitor.complexity();
   }
 
+  private static class CountVisitor extends RustVisitor {
+    private int statements;
+    private int functions;
+
+    @Override
+    public Set<AstNodeType> subscribedKinds() {
+      return Set.of(RustGrammar.STATEMENT, RustGrammar.FUNCTION);
+    }
+
+    @Override
+    public void visitFile(AstNode node) {
+      statements = 0;
+      functions = 0;
+    }
+
+    @Override
+    public void visitNode(AstNode node) {
+      if (node.is(RustGrammar.STATEMENT)) {
+        statements++;
+      } else {
+        functions++;
+      }
+    }
+  }
+
 }
@@ -0,0 +1,91 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.sonar.rust.api.RustTokenType;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class DelimitedTokenTreeExpressionTest {
+
+  private static final RustParserConfiguration CONF = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+
+  @Test
+  void ends_at_the_matching_delimiter() {
+    assertThat(match("(a, (b), [c {d}]) e")).isEqualTo("(a, (b), [c {d}])");
+    assertThat(match("{ vec![1, 2] }; f")).isEqualTo("{ vec![1, 2] }");
+    assertThat(match("[]")).isEqualTo("[]");
+    assertThat(match("(a]")).isNull();
+    assertThat(match("(a")).isNull();
+    assertThat(match("a")).isNull();
+  }
+
+  @Test
+  void ignores_delimiters_in_comments_strings_and_chars() {
+    assertThat(match("(\")\" ')' r#\")\"# b\")\" br\")\" ) x")).isEqualTo("(\")\" ')' r#\")\"# b\")\" br\")\" )");
+    assertThat(match("{ // }\n /* } */ }")).isEqualTo("{ // }\n /* } */ }");
+    assertThat(match("(1 /* ) */ 'a 'b')")).isEqualTo("(1 /* ) */ 'a 'b')");
+  }
+
+  @Test
+  void macro_tokens_are_those_of_the_lexer() {
+    String source = "fn main() {\n"
+      + "  println!(\"{} {}\", a.b(), 'c');\n"
+      + "  vec![1u8, b /* two */, 0x3];\n"
+      + "  quote! { #[derive(Debug)] struct A<'a> { b: &'a str } }\n"
+      + "  html! { <div class=\"x\">{ r#\"}\"# }</div> }\n"
+      + "}\n";
+    AstNode tree = RustParser.create(CONF).parse(source);
+
+    List<Token> macroTokens = tree.getTokens().stream()
+      .filter(token -> token.getLine() > 1 && token.getLine() < 6)
+      .collect(Collectors.toList());
+    List<Token> lexerTokens = RustTokenizer.tokenize(source).stream()
+      .filter(token -> token.getLine() > 1 && token.getLine() < 6)
+      .collect(Collectors.toList());
+    assertThat(describe(RustTokenizer.typeKeywords(macroTokens))).isEqualTo(describe(lexerTokens));
+    assertThat(macroTokens).filteredOn(token -> token.getType() == RustTokenType.RAW_STRING_LITERAL).hasSize(1);
+    assertThat(macroTokens.stream().flatMap(token -> token.getTrivia().stream()))
+      .extracting(trivia -> trivia.getToken().getValue(), trivia -> trivia.getToken().getType())
+      .containsExactly(tuple("/* two */", GenericTokenType.COMMENT));
+  }
+
+  private static List<String> describe(List<Token> tokens) {
+    return tokens.stream()
+      .map(token -> token.getType().getName() + " " + token.getValue() + " " + token.getLine() + ":" + token.getColumn() + " " + token.getTrivia().size())
+      .collect(Collectors.toList());
+  }
+
+  private static String match(String input) {
+    RustTokenizer.Spans spans = RustTokenizer.delimitedTokenTree(input);
+    return spans == null ? null : input.substring(0, spans.end(spans.size() - 1));
+  }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.ast.AstXmlPrinter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncrementalParserTest {
+
+  private static final RustParserConfiguration CONF = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+  private static final String SOURCE = ""
+    + "use std::io;\n"
+    + "\n"
+    + "/// first\n"
+    + "fn first() {\n"
+    + "    let a = 1;\n"
+    + "}\n"
+    + "\n"
+    + "// second\n"
+    + "fn second() -> i32 { 2 }\n"
+    + "\n"
+    + "struct Third {\n"
+    + "    x: i32, /* x */\n"
+    + "}\n";
+
+  @Test
+  void edits_give_the_tree_of_a_full_parse() {
+    String[][] edits = {
+      {"let a = 1;", "let a = 1;\n    let b = a + 1;"},
+      {"fn second() -> i32 { 2 }", "fn second() -> i32 {\n  2\n}"},
+      {"// second\n", ""},
+      {"x: i32", "x: i64, y: u8"},
+      {"/* x */", ""},
+      {"struct Third", "\n\nstruct Third"},
+      {"use std::io;", "use std::io;\nuse std::fs;"},
+      {"first()", "renamed()"},
+    };
+    for (String[] edit : edits) {
+      IncrementalParser parser = RustParser.createIncremental(CONF);
+      parser.parse("file", SOURCE);
+      String edited = SOURCE.replace(edit[0], edit[1]);
+      assertSameTree(parser.parse("file", edited), RustParser.create(CONF).parse(edited), edited);
+    }
+  }
+
+  @Test
+  void successive_edits() {
+    IncrementalParser parser = RustParser.createIncremental(CONF);
+    String source = SOURCE;
+    parser.parse("file", source);
+    for (int i = 0; i < 5; i++) {
+      source = source.replace("let a = 1;", "let a = 1;\n    foo(" + i + ");");
+      assertSameTree(parser.parse("file", source), RustParser.create(CONF).parse(source), source);
+    }
+  }
+
+  @Test
+  void unchanged_items_are_reused() {
+    IncrementalParser parser = RustParser.createIncremental(CONF);
+    List<AstNode> before = new ArrayList<>(parser.parse("file", SOURCE).getChildren(RustGrammar.STATEMENT));
+    List<AstNode> after = parser.parse("file", SOURCE.replace("{ 2 }", "{ 3 }")).getChildren(RustGrammar.STATEMENT);
+
+    assertThat(after).hasSize(4);
+    assertThat(after.get(1)).isSameAs(before.get(1));
+    assertThat(after.get(2)).isNotSameAs(before.get(2));
+    assertThat(after.get(3)).isSameAs(before.get(3));
+    assertThat(parser.parse("file", SOURCE.replace("{ 2 }", "{ 3 }"))).isSameAs(after.get(0).getParent());
+  }
+
+  @Test
+  void parse_errors_keep_the_last_tree() {
+    IncrementalParser parser = RustParser.createIncremental(CONF);
+    parser.parse("file", SOURCE);
+    String broken = SOURCE.replace("let a = 1;", "let a = (1;");
+    assertThatThrownBy(() -> parser.parse("file", broken)).isInstanceOf(RecognitionException.class);
+
+    String edited = SOURCE.replace("{ 2 }", "{ 3 }");
+    assertSameTree(parser.parse("file", edited), RustParser.create(CONF).parse(edited), edited);
+  }
+
+  @Test
+  void files_are_forgotten() {
+    IncrementalParser parser = RustParser.createIncremental(CONF);
+    AstNode tree = parser.parse("file", SOURCE);
+    assertThat(parser.parse("file", SOURCE)).isSameAs(tree);
+
+    parser.forget("file");
+    assertThat(parser.parse("file", SOURCE)).isNotSameAs(tree);
+
+    tree = parser.parse("file", SOURCE);
+    for (int i = 0; i < IncrementalParser.MAX_FILES; i++) {
+      parser.parse("other" + i, SOURCE);
+    }
+    assertThat(parser.parse("file", SOURCE)).isNotSameAs(tree);
+  }
+
+  @Test
+  void files_are_parsed_concurrently() throws Exception {
+    IncrementalParser parser = RustParser.createIncremental(CONF);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> tasks = new ArrayList<>();
+      for (int f = 0; f < 8; f++) {
+        String key = "file" + f;
+        tasks.add(executor.submit(() -> {
+          String source = SOURCE;
+          parser.parse(key, source);
+          for (int i = 0; i < 20; i++) {
+            source = source.replace("let a = 1;", "let a = 1;\n    foo(" + i + ");");
+            assertSameTree(parser.parse(key, source), RustParser.create(CONF).parse(source), source);
+          }
+        }));
+      }
+      for (Future<?> task : tasks) {
+        task.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void parse_keeps_the_budget_of_the_caller() throws InterruptedException {
+    RustParserConfiguration conf = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParseTimeoutMillis(60_000)
+      .build();
+    IncrementalParser parser = RustParser.createIncremental(conf);
+    String source = RustParserTest.largeSource(100);
+    parser.parse("file", source);
+    String edited = source.replace("let a50 = ", "let a50 = (");
+
+    // the whole file is parsed again within what remains of the budget of the edit
+    ParseBudget.start(1);
+    try {
+      Thread.sleep(5);
+      assertThatThrownBy(() -> parser.parse("file", edited))
+        .isInstanceOf(ParseTimeoutException.class)
+        .hasMessage("Parsing did not complete within 1 ms");
+    } finally {
+      ParseBudget.stop();
+    }
+  }
+
+  private static void assertSameTree(AstNode actual, AstNode expected, String source) {
+    assertThat(AstXmlPrinter.print(actual)).as(source).isEqualTo(AstXmlPrinter.print(expected));
+    assertThat(positions(actual)).as(source).isEqualTo(positions(expected));
+  }
+
+  private static List<String> positions(AstNode tree) {
+    List<String> positions = new ArrayList<>();
+    addPositions(tree, positions);
+    return positions;
+  }
+
+  private static void addPositions(AstNode node, List<String> positions) {
+    positions.add(node.getName() + "[" + node.getFromIndex() + "," + node.getToIndex() + "]");
+    for (AstNode child : node.getChildren()) {
+      addPositions(child, positions);
+    }
+    Token token = node.getToken();
+    if (token != null && !node.hasChildren()) {
+      token.getTrivia().forEach(trivia -> positions.add(trivia.getToken().getOriginalValue() + "@" + trivia.getToken().getLine()
+        + ":" + trivia.getToken().getColumn()));
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.Token;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InternPoolTest {
+
+  @Test
+  void interns_ranges() {
+    String first = InternPool.intern("let value = 1;", 4, 9);
+    assertThat(first).isEqualTo("value");
+    assertThat(InternPool.intern("fn value()", 3, 8)).isSameAs(first);
+    assertThat(InternPool.intern("value")).isSameAs(first);
+    assertThat(InternPool.intern("values", 0, 5)).isSameAs(first);
+    assertThat(InternPool.intern("x", 0, 0)).isEmpty();
+  }
+
+  @Test
+  void does_not_intern_long_strings() {
+    String source = " " + "a".repeat(InternPool.MAX_LENGTH + 1);
+    String value = InternPool.intern(source, 1, source.length());
+    assertThat(value).isEqualTo(source.substring(1));
+    assertThat(InternPool.intern(source, 1, source.length())).isNotSameAs(value);
+  }
+
+  @Test
+  void lower_cases() {
+    String lowerCase = "already_lower";
+    assertThat(InternPool.toLowerCase(lowerCase)).isSameAs(lowerCase);
+    String camelCase = InternPool.toLowerCase("HashMap");
+    assertThat(camelCase).isEqualTo("hashmap");
+    assertThat(InternPool.toLowerCase(new String("HashMap"))).isSameAs(camelCase);
+    assertThat(InternPool.toLowerCase("ÉTÉ")).isEqualTo("été");
+    String longName = "A".repeat(InternPool.MAX_LENGTH + 1);
+    assertThat(InternPool.toLowerCase(longName)).isEqualTo("a".repeat(InternPool.MAX_LENGTH + 1));
+  }
+
+  @Test
+  void tokens_share_their_values() {
+    List<Token> tokens = RustTokenizer.tokenize("fn main() { let count = count + 1; }\nfn main() {}");
+    assertThat(tokens.get(0).getValue()).isEqualTo("fn");
+    assertThat(tokens.get(1).getValue()).isSameAs(tokens.get(14).getValue());
+    // count
+    assertThat(tokens.get(6).getValue()).isSameAs(tokens.get(8).getValue());
+    // (
+    assertThat(tokens.get(2).getValue()).isSameAs(tokens.get(15).getValue());
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LineIndexTest {
+
+  @Test
+  void lines() {
+    LineIndex index = new LineIndex("fn a() {}\r\n  let b;\rlet c;\n\n");
+    assertThat(index.lineCount()).isEqualTo(5);
+    assertThat(index.lineStart(1)).isZero();
+    assertThat(index.lineEnd(1)).isEqualTo(9);
+    assertThat(index.lineStart(2)).isEqualTo(11);
+    assertThat(index.lineLength(2)).isEqualTo(8);
+    assertThat(index.lineStart(3)).isEqualTo(20);
+    assertThat(index.lineLength(3)).isEqualTo(6);
+    assertThat(index.lineLength(4)).isZero();
+    assertThat(index.lineStart(5)).isEqualTo(index.lineEnd(5)).isEqualTo(28);
+  }
+
+  @Test
+  void offsets() {
+    LineIndex index = new LineIndex("ab\r\ncd\ne");
+    assertThat(index.line(0)).isEqualTo(1);
+    assertThat(index.line(2)).isEqualTo(1);
+    assertThat(index.line(3)).isEqualTo(1);
+    assertThat(index.line(4)).isEqualTo(2);
+    assertThat(index.column(5)).isEqualTo(1);
+    assertThat(index.line(8)).isEqualTo(3);
+    assertThat(index.column(8)).isEqualTo(1);
+    assertThat(index.offset(2, 1)).isEqualTo(5);
+  }
+
+  @Test
+  void empty_content() {
+    LineIndex index = new LineIndex("");
+    assertThat(index.lineCount()).isEqualTo(1);
+    assertThat(index.lineLength(1)).isZero();
+    assertThat(index.line(0)).isEqualTo(1);
+  }
+
+  @Test
+  void many_lines() {
+    LineIndex index = new LineIndex("\n".repeat(100));
+    assertThat(index.lineCount()).isEqualTo(101);
+    assertThat(index.line(57)).isEqualTo(58);
+  }
+
+  @Test
+  void out_of_bounds() {
+    LineIndex index = new LineIndex("a\nb");
+    assertThatThrownBy(() -> index.lineStart(3)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> index.line(4)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
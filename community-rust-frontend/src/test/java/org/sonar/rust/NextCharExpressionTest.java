@@ -0,0 +1,57 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.sslr.grammar.GrammarRuleKey;
+import org.sonar.sslr.grammar.LexerlessGrammarBuilder;
+import org.sonar.sslr.parser.LexerlessGrammar;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.sonar.sslr.tests.Assertions.assertThat;
+
+class NextCharExpressionTest {
+
+  private enum Key implements GrammarRuleKey {
+    WORD
+  }
+
+  @Test
+  void matches_only_before_one_of_the_characters() {
+    LexerlessGrammarBuilder b = LexerlessGrammarBuilder.create();
+    b.rule(Key.WORD).is(new NextCharExpression("ab"), b.regexp("\\p{L}+"));
+    LexerlessGrammar grammar = b.build();
+
+    assertThat(grammar.rule(Key.WORD))
+      .matches("abc")
+      .matches("bc")
+      .notMatches("cab")
+      .notMatches("éa")
+      .notMatches("");
+  }
+
+  @Test
+  void ascii_only() {
+    assertThatThrownBy(() -> new NextCharExpression("é"))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
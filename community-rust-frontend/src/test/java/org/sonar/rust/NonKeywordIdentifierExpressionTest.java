@@ -0,0 +1,65 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.sonar.rust.api.RustKeyword;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NonKeywordIdentifierExpressionTest {
+
+  private static final String[] FRAGMENTS = {"a", "Z", "_", "0", "9", "é", "東京", "\u0301", "ᛮ", "𝐀",
+    "😀", "fn", "as", "self", "Self", "r", "#", " ", "\n", "\r", "\r\n", "\u0085", "\u2028", "-", "'"};
+
+  @Test
+  void matches_like_the_keyword_lookbehind() {
+    Pattern pattern = Pattern.compile("[_\\p{L}\\p{Nl}][\\pL\\p{Nl}\\p{Mn}\\p{Mc}\\p{Nd}\\p{Pc}]*" + exceptKeywords());
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      StringBuilder input = new StringBuilder();
+      int fragments = 1 + random.nextInt(5);
+      for (int j = 0; j < fragments; j++) {
+        input.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+      }
+      Matcher matcher = pattern.matcher(input);
+      int expected = matcher.lookingAt() ? matcher.end() : 0;
+      assertThat(NonKeywordIdentifierExpression.match(input)).as(input.toString()).isEqualTo(expected);
+    }
+    for (String keyword : RustKeyword.keywordValues()) {
+      assertThat(NonKeywordIdentifierExpression.match(keyword)).isEqualTo(keyword.length() - 1);
+      assertThat(NonKeywordIdentifierExpression.match(keyword + " ")).isEqualTo(keyword.length());
+    }
+  }
+
+  private static String exceptKeywords() {
+    StringBuilder sb = new StringBuilder("(?<!(");
+    String[] values = RustKeyword.keywordValues();
+    for (int i = 0; i < values.length; i++) {
+      sb.append(i == 0 ? "^" : "|^").append(values[i]).append("$");
+    }
+    return sb.append("))").toString();
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+import org.sonar.sslr.internal.matchers.ParseNode;
+import org.sonar.sslr.parser.ParseRunner;
+import org.sonar.sslr.parser.ParserAdapter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseNodesTest {
+
+  private static final String SOURCE = "fn a() {}\n// b\n";
+
+  @Test
+  void sslr_version_is_the_one_parse_nodes_were_checked_with() throws IOException {
+    Properties properties = new Properties();
+    try (InputStream in = ParserAdapter.class.getResourceAsStream("/META-INF/maven/org.sonarsource.sslr/sslr-core/pom.properties")) {
+      properties.load(in);
+    }
+    // ParseNodes reads the internal API of SSLR: check it, as well as the trees of ChunkTreeBuilder, before upgrading
+    assertThat(properties.getProperty("version")).isEqualTo("1.24.0.633");
+  }
+
+  @Test
+  void kinds_of_nodes() {
+    ParseNode root = new ParseRunner(RustGrammarRegistry.rustGrammar().getRootRule()).parse(SOURCE.toCharArray()).getParseTreeRoot();
+    assertThat(ParseNodes.rule(root)).isEqualTo(RustGrammarRegistry.rustGrammar().rule(RustGrammar.COMPILATION_UNIT));
+    assertThat(ParseNodes.ruleName(root)).isEqualTo("COMPILATION_UNIT");
+
+    List<ParseNode> nodes = new ArrayList<>();
+    addDescendants(root, nodes);
+    assertThat(nodes).filteredOn(ParseNodes::isComment).extracting(ParseNodesTest::text).containsExactly("// b");
+    assertThat(nodes).filteredOn(node -> ParseNodes.tokenType(node) != null)
+      .extracting(node -> ParseNodes.tokenType(node) + ":" + text(node))
+      .containsExactly("IDENTIFIER:a", "EOF:");
+    assertThat(nodes).filteredOn(ParseNodes::isTrivia).isNotEmpty();
+  }
+
+  private static void addDescendants(ParseNode node, List<ParseNode> nodes) {
+    for (ParseNode child : node.getChildren()) {
+      nodes.add(child);
+      addDescendants(child, nodes);
+    }
+  }
+
+  private static String text(ParseNode node) {
+    return SOURCE.substring(node.getStartIndex(), node.getEndIndex());
+  }
+
+}
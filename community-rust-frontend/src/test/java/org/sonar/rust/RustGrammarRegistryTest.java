@@ -0,0 +1,72 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.impl.Parser;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RustGrammarRegistryTest {
+
+  private static final String SOURCE = "fn main() {\n  let s = \"hello\";\n  if s.len() > 3 { println!(\"{}\", s); }\n}\n";
+
+  @Test
+  void grammarsAreBuiltOnce() {
+    assertThat(RustGrammarRegistry.rustGrammar()).isSameAs(RustGrammarRegistry.rustGrammar());
+    assertThat(RustGrammarRegistry.tokensGrammar()).isSameAs(RustGrammarRegistry.tokensGrammar());
+    assertThat(RustGrammarRegistry.grammar(RustGrammar.EXPRESSION)).isSameAs(RustGrammarRegistry.grammar(RustGrammar.EXPRESSION));
+    assertThat(RustGrammarRegistry.grammar(RustGrammar.EXPRESSION).getRootRule())
+      .isSameAs(RustGrammarRegistry.grammar(RustGrammar.EXPRESSION).rule(RustGrammar.EXPRESSION));
+  }
+
+  @Test
+  void grammarCanBeSharedByConcurrentParsers() throws Exception {
+    RustParserConfiguration conf = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+    String expected = RustParser.create(conf).parse(SOURCE).getTokens().toString();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        results.add(executor.submit(() -> {
+          Parser<?> parser = RustParser.create(conf);
+          AstNode tree = parser.parse(SOURCE);
+          return tree.getTokens().toString();
+        }));
+      }
+      for (Future<String> result : results) {
+        assertThat(result.get()).isEqualTo(expected);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
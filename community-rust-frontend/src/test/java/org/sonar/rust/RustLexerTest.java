@@ -55,7 +55,7 @@ class RustLexerTest {
 
   @Test
   void testTokens() {
-    Assertions.assertThat(RustLexer.create().build().rule(RustLexer.TOKENS))
+    Assertions.assertThat(RustGrammarRegistry.tokensGrammar().rule(RustLexer.TOKENS))
       .matches("")
       .matches("fn")
       .matches("main()")
@@ -79,7 +79,7 @@ class RustLexerTest {
 
     // Print out Ast node content for debugging purpose
 
-    ParserAdapter<LexerlessGrammar> parser = new ParserAdapter<>(StandardCharsets.UTF_8, RustGrammar.create().build());
+    ParserAdapter<LexerlessGrammar> parser = new ParserAdapter<>(StandardCharsets.UTF_8, RustGrammarRegistry.rustGrammar());
     AstNode rootNode = parser.parse(sexpr);
     assertThat(rootNode.getType()).isSameAs(RustGrammar.COMPILATION_UNIT);
     AstNode astNode = rootNode;
@@ -102,7 +102,7 @@ class RustLexerTest {
         "             }";
 
     ParserAdapter<LexerlessGrammar> parser = new ParserAdapter<>(
-        StandardCharsets.UTF_8, RustGrammar.create().build());
+        StandardCharsets.UTF_8, RustGrammarRegistry.rustGrammar());
     
     AstNode rootNode = parser.parse(sexpr);
     assertThat(rootNode).isNotNull();
@@ -120,7 +120,7 @@ class RustLexerTest {
         "       }\n" +
         "}";
     ParserAdapter<LexerlessGrammar> parser = new ParserAdapter<>(
-        StandardCharsets.UTF_8, RustGrammar.create().build());
+        StandardCharsets.UTF_8, RustGrammarRegistry.rustGrammar());
     
     AstNode rootNode = parser.parse(sexpr);
     assertThat(rootNode).isNotNull();
@@ -147,7 +147,7 @@ class RustLexerTest {
         "}";
 
     ParserAdapter parser = new ParserAdapter<>(
-        StandardCharsets.UTF_8, RustGrammar.create().build()
+        StandardCharsets.UTF_8, RustGrammarRegistry.rustGrammar()
     );
 
     // Expect this to be parsed successfully or reproduce the issue
@@ -0,0 +1,287 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.ast.AstXmlPrinter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RustParserTest {
+
+  static String largeSource(int statements) {
+    StringBuilder source = new StringBuilder("fn main() {\n");
+    for (int i = 0; i < statements; i++) {
+      source.append("  let a").append(i).append(" = (1 + 2) * foo(bar, [1, 2, 3]);\n");
+    }
+    return source.append("}\n").toString();
+  }
+
+  @Test
+  void parseWithinBudget() {
+    RustParserConfiguration conf = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParseTimeoutMillis(60_000)
+      .build();
+    AstNode tree = RustParser.create(conf).parse(largeSource(10));
+    assertThat(tree.getDescendants(RustGrammar.LET_STATEMENT)).hasSize(10);
+  }
+
+  @Test
+  void parseExceedingBudget() {
+    RustParserConfiguration conf = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParseTimeoutMillis(1)
+      .build();
+    String source = largeSource(5_000);
+    assertThatThrownBy(() -> RustParser.create(conf).parse(source))
+      .isInstanceOf(ParseTimeoutException.class)
+      .hasMessage("Parsing did not complete within 1 ms");
+
+    // the budget does not leak to the next parse of the thread
+    RustParserConfiguration unbounded = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+    assertThat(RustParser.create(unbounded).parse(largeSource(10)).getDescendants(RustGrammar.LET_STATEMENT)).hasSize(10);
+  }
+
+  @Test
+  void memoizedParseBuildsTheSameTree() throws IOException {
+    RustParserConfiguration plain = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+    RustParserConfiguration memoized = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setMemoizedRules(RustParserConfiguration.BACKTRACKING_RULES)
+      .build();
+    // results keep evicting each other
+    RustParserConfiguration tinyTable = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setMemoizedRules(RustParserConfiguration.BACKTRACKING_RULES)
+      .setMemoTableSize(16)
+      .build();
+
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(Paths.get("..", "community-rust-plugin", "src", "test", "resources", "rustc"))) {
+      files = paths.filter(path -> path.toString().endsWith(".rs")).collect(Collectors.toList());
+    }
+    assertThat(files).isNotEmpty();
+    for (Path file : files) {
+      String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+      String expected = AstXmlPrinter.print(RustParser.create(plain).parse(source));
+      assertThat(AstXmlPrinter.print(RustParser.create(memoized).parse(source))).as(file.toString()).isEqualTo(expected);
+      assertThat(AstXmlPrinter.print(RustParser.create(tinyTable).parse(source))).as(file.toString()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  void memoizedParseFailsAtTheSameLine() {
+    RustParserConfiguration plain = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+    RustParserConfiguration memoized = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setMemoizedRules(RustParserConfiguration.BACKTRACKING_RULES)
+      .build();
+    String source = "fn main() {\n  let x = foo(1, 2;\n}\n";
+    assertThatThrownBy(() -> RustParser.create(plain).parse(source))
+      .isInstanceOf(RecognitionException.class);
+    int line = lineOfFailure(plain, source);
+    assertThat(lineOfFailure(memoized, source)).isEqualTo(line);
+  }
+
+  @Test
+  void recoveringParseBuildsTheSameTree() throws IOException {
+    RustParserConfiguration conf = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(Paths.get("..", "community-rust-plugin", "src", "test", "resources", "rustc"))) {
+      files = paths.filter(path -> path.toString().endsWith(".rs")).collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+      String expected = AstXmlPrinter.print(RustParser.create(conf).parse(source));
+      assertThat(AstXmlPrinter.print(RustParser.createRecovering(conf).parse(source))).as(file.toString()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  void recoveringParseSkipsItemsWithErrors() {
+    RustParserConfiguration conf = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+    String source = "fn a() {}\n"
+      + "fn b() {\n  let x = foo(1, 2;\n}\n"
+      + "struct C;\n"
+      + "impl D {\n  fn e(&self) -> { }\n}\n"
+      + "fn f() {\n  let s = \"}\";\n";
+    assertThatThrownBy(() -> RustParser.create(conf).parse(source))
+      .isInstanceOf(RecognitionException.class);
+
+    AstNode tree = RustParser.createRecovering(conf).parse(source);
+    List<AstNode> errors = tree.getChildren(RustGrammar.PARSE_ERROR);
+    assertThat(errors).extracting(AstNode::getTokenLine).containsExactly(2, 6, 9);
+    assertThat(errors.get(0).getTokenValue()).isEqualTo("fn b() {\n  let x = foo(1, 2;\n}");
+    assertThat(errors.get(2).getTokenValue()).isEqualTo("fn f() {\n  let s = \"}\";\n");
+    assertThat(tree.getChildren(RustGrammar.STATEMENT)).extracting(AstNode::getTokenLine).containsExactly(1, 5);
+  }
+
+  @Test
+  void parallelParseBuildsTheSameTree() throws IOException {
+    RustParserConfiguration plain = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+    RustParserConfiguration parallel = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParallelChunkLength(64)
+      .build();
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(Paths.get("..", "community-rust-plugin", "src", "test", "resources", "rustc"))) {
+      files = paths.filter(path -> path.toString().endsWith(".rs")).collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+      String expected = AstXmlPrinter.print(RustParser.create(plain).parse(source));
+      assertThat(AstXmlPrinter.print(RustParser.create(parallel).parse(source))).as(file.toString()).isEqualTo(expected);
+      assertThat(AstXmlPrinter.print(RustParser.create(parallel).parse(file.toFile()))).as(file.toString()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  void parallelParseKeepsCommentsAndPositions() {
+    RustParserConfiguration conf = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParallelChunkLength(16)
+      .build();
+    String source = "fn a() { b(); }\r\n// c\n/* d */\nfn e() {\n  f();\n}\nstruct G;\n";
+    AstNode tree = RustParser.create(conf).parse(source);
+
+    List<AstNode> statements = tree.getChildren(RustGrammar.STATEMENT);
+    assertThat(statements).extracting(AstNode::getTokenLine).containsExactly(1, 4, 7);
+    assertThat(statements.get(1).getFromIndex()).isEqualTo(source.indexOf("fn e"));
+    assertThat(statements.get(1).getToken().getTrivia()).extracting(trivia -> trivia.getToken().getOriginalValue())
+      .containsExactly("// c", "/* d */");
+    assertThat(statements.get(1).getTokens()).filteredOn(token -> token.getValue().equals("f"))
+      .extracting(Token::getLine, Token::getColumn)
+      .containsExactly(tuple(5, 2));
+  }
+
+  @Test
+  void parallelParseFailsLikeTheSequentialParse() {
+    RustParserConfiguration plain = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+    RustParserConfiguration parallel = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParallelChunkLength(16)
+      .build();
+    String source = "fn a() { b(); }\nfn c() {\n  let x = foo(1, 2;\n}\nfn d() { e(); }\n";
+    assertThat(lineOfFailure(parallel, source)).isEqualTo(lineOfFailure(plain, source)).isEqualTo(3);
+  }
+
+  @Test
+  void parallelParseExceedingBudget() {
+    RustParserConfiguration conf = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParseTimeoutMillis(1)
+      .setParallelChunkLength(1_024)
+      .build();
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      source.append(largeSource(20).replace("fn main", "fn f" + i));
+    }
+    assertThatThrownBy(() -> RustParser.create(conf).parse(source.toString()))
+      .isInstanceOf(ParseTimeoutException.class);
+  }
+
+  @Test
+  void sequentialParseKeepsTheBudgetOfTheCaller() throws InterruptedException {
+    RustParserConfiguration conf = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParseTimeoutMillis(60_000)
+      .build();
+    // as when the chunks of a file did not parse and it is parsed again as a whole
+    ParseBudget.start(1);
+    try {
+      Thread.sleep(5);
+      assertThatThrownBy(() -> RustParser.create(conf).parse(largeSource(100)))
+        .isInstanceOf(ParseTimeoutException.class)
+        .hasMessage("Parsing did not complete within 1 ms");
+    } finally {
+      ParseBudget.stop();
+    }
+  }
+
+  @Test
+  void recoveringParseSharesTheTimeoutOfTheFile() {
+    RustParserConfiguration file = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParseTimeoutMillis(1)
+      .build();
+    RustParserConfiguration recovering = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParseTimeoutMillis(60_000)
+      .build();
+    String source = largeSource(100);
+    assertThatThrownBy(() -> RustParser.withinTimeout(file, () -> {
+      // as when the first parse of the file took the whole budget
+      sleep(5);
+      return RustParser.createRecovering(recovering).parse(source);
+    }))
+      .isInstanceOf(ParseTimeoutException.class)
+      .hasMessage("Parsing did not complete within 1 ms");
+    assertThat(ParseBudget.current()).isNull();
+  }
+
+  @Test
+  void cancelledBudgetStopsTheParse() {
+    RustParserConfiguration conf = RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build();
+    ParseBudget budget = ParseBudget.fork();
+    budget.cancel();
+    ParseBudget.startLike(budget);
+    try {
+      assertThatThrownBy(() -> RustParser.create(conf).parse(largeSource(100)))
+        .isInstanceOf(CancellationException.class);
+    } finally {
+      ParseBudget.stop();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static int lineOfFailure(RustParserConfiguration conf, String source) {
+    try {
+      RustParser.create(conf).parse(source);
+    } catch (RecognitionException e) {
+      return e.getLine();
+    }
+    throw new AssertionError("Parsing should have failed");
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.sonar.rust.api.RustTokenType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RustTokenizerTest {
+
+  private static final String[] FRAGMENTS = {
+    " ", "\n", "\r", "\r\n", "\t", ";", "// comment", "/* block\n comment */", "/* unterminated", "/**/", "/*/",
+    "{", "}", "(", ")", "[", "]", "fn", "let", "mut", "self", "Self", "crate", "super", "true", "false", "trueish",
+    "x", "_", "__", "foo_bar1", "été", "r#type", "r#crate", "r#", "r#\"raw\"#", "r##\"raw\"##", "r\"raw\"", "r\"\"\"",
+    "br\"bytes\"", "br#\"bytes\"#", "b'a'", "b'\\''", "b'\\x7f'", "b'\\n'", "b\"bytes\\\"\\x00\"", "b\"", "'a'",
+    "'\\u{1F600}'", "'\\''", "'\\x41'", "'\\n'", "'é'", "'", "'a", "'static", "'_", "\"string\"", "\"esc\\\"aped\"",
+    "\"\\n//\"", "\"\\\n\"", "\"\\u{00_e9}\"", "\"", "\\", "0", "1", "42", "1_000", "0x1F", "0o17", "0b1010", "1u8",
+    "7usize", "3i128", "1.", "1.0", "1.5e10", "2E-3", "1e+7_0", "1f32", "1.0f64", "1.e3", "0.1.2", "1..2", "1.x",
+    "+", "-", "*", "/", "%", "^", "!", "&", "|", "&&", "||", "<<", ">>", "+=", "-=", "*=", "/=", "%=", "^=", "&=",
+    "|=", "<<=", ">>=", "=", "==", "!=", ">", "<", ">=", "<=", "@", ".", "..", "...", "..=", ",", ":", "::", "->",
+    "=>", "#", "$", "?", "~", "println!", "#[test]", "vec![1, 2]", "\u00a0", "\u0085", "\u2028", "€", "\uD83D\uDE00",
+    "\"a\\n/* c */\"", "\"\\t// c\n\"", "0x", "0b2", "1e", "1.0e", "1_", "'\\u{}'", "''", "b''", "'ab'", "1 // c\n"
+  };
+
+  @Test
+  void tokenizes_like_the_lexer() {
+    assertSameTokens("");
+    assertSameTokens("fn main() {\n  println!(\"Hello, world!\");\n}\n");
+    assertSameTokens("let x = 1 /* one */ + 2; // two\n");
+    assertSameTokens("fn f<'a>(x: &'a str) -> &'a str { 'outer: loop { break 'outer; } }");
+    assertSameTokens("x.0.1");
+    assertSameTokens("a\rb\r\nc\nd");
+    assertSameTokens("/* only a comment */");
+    assertSameTokens("fn");
+    assertSameTokens("r#\"unterminated");
+    assertSameTokens(";");
+    assertSameTokens("a;;");
+    assertSameTokens("§");
+  }
+
+  @Test
+  void tokenizes_test_files_like_the_lexer() throws IOException {
+    List<Path> files = rustFiles();
+    assertThat(files).isNotEmpty();
+    for (Path file : files) {
+      assertSameTokens(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void tokenizes_random_sources_like_the_lexer() {
+    Random random = new Random(42);
+    for (int i = 0; i < 5000; i++) {
+      StringBuilder source = new StringBuilder();
+      int fragments = 1 + random.nextInt(8);
+      for (int j = 0; j < fragments; j++) {
+        source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+      }
+      assertSameTokens(source.toString());
+    }
+  }
+
+  @Test
+  void types_keywords() {
+    List<Token> tokens = RustTokenizer.tokenize("pub fn r#fn(self) -> Self { true }");
+    assertThat(tokens).extracting(Token::getType).containsExactly(
+      RustTokenType.KEYWORD, RustTokenType.KEYWORD, RustTokenType.IDENTIFIER, RustTokenizer.UNDEFINED, RustTokenType.KEYWORD,
+      RustTokenizer.UNDEFINED, RustTokenizer.UNDEFINED, RustTokenType.KEYWORD, RustTokenizer.UNDEFINED, RustTokenType.BOOLEAN_LITERAL,
+      RustTokenizer.UNDEFINED, GenericTokenType.EOF);
+  }
+
+  private static List<Path> rustFiles() throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (String module : new String[] {"community-rust-frontend", "community-rust-checks", "community-rust-plugin"}) {
+      Path resources = Paths.get("..", module, "src", "test", "resources");
+      if (Files.isDirectory(resources)) {
+        try (Stream<Path> paths = Files.walk(resources)) {
+          files.addAll(paths.filter(path -> path.toString().endsWith(".rs")).collect(Collectors.toList()));
+        }
+      }
+    }
+    return files;
+  }
+
+  private static void assertSameTokens(String source) {
+    String expected;
+    try {
+      expected = describe(RustTokenizer.typeKeywords(RustLexer.create(RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build())
+        .parse(source)
+        .getTokens()));
+    } catch (RecognitionException e) {
+      expected = "failure";
+    }
+    String actual;
+    try {
+      actual = describe(RustTokenizer.tokenize(source));
+    } catch (RecognitionException e) {
+      actual = "failure";
+    }
+    assertThat(actual).as(source).isEqualTo(expected);
+  }
+
+  private static String describe(List<Token> tokens) {
+    StringBuilder sb = new StringBuilder();
+    for (Token token : tokens) {
+      for (Trivia trivia : token.getTrivia()) {
+        sb.append("  ").append(describe(trivia.getToken())).append('\n');
+      }
+      sb.append(describe(token)).append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static String describe(Token token) {
+    return token.getLine() + ":" + token.getColumn() + " " + token.getType() + " [" + token.getValue() + "|"
+      + token.getOriginalValue() + "] " + token.getURI() + " " + token.isGeneratedCode() + " " + token.isCopyBook();
+  }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RustTreeWalkerTest {
+
+  private static final String SOURCE = "fn main() {\n  let s = 1;\n  if s > 0 { foo(s); }\n}\nfn bar() {}\n";
+
+  @Test
+  void nodesAreOnlyDispatchedToSubscribedVisitors() {
+    RecordingVisitor functions = new RecordingVisitor(Set.of(RustGrammar.FUNCTION));
+    RecordingVisitor statements = new RecordingVisitor(Set.of(RustGrammar.LET_STATEMENT, RustGrammar.IF_EXPRESSION));
+    RecordingVisitor none = new RecordingVisitor(Set.of());
+
+    new RustTreeWalker(List.of(functions, statements, none)).scanFile(context(SOURCE));
+
+    assertThat(functions.events).containsExactly("visitFile", "visit FUNCTION 1", "leave FUNCTION 1",
+      "visit FUNCTION 5", "leave FUNCTION 5", "leaveFile");
+    assertThat(statements.events).containsExactly("visitFile", "visit LET_STATEMENT 2", "leave LET_STATEMENT 2",
+      "visit IF_EXPRESSION 3", "leave IF_EXPRESSION 3", "leaveFile");
+    assertThat(none.events).containsExactly("visitFile", "leaveFile");
+  }
+
+  @Test
+  void tokensAreDispatchedToVisitorsOverridingVisitToken() {
+    List<String> tokens = new ArrayList<>();
+    RustVisitor tokenVisitor = new RustVisitor() {
+      @Override
+      public void visitToken(Token token) {
+        tokens.add(token.getValue());
+      }
+    };
+    RustVisitorContext context = context("fn f() {}");
+
+    new RustTreeWalker(List.of(tokenVisitor)).scanFile(context);
+
+    List<String> expected = new ArrayList<>();
+    for (Token token : context.rootTree().getTokens()) {
+      expected.add(token.getValue());
+    }
+    assertThat(tokens).isEqualTo(expected).contains("fn", "f", "{", "}");
+  }
+
+  @Test
+  void sameEventsAsScanningEachVisitor() {
+    RecordingVisitor alone = new RecordingVisitor(Set.of(RustGrammar.FUNCTION, RustGrammar.BLOCK_EXPRESSION));
+    alone.scanFile(context(SOURCE));
+
+    RecordingVisitor walked = new RecordingVisitor(Set.of(RustGrammar.FUNCTION, RustGrammar.BLOCK_EXPRESSION));
+    RecordingVisitor other = new RecordingVisitor(Set.of(RustGrammar.FUNCTION));
+    new RustTreeWalker(List.of(other, walked)).scanFile(context(SOURCE));
+
+    assertThat(walked.events).isEqualTo(alone.events);
+  }
+
+  @Test
+  void visitorScansSeveralFiles() {
+    RecordingVisitor visitor = new RecordingVisitor(Set.of(RustGrammar.FUNCTION));
+    visitor.scanFile(context(SOURCE));
+    List<String> firstFile = new ArrayList<>(visitor.events);
+    visitor.scanFile(context(SOURCE));
+
+    assertThat(visitor.events).hasSize(2 * firstFile.size()).endsWith(firstFile.toArray(new String[0]));
+  }
+
+  @Test
+  void timeIsMeasuredPerVisitorWhenTimed() {
+    RecordingVisitor visitor = new RecordingVisitor(Set.of(RustGrammar.FUNCTION));
+    RustTreeWalker untimed = new RustTreeWalker(List.of(visitor));
+    untimed.scanFile(context(SOURCE));
+    assertThat(untimed.timeNanos(visitor)).isZero();
+
+    RustTreeWalker timed = new RustTreeWalker(List.of(visitor), true);
+    timed.scanFile(context(SOURCE));
+    assertThat(timed.timeNanos(visitor)).isPositive();
+    assertThat(timed.timeNanos(new RecordingVisitor(Set.of()))).isZero();
+  }
+
+  @Test
+  void deeplyNestedTreesDoNotOverflowTheStack() {
+    int depth = 100_000;
+    Token token = Token.builder()
+      .setType(GenericTokenType.IDENTIFIER)
+      .setValueAndOriginalValue("x")
+      .setURI(URI.create("file:///deep.rs"))
+      .setLine(1)
+      .setColumn(0)
+      .build();
+    AstNode root = new AstNode(RustGrammar.COMPILATION_UNIT, "COMPILATION_UNIT", token);
+    AstNode parent = root;
+    for (int i = 0; i < depth; i++) {
+      AstNode child = new AstNode(i % 2 == 0 ? RustGrammar.GROUPED_EXPRESSION : RustGrammar.EXPRESSION, "NESTED", token);
+      parent.addChild(child);
+      parent = child;
+    }
+    parent.addChild(new AstNode(GenericTokenType.IDENTIFIER, "IDENTIFIER", token));
+
+    DepthVisitor nesting = new DepthVisitor();
+    List<String> tokens = new ArrayList<>();
+    RustVisitor tokenVisitor = new RustVisitor() {
+      @Override
+      public void visitToken(Token t) {
+        tokens.add(t.getValue());
+      }
+    };
+    new RustTreeWalker(List.of(nesting, tokenVisitor)).scanFile(new RustVisitorContext(file(""), root));
+
+    assertThat(nesting.maxDepth).isEqualTo(depth / 2);
+    assertThat(nesting.depth).isZero();
+    assertThat(nesting.visited).isEqualTo(depth / 2);
+    assertThat(tokens).containsExactly("x");
+
+    DepthVisitor alone = new DepthVisitor();
+    alone.scanFile(new RustVisitorContext(file(""), root));
+    assertThat(alone.maxDepth).isEqualTo(depth / 2);
+  }
+
+  private static RustVisitorContext context(String content) {
+    AstNode tree = RustParser.create(RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build()).parse(content);
+    return new RustVisitorContext(file(content), tree);
+  }
+
+  private static RustFile file(String content) {
+    return new RustFile() {
+      @Override
+      public String name() {
+        return "file.rs";
+      }
+
+      @Override
+      public String content() {
+        return content;
+      }
+
+      @Override
+      public URI uri() {
+        return null;
+      }
+    };
+  }
+
+  private static class DepthVisitor extends RustVisitor {
+
+    private int depth;
+    private int maxDepth;
+    private int visited;
+
+    @Override
+    public Set<AstNodeType> subscribedKinds() {
+      return Set.of(RustGrammar.GROUPED_EXPRESSION);
+    }
+
+    @Override
+    public void visitNode(AstNode node) {
+      visited++;
+      depth++;
+      maxDepth = Math.max(maxDepth, depth);
+    }
+
+    @Override
+    public void leaveNode(AstNode node) {
+      depth--;
+    }
+  }
+
+  private static class RecordingVisitor extends RustVisitor {
+
+    private final Set<AstNodeType> kinds;
+    private final List<String> events = new ArrayList<>();
+
+    RecordingVisitor(Set<AstNodeType> kinds) {
+      this.kinds = kinds;
+    }
+
+    @Override
+    public Set<AstNodeType> subscribedKinds() {
+      return kinds;
+    }
+
+    @Override
+    public void visitFile(AstNode node) {
+      events.add("visitFile");
+    }
+
+    @Override
+    public void leaveFile(AstNode node) {
+      events.add("leaveFile");
+    }
+
+    @Override
+    public void visitNode(AstNode node) {
+      events.add("visit " + node.getName() + " " + node.getTokenLine());
+    }
+
+    @Override
+    public void leaveNode(AstNode node) {
+      events.add("leave " + node.getName() + " " + node.getTokenLine());
+    }
+  }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopLevelItemsTest {
+
+  @Test
+  void chunks_start_with_an_item() {
+    String source = "//! crate\nfn a() {}\n// b\nfn b() { c(); }\nuse d;\nstruct E;\nimpl E {\n}\n";
+    assertThat(TopLevelItems.chunks(source, 1)).containsExactly(0, 25, 41, 48, 58);
+    assertThat(TopLevelItems.chunks(source, 30)).containsExactly(0, 41);
+    assertThat(TopLevelItems.chunks(source, source.length())).containsExactly(0);
+  }
+
+  @Test
+  void chunks_do_not_split_delimiters() {
+    String source = "fn a() { b(); c(); }\nmod d { fn e() {} }\nconst F: [u8; 2] = [0; 2];\n";
+    assertThat(TopLevelItems.chunks(source, 1)).containsExactly(0, 21, 41);
+  }
+
+  @Test
+  void chunks_end_on_unbalanced_delimiters() {
+    assertThat(TopLevelItems.chunks("} fn a() {}", 1)).containsExactly(0, 2);
+    assertThat(TopLevelItems.chunks("fn a() { b(", 1)).containsExactly(0);
+    assertThat(TopLevelItems.chunks("", 1)).containsExactly(0);
+  }
+
+  @Test
+  void skips_whitespace_and_comments() {
+    assertThat(TopLevelItems.skipSpacing(" \t\r\n// a\n/* b */ c", 0)).isEqualTo(17);
+    assertThat(TopLevelItems.skipSpacing("a /* b", 1)).isEqualTo(6);
+    assertThat(TopLevelItems.skipSpacing("a", 1)).isEqualTo(1);
+  }
+
+}
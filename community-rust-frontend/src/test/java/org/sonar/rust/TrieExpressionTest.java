@@ -0,0 +1,56 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrieExpressionTest {
+
+  @Test
+  void longest_match() {
+    TrieExpression trie = new TrieExpression("test", "a", "abc", "ab", "b");
+    assertThat(trie.match("abcd", 0)).isEqualTo(3);
+    assertThat(trie.match("abd", 0)).isEqualTo(2);
+    assertThat(trie.match("ac", 0)).isEqualTo(1);
+    assertThat(trie.match("xab", 1)).isEqualTo(2);
+    assertThat(trie.match("c", 0)).isZero();
+    assertThat(trie.match("é", 0)).isZero();
+    assertThat(trie.match("ab", 2)).isZero();
+    assertThat(trie).hasToString("test");
+  }
+
+  @Test
+  void only_longer_strings_with_a_shorter_prefix() {
+    TrieExpression trie = new TrieExpression("test", "abc");
+    assertThat(trie.match("ab", 0)).isZero();
+    assertThat(trie.match("abc", 0)).isEqualTo(3);
+  }
+
+  @Test
+  void ascii_only() {
+    assertThatThrownBy(() -> new TrieExpression("test", "é"))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
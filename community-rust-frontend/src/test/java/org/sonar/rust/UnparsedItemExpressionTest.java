@@ -0,0 +1,64 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnparsedItemExpressionTest {
+
+  @Test
+  void ends_after_the_item() {
+    assertThat(match("fn a() { b(); }\nfn c() {}")).isEqualTo("fn a() { b(); }");
+    assertThat(match("use a::{b, c};\nfn d() {}")).isEqualTo("use a::{b, c};");
+    assertThat(match("#[derive(Debug)]\nstruct A { b: u8 }\n")).isEqualTo("#[derive(Debug)]\nstruct A { b: u8 }");
+    assertThat(match("x) + 1; y")).isEqualTo("x)");
+    assertThat(match("fn a() {")).isEqualTo("fn a() {");
+    assertThat(match("")).isEmpty();
+  }
+
+  @Test
+  void resynchronizes_on_a_line_starting_an_item() {
+    assertThat(match("fn a() {\n  b(\n}\nfn c() {}")).isEqualTo("fn a() {\n  b(\n}");
+    assertThat(match("struct A<T\n#[test]\nfn b() {}")).isEqualTo("struct A<T");
+    assertThat(match("fn a() {\n  fn b() {}\n  impl_c();\n}")).isEqualTo("fn a() {\n  fn b() {}\n  impl_c();\n}");
+    assertThat(match("fn a() {\nfunction()\n}")).isEqualTo("fn a() {\nfunction()\n}");
+  }
+
+  @Test
+  void ignores_delimiters_in_comments_strings_and_chars() {
+    assertThat(match("fn a() { // }\n}")).isEqualTo("fn a() { // }\n}");
+    assertThat(match("fn a() { /* } */ }")).isEqualTo("fn a() { /* } */ }");
+    assertThat(match("fn a() { \"}\\\"}\" }")).isEqualTo("fn a() { \"}\\\"}\" }");
+    assertThat(match("fn a() { r#\"}\"}\"# }")).isEqualTo("fn a() { r#\"}\"}\"# }");
+    assertThat(match("fn a() { br\"}\" }")).isEqualTo("fn a() { br\"}\" }");
+    assertThat(match("fn a() { '}'; '\\u{7d}' }")).isEqualTo("fn a() { '}'; '\\u{7d}' }");
+    assertThat(match("fn a<'b>(c: &'b str) { }")).isEqualTo("fn a<'b>(c: &'b str) { }");
+    assertThat(match("fn a() { \"\nfn b\" }")).isEqualTo("fn a() { \"\nfn b\" }");
+    assertThat(match("fn a() { bar; r#match }")).isEqualTo("fn a() { bar; r#match }");
+  }
+
+  private static String match(String input) {
+    return input.substring(0, UnparsedItemExpression.match(input));
+  }
+
+}
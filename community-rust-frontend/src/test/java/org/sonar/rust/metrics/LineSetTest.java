@@ -0,0 +1,70 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.rust.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineSetTest {
+
+  @Test
+  void adds_lines_once() {
+    LineSet lines = new LineSet();
+    assertThat(lines.isEmpty()).isTrue();
+    lines.add(3);
+    lines.add(1);
+    lines.add(3);
+    lines.add(10_000);
+
+    assertThat(lines.size()).isEqualTo(3);
+    assertThat(lines.isEmpty()).isFalse();
+    assertThat(lines.contains(3)).isTrue();
+    assertThat(lines.contains(2)).isFalse();
+    assertThat(lines.contains(-1)).isFalse();
+    assertThat(lines.toArray()).containsExactly(1, 3, 10_000);
+    assertThat(lines).hasToString("[1, 3, 10000]");
+    assertThat(lines.toSet()).containsOnly(1, 3, 10_000);
+  }
+
+  @Test
+  void iterates_in_order() {
+    List<Integer> visited = new ArrayList<>();
+    LineSet.of(7, 2, 5).forEachLine(visited::add);
+    assertThat(visited).containsExactly(2, 5, 7);
+  }
+
+  @Test
+  void union() {
+    LineSet first = LineSet.of(1, 2);
+    LineSet second = LineSet.of(2, 4);
+
+    assertThat(LineSet.union(first, second)).isEqualTo(LineSet.of(1, 2, 4));
+    assertThat(first).isEqualTo(LineSet.of(1, 2));
+
+    first.addAll(second);
+    assertThat(first).isEqualTo(LineSet.of(1, 2, 4)).hasSameHashCodeAs(LineSet.of(4, 2, 1));
+    assertThat(second.toArray()).containsExactly(2, 4);
+  }
+
+}
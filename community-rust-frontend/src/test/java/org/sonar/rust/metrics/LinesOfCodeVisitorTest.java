@@ -23,10 +23,11 @@ package org.sonar.rust.metrics;
 import com.sonar.sslr.api.AstNode;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
-import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustFile;
-import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
+import org.sonar.rust.RustLexer;
+import org.sonar.rust.RustParserConfiguration;
 import org.sonar.rust.RustVisitorContext;
 import org.sonar.sslr.parser.LexerlessGrammar;
 import org.sonar.sslr.parser.ParserAdapter;
@@ -39,9 +40,9 @@ class LinesOfCodeVisitorTest {
   @Test
   void testVisit() {
 
-    ParserAdapter<LexerlessGrammar> parser = new ParserAdapter<>(StandardCharsets.UTF_8, RustGrammar.create().build());
+    ParserAdapter<LexerlessGrammar> parser = new ParserAdapter<>(StandardCharsets.UTF_8, RustGrammarRegistry.rustGrammar());
     AstNode rootNode = parser.parse("");
-    LinesOfCodeVisitor lcv = new LinesOfCodeVisitor(parser);
+    LinesOfCodeVisitor lcv = new LinesOfCodeVisitor();
     RustFile source = new RustFile() {
       @Override
       public String name() {
@@ -61,10 +62,40 @@ class LinesOfCodeVisitorTest {
     RustVisitorContext context = new RustVisitorContext(source, rootNode);
     lcv.setContext(context);
     lcv.visitFile(rootNode);
-    Set<Integer> lines = lcv.linesOfCode();
+    LineSet lines = lcv.linesOfCodeSet();
 
-    assertThat(lines).isEmpty();
+    assertThat(lines.isEmpty()).isTrue();
 
   }
 
+  @Test
+  void testVisitSharedTokens() {
+    String content = "fn main() {\n  // comment\n  let s = \"a\n  b\"\n  ;\n}\n";
+    ParserAdapter<LexerlessGrammar> lexer = RustLexer.create(RustParserConfiguration.builder().setCharset(StandardCharsets.UTF_8).build());
+    RustFile source = new RustFile() {
+      @Override
+      public String name() {
+        return null;
+      }
+
+      @Override
+      public String content() {
+        return content;
+      }
+
+      @Override
+      public URI uri() {
+        return null;
+      }
+    };
+    RustVisitorContext context = new RustVisitorContext(source, null, lexer.parse(content).getTokens());
+    LinesOfCodeVisitor lcv = new LinesOfCodeVisitor();
+    lcv.setContext(context);
+    lcv.visitFile(null);
+
+    assertThat(lcv.linesOfCodeSet().toArray()).containsOnly(1, 3, 4, 6);
+    // former accessor
+    assertThat(lcv.linesOfCode()).containsOnly(1, 3, 4, 6);
+  }
+
 }
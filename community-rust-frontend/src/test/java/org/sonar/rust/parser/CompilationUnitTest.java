@@ -22,6 +22,7 @@ package org.sonar.rust.parser;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class CompilationUnitTest {
 
   @Test
   void testAnyTokens() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ANY_TOKEN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ANY_TOKEN))
       .matches("u")
       .matches("us")
       .notMatches("fn")
@@ -42,7 +43,7 @@ class CompilationUnitTest {
 
   @Test
   void testCompilationUnit() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.COMPILATION_UNIT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.COMPILATION_UNIT))
       .matches("use std::fmt;")
       .matches("use std::hash;")
       .matches("use std::fmt; \n" +
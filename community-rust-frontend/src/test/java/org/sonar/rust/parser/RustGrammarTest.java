@@ -25,6 +25,7 @@ import java.util.HashSet;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 import org.sonar.sslr.parser.LexerlessGrammar;
 
 
@@ -33,7 +34,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class RustGrammarTest {
   @Test
   void matchingEmpty() {
-    LexerlessGrammar g = RustGrammar.create().build();
+    LexerlessGrammar g = RustGrammarRegistry.rustGrammar();
     RustGrammar[] rustGrammars = RustGrammar.values();
 
     Set<RustGrammar> couldMatch = new HashSet<RustGrammar>(Arrays.asList(
@@ -48,10 +49,10 @@ class RustGrammarTest {
 
     for (RustGrammar r : rustGrammars) {
       if (couldMatch.contains(r)) {
-        assertThat(RustGrammar.create().build().rule(r))
+        assertThat(RustGrammarRegistry.rustGrammar().rule(r))
           .matches("");
       } else {
-        assertThat(RustGrammar.create().build().rule(r))
+        assertThat(RustGrammarRegistry.rustGrammar().rule(r))
           .notMatches("");
       }
 
@@ -61,25 +62,25 @@ class RustGrammarTest {
 
   @Test
   void minimal() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.DELIMITERS)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CHAR_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BYTE_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BYTE_STRING_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.INTEGER_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FLOAT_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BOOLEAN_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRING_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RAW_STRING_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.HEX_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.OCT_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RAW_BYTE_STRING_LITERAL)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.IDENTIFIER)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.KEYWORD)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ANY_TOKEN)).notMatches("");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STATEMENT)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.DELIMITERS)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CHAR_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BYTE_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BYTE_STRING_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.INTEGER_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FLOAT_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BOOLEAN_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRING_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RAW_STRING_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.HEX_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.OCT_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RAW_BYTE_STRING_LITERAL)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.IDENTIFIER)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.KEYWORD)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ANY_TOKEN)).notMatches("");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STATEMENT)).notMatches("");
     //semi colon
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ANY_TOKEN)).notMatches(";");
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STATEMENT)).matches(";");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ANY_TOKEN)).notMatches(";");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STATEMENT)).matches(";");
   }
 
 }
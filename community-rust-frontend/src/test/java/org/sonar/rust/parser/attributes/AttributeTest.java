@@ -22,6 +22,7 @@ package org.sonar.rust.parser.attributes;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class AttributeTest {
 
   @Test
   void testAttribute() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ATTR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ATTR))
       .matches("foo")
       .matches("foo_bar")
       .matches("foo_type")
@@ -39,7 +40,7 @@ class AttributeTest {
 
   @Test
   void testInnerAttribute() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.INNER_ATTRIBUTE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.INNER_ATTRIBUTE))
       .matches("#![crate_type = \"lib\"]")
       .matches("#![feature(const_fn_fn_ptr_basics)]")
       .matches("#![allow(unused_variables)]");
@@ -47,7 +48,7 @@ class AttributeTest {
 
   @Test
   void testOuterAttribute() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.OUTER_ATTRIBUTE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.OUTER_ATTRIBUTE))
       .matches("#[test]")
       .matches("#[cfg(feature = \"serde\")]")
       .matches("#[inline]")
@@ -58,31 +59,31 @@ class AttributeTest {
 
   @Test
   void testMetaWord() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.META_WORD))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.META_WORD))
       .matches("no_std");
   }
 
   @Test
   void testMetaNameValueStr() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.META_NAME_VALUE_STR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.META_NAME_VALUE_STR))
       .matches("doc = \"example\"");
   }
 
   @Test
   void testMetaListPaths() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.META_LIST_PATHS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.META_LIST_PATHS))
       .matches("allow(unused, clippy::inline_always)");
   }
 
   @Test
   void testMetaListIdents() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.META_LIST_IDENTS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.META_LIST_IDENTS))
       .matches("macro_use(foo, bar)");
   }
 
   @Test
   void testMetaListNameValueStr() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.META_LIST_NAME_VALUE_STR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.META_LIST_NAME_VALUE_STR))
       .matches("link(name = \"CoreFoundation\", kind = \"framework\")");
   }
 }
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 import org.sonar.rust.api.RustPunctuator;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 
@@ -32,16 +33,16 @@ class ArithmeticOrLogicalExpressionTest {
 
   @Test
   void testShlExpression() {
-    // assertThat(RustGrammar.create().build().rule(RustGrammar.SHL_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    // assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.SHL_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("1 << 0")
       .matches("0<< 1 <<2");
   }
 
   @Test
   void testAddition() {
-    // assertThat(RustGrammar.create().build().rule(RustGrammar.ADDITION_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    // assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ADDITION_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("0+0")
       .matches("0 + 0")
       .matches("40 + 2")
@@ -56,8 +57,8 @@ class ArithmeticOrLogicalExpressionTest {
 
   @Test
   void testSubstraction() {
-    // assertThat(RustGrammar.create().build().rule(RustGrammar.SUBTRACTION_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    // assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.SUBTRACTION_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("0-0")
       .matches("0 - 0")
       .matches("40 - 2")
@@ -69,8 +70,8 @@ class ArithmeticOrLogicalExpressionTest {
 
   @Test
   void testMultiplication() {
-    // assertThat(RustGrammar.create().build().rule(RustGrammar.MULTIPLICATION_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    // assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MULTIPLICATION_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("0*0")
       .matches("0 * 0")
       .matches("40 * 2")
@@ -82,8 +83,8 @@ class ArithmeticOrLogicalExpressionTest {
 
   @Test
   void testBitAnd() {
-    // assertThat(RustGrammar.create().build().rule(RustGrammar.BITAND_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    // assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BITAND_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("0&0")
       .matches("0 & 0")
       .matches("40 & 2")
@@ -95,8 +96,8 @@ class ArithmeticOrLogicalExpressionTest {
 
   @Test
   void testDivision() {
-    // assertThat(RustGrammar.create().build().rule(RustGrammar.DIVISION_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    // assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.DIVISION_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("0/0")
       .matches("0 / 0")
       .matches("40 / 2")
@@ -108,8 +109,8 @@ class ArithmeticOrLogicalExpressionTest {
 
   @Test
   void testArithmeticOrLogicalExpression() {
-    // assertThat(RustGrammar.create().build().rule(RustGrammar.ARITHMETIC_OR_LOGICAL_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    // assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ARITHMETIC_OR_LOGICAL_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("1<<0")
       .matches("40+2")
       .matches("39+1+2")
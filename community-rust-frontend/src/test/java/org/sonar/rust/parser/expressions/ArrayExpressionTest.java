@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class ArrayExpressionTest {
   @Test
   void testArrayExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ARRAY_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ARRAY_EXPRESSION))
       .matches("[]")
       .matches("[42]")
       .matches("[42,43]")
@@ -48,8 +49,8 @@ class ArrayExpressionTest {
 
   @Test
   void testIndexExpression() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.INDEX_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.INDEX_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("arr[42]")
       .matches("pair[0]")
       .matches("[42,43][0]")
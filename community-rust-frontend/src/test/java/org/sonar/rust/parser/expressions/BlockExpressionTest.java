@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -43,7 +44,7 @@ Statements :
 
   @Test
   void testAsyncBlockExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ASYNC_BLOCK_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ASYNC_BLOCK_EXPRESSION))
       .matches("async {}")
       .matches("async move {}")
     ;
@@ -51,7 +52,7 @@ Statements :
 
   @Test
   void testBlockExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BLOCK_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BLOCK_EXPRESSION))
       .matches("{}")
       .matches("{\n" +
         "    // comment\n" +
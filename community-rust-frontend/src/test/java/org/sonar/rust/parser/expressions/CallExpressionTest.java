@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class CallExpressionTest {
 
   @Test
   void testCallParams() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CALL_PARAMS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CALL_PARAMS))
       .matches("..")
       .matches("1i32")
       .matches("{let y=42;}")
@@ -56,8 +57,8 @@ class CallExpressionTest {
 
   @Test
   void testCallExpression() {
-    // assertThat(RustGrammar.create().build().rule(RustGrammar.CALL_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    // assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CALL_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("foo()")
       .matches("abc()")
       .matches("add(1i32,2i32)")
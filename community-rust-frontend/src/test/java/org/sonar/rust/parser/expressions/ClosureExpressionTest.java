@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class ClosureExpressionTest {
 
   @Test
   void testClosureParameters() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CLOSURE_PARAMETERS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CLOSURE_PARAMETERS))
       .matches("k:i32")
       .matches("j")
       .matches("state: Rc<RefCell<OpState>>, bufs: BufVec")
@@ -39,7 +40,7 @@ class ClosureExpressionTest {
 
   @Test
   void testClosureParameter() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CLOSURE_PARAM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CLOSURE_PARAM))
       .matches("k:i32")
       .matches("j")
       .matches("state: Rc<RefCell< OpState>>")
@@ -51,7 +52,7 @@ class ClosureExpressionTest {
 
   @Test
   void testClosureExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CLOSURE_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CLOSURE_EXPRESSION))
       .matches("|k:i32|->(){println!(\"hello,{}\",k)}")
       .matches("|j: i32| -> () { println!(\"hello, {}\", j); }")
       .matches("move |j| println!(\"{}, {}\", word, j)")
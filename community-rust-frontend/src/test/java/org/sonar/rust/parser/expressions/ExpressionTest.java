@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class ExpressionTest {
 
   @Test
   void testScrutinee() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.SCRUTINEE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.SCRUTINEE))
       .matches("a")
       .matches("a || b")
       .matches("a() || b")
@@ -73,7 +74,7 @@ class ExpressionTest {
 
   @Test
   void testExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("{let y=42;}")
       .matches("{;}")
       .matches("0")
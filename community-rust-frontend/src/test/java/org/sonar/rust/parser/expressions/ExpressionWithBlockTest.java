@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class ExpressionWithBlockTest {
 
   @Test
   void testExpressionWithBlock() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION_WITH_BLOCK))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION_WITH_BLOCK))
       .matches("{}")
       .notMatches("== b")
       .matches("{node_fetch::create_http_client(user_agent.clone(), my_data.clone()).unwrap()}")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class ExpressionWithoutBlockTest {
   @Test
   void testExpressionWithoutBlock() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION_WITHOUT_BLOCK))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION_WITHOUT_BLOCK))
       .notMatches("== b")
       .matches("&7")
       .matches("& Value")
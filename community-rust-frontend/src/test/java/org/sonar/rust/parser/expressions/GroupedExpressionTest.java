@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class GroupedExpressionTest {
 
   @Test
   void testGroupedExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.GROUPED_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.GROUPED_EXPRESSION))
       .matches("(1+1)")
       .matches("( 1 + 1 )")
       .matches("(foo)")
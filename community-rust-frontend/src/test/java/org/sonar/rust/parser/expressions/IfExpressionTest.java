@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class IfExpressionTest {
 
   @Test
   void tesIfExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.IF_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.IF_EXPRESSION))
       .matches("if x == 4 {\n" +
         "    println!(\"x is four\");\n" +
         "} else if x == 3 {\n" +
@@ -155,7 +156,7 @@ class IfExpressionTest {
 
   @Test
   void testIfLetExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.IF_LET_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.IF_LET_EXPRESSION))
       .matches("if let (\"Bacon\",b) = dish {\n" +
         "    println!(\"Bacon is served with {}\", b);\n" +
         "} else {\n" +
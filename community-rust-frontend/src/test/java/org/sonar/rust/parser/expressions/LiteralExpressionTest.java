@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class LiteralExpressionTest {
 
   @Test
   void testLiteralExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.LITERAL_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LITERAL_EXPRESSION))
       .matches("'f'")
       .matches("\"b\"")
       .matches("\"52\"")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class LoopExpressionTest {
 
   @Test
   void testBreakExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BREAK_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BREAK_EXPRESSION))
       .matches("break")
       .matches("break 42")
       .matches("break foo")
@@ -41,7 +42,7 @@ class LoopExpressionTest {
 
   @Test
   void testContinueExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CONTINUE_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CONTINUE_EXPRESSION))
       .matches("continue 'outer")
 
     ;
@@ -49,7 +50,7 @@ class LoopExpressionTest {
 
   @Test
   void testIteratorLoopExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ITERATOR_LOOP_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ITERATOR_LOOP_EXPRESSION))
       .matches("for elem in arr {}")
       .matches("for elem in &mut arr {}")
       .matches("for e in 0..42 {}")
@@ -60,7 +61,7 @@ class LoopExpressionTest {
 
   @Test
   void testLoopExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.LOOP_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LOOP_EXPRESSION))
       .matches("while i < 10 {\n" +
         "    println!(\"hello\");\n" +
         "    i = i + 1;\n" +
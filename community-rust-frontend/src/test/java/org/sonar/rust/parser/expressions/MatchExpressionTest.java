@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class MatchExpressionTest {
 
   @Test
   void tesMatchArmGuard() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MATCH_ARM_GUARD))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MATCH_ARM_GUARD))
       .matches("if { i.set(i.get() + 1); false }")
 
     ;
@@ -38,7 +39,7 @@ class MatchExpressionTest {
 
   @Test
   void tesMatchArm() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MATCH_ARM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MATCH_ARM))
       .matches("1")
       .matches("a|b")
       .matches("a|b|c")
@@ -55,7 +56,7 @@ class MatchExpressionTest {
 
   @Test
   void tesMatchArms() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MATCH_ARMS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MATCH_ARMS))
       .matches("1 => println!(\"one\")")
       .matches("_ => println!(\"anything else\")")
       .matches("1 => println!(\"one\")," +
@@ -108,7 +109,7 @@ class MatchExpressionTest {
 
   @Test
   void tesMatchExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MATCH_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MATCH_EXPRESSION))
       .matches("match x {\n" +
         "    1 => println!(\"one\"),\n" +
         "    2 => println!(\"two\"),\n" +
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class MethodCallExpressionTest {
 
   @Test
   void testMethodCallExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("\"Some string\".to_string()")
       .matches("\"3.14\".parse()")
       .matches("a.b()")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class OperatorExpressionTest {
 
   @Test
   void testBoxExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BOX_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BOX_EXPRESSION))
       .matches("box 42")
       .matches("box foo")
       .matches("box a.method()")
@@ -40,7 +41,7 @@ class OperatorExpressionTest {
 
   @Test
   void testBorrowExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BORROW_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BORROW_EXPRESSION))
       .matches("&7")
       .matches("& 7")
       .matches("& Value")
@@ -57,7 +58,7 @@ class OperatorExpressionTest {
 
   @Test
   void testDereferenceExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.DEREFERENCE_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.DEREFERENCE_EXPRESSION))
       .matches("*x")
       .notMatches("**")
       .notMatches("== b")
@@ -67,8 +68,8 @@ class OperatorExpressionTest {
 
   @Test
   void testErrPropagationExpression() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.ERROR_PROPAGATION_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ERROR_PROPAGATION_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("foo?")
       .matches("None?")
       .matches("Some(42)?")
@@ -85,7 +86,7 @@ class OperatorExpressionTest {
 
   @Test
   void testNegationExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.NEGATION_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.NEGATION_EXPRESSION))
       .matches("!foo")
       .matches("-5")
       .matches("-bar")
@@ -96,8 +97,8 @@ class OperatorExpressionTest {
 
   @Test
   void testComparisonExpression() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.COMPARISON_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.COMPARISON_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("a==b")
       .matches("a == b")
       .notMatches("== b")
@@ -125,8 +126,8 @@ class OperatorExpressionTest {
 
   @Test
   void testLazyBooleanExpression() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.LAZY_BOOLEAN_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LAZY_BOOLEAN_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("false || true")
       .matches("false && panic!()")
       .notMatches("== b")
@@ -137,8 +138,8 @@ class OperatorExpressionTest {
 
   @Test
   void testTypeCastExpression() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_CAST_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_CAST_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("value as f64")
       .matches("{} as i32")
       .matches("test as i32")
@@ -150,8 +151,8 @@ class OperatorExpressionTest {
 
   @Test
   void testAssignmentExpression() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.ASSIGNMENT_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ASSIGNMENT_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("x=42")
       .matches("x = 42")
       .notMatches("x = = 42")
@@ -163,8 +164,8 @@ class OperatorExpressionTest {
 
   @Test
   void testCompoundAssignmentExpression() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.COMPOUND_ASSIGNMENT_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.COMPOUND_ASSIGNMENT_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("x+=42")
       .matches("x -= y")
       .matches("a *= y")
@@ -181,8 +182,8 @@ class OperatorExpressionTest {
 
   @Test
   void testOperatorExpression() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.OPERATOR_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.OPERATOR_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       //borrow expr
       .matches("&7")
       .matches("&mut array")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class PathExpressionTest {
 
   @Test
   void testPathExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PATH_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PATH_EXPRESSION))
       .matches("local_var")
       .matches("globals::STATIC_VAR")
       .matches("Some::<i32>")
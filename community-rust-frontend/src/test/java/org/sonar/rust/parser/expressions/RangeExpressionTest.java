@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,8 +31,8 @@ class RangeExpressionTest {
 
   @Test
   void testRangeExpr() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.RANGE_EXPR))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RANGE_EXPR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("1..2")
       .matches("start..end")
       .matches("0..(4 - (len & 3)) & 3")
@@ -41,8 +42,8 @@ class RangeExpressionTest {
 
   @Test
   void testRangeFrom() {
-    //assertThat(RustGrammar.create().build().rule(RustGrammar.RANGE_FROM_EXPR))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    //assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RANGE_FROM_EXPR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("1..")
 
     ;
@@ -50,7 +51,7 @@ class RangeExpressionTest {
 
   @Test
   void testRangeTo() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RANGE_TO_EXPR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RANGE_TO_EXPR))
       .matches("..42")
 
     ;
@@ -58,7 +59,7 @@ class RangeExpressionTest {
 
   @Test
   void testRangeFull() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RANGE_FULL_EXPR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RANGE_FULL_EXPR))
       .matches("..")
 
     ;
@@ -66,8 +67,8 @@ class RangeExpressionTest {
 
   @Test
   void testRangeInclusive() {
-    //assertThat(RustGrammar.create().build().rule(RustGrammar.RANGE_INCLUSIVE_EXPR))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    //assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RANGE_INCLUSIVE_EXPR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("40..=42")
 
     ;
@@ -75,7 +76,7 @@ class RangeExpressionTest {
 
   @Test
   void testRangeToInclusive() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RANGE_TO_INCLUSIVE_EXPR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RANGE_TO_INCLUSIVE_EXPR))
       .matches("..=7")
 
     ;
@@ -83,8 +84,8 @@ class RangeExpressionTest {
 
   @Test
   void testRangeExpression() {
-//        assertThat(RustGrammar.create().build().rule(RustGrammar.RANGE_EXPRESSION))
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+//        assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RANGE_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("1..2")// std::ops::Range
       .matches("..4")// std::ops::RangeTo
       .matches("..")// std::ops::RangeFull
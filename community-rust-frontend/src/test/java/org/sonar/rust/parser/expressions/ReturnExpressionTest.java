@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class ReturnExpressionTest {
   @Test
   void testReturnExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RETURN_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RETURN_EXPRESSION))
       .matches("return")
       .matches("return result")
       .matches("return calc()")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -31,7 +32,7 @@ class StructExpressionTest {
   //case 3
   @Test
   void testStructExprUnit() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_EXPR_UNIT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_EXPR_UNIT))
       .matches("Vec::<u8>::with_capacity")
       .matches("collect::<Vec<_>>")
       .matches("some_fn::<Cookie>")
@@ -43,7 +44,7 @@ class StructExpressionTest {
   //case 2
   @Test
   void testStructExprTuple() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_EXPR_TUPLE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_EXPR_TUPLE))
       .matches("Vec::<u8>::with_capacity()")
       .matches("collect::<Vec<_>>()")
       .matches("some_fn::<Cookie>()")
@@ -54,7 +55,7 @@ class StructExpressionTest {
 
   @Test
   void testStructExprBase() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_BASE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_BASE))
       .matches("..foo")
       .matches(".. bar")
 
@@ -65,7 +66,7 @@ class StructExpressionTest {
   //case 1
   @Test
   void testStructExprStruct() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_EXPR_STRUCT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_EXPR_STRUCT))
       .matches("game::User{name:\"Joe\",age:35,score:100_000}")
       .matches("game::User {name: \"Joe\", age: 35, score: 100_000}")
       .matches("TuplePoint { 0: 10.0, 1: 20.0}")
@@ -98,7 +99,7 @@ class StructExpressionTest {
 
   @Test
   void testStructExprFields() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_EXPR_FIELDS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_EXPR_FIELDS))
       .matches("name:\"Joe\",age:35,score:100_000")
       .matches("name: \"Joe\", age : 35, score : 100_000")
       .matches("0: 10.0, 1: 20.0")
@@ -108,7 +109,7 @@ class StructExpressionTest {
 
   @Test
   void testStructExprField() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_EXPR_FIELD))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_EXPR_FIELD))
       .matches("name")
       .matches("name:\"Joe\"")
       .matches("age:35")
@@ -123,7 +124,7 @@ class StructExpressionTest {
 
   @Test
   void testStructExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_EXPRESSION))
       .matches("Point{x:10.0,y:20.0}")
       .matches("Point {x: 10.0, y: 20.0}")
       .matches("NothingInMe {}")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.expressions;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class TupleExpressionTest {
 
   @Test
   void testTupleElements() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TUPLE_ELEMENTS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TUPLE_ELEMENTS))
       .matches("42,")
       .matches("42 ,")
       .matches("42,")
@@ -47,7 +48,7 @@ class TupleExpressionTest {
 
   @Test
   void testTupleIndexingExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION))
       .matches("point.1")
       .matches("self.0")
     ;
@@ -55,7 +56,7 @@ class TupleExpressionTest {
 
   @Test
   void testTupleExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TUPLE_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TUPLE_EXPRESSION))
       .matches("(0.0,4.5)")
       .matches("(0.0, 4.5)")
       .matches("(\"a\", 4usize, true)")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class AssociatedTest {
 
   @Test
   void testTypedSelf() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPED_SELF))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPED_SELF))
       .matches("self:i32")
       .matches("self: Self")
       .matches("self : i32")
@@ -44,7 +45,7 @@ class AssociatedTest {
 
   @Test
   void testShortHandSelf() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.SHORTHAND_SELF))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.SHORTHAND_SELF))
       .matches("self")
       .matches("mut self")
       .matches("&self")
@@ -56,7 +57,7 @@ class AssociatedTest {
 
   @Test
   void testSelfParam() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.SELF_PARAM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.SELF_PARAM))
       .matches("self")
       .matches("mut self")
       .matches("&self")
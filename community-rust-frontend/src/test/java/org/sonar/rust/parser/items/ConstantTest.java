@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class ConstantTest {
 
   @Test
   void testConstant() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CONSTANT_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CONSTANT_ITEM))
       .matches("const BIT1: u32 = 1 << 0;")
       .matches("const BIT2: u32 = 1 << 1;")
       .matches("const BITS: [u32; 2] = [BIT1, BIT2];")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class EnumerationTest {
 
   @Test
   void testEnumerationItem() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ENUM_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ENUM_ITEM))
       .matches("Dog")
 
       .matches("#[allow(missing_docs)]\n" +
@@ -63,7 +64,7 @@ class EnumerationTest {
 
   @Test
   void testEnumeration() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ENUMERATION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ENUMERATION))
       .matches("enum Empty {}")
       .matches("enum Animal {\n" +
         "    Dog,\n" +
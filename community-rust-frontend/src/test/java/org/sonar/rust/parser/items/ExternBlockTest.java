@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class ExternBlockTest {
 
   @Test
   void testExternalItem() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXTERNAL_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXTERNAL_ITEM))
       .matches("println!(\"hi\");") // macro invocation semi
       .matches("#[outer] println!(\"hi\");")
       .matches("static fdf : f64;") // external static item
@@ -46,7 +47,7 @@ class ExternBlockTest {
 
   @Test
   void testExternBlock() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXTERN_BLOCK))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXTERN_BLOCK))
       .matches("extern \"stdcall\" {}")
       .matches("extern \"stdcall\" {\n}")
       .matches("extern {}")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,14 +31,14 @@ class ExternCrateTest {
 
   @Test
   void testCrateRef() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CRATE_REF))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CRATE_REF))
       .matches("abc")
       .matches("self");
   }
 
   @Test
   void testAsClause() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.AS_CLAUSE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.AS_CLAUSE))
       .matches("as foo")
       .matches("as _")
       .matches("as _bar");
@@ -45,7 +46,7 @@ class ExternCrateTest {
 
   @Test
   void testExternCrates() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXTERN_CRATE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXTERN_CRATE))
       .matches("extern crate pcre;")
       .matches("extern crate std;") // equivalent to: extern crate std as std
       .matches("extern crate std as ruststd;") // linking to 'std' under another name
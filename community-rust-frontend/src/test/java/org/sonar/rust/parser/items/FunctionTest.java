@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class FunctionTest {
 
   @Test
   void testFunctionQualifiers() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FUNCTION_QUALIFIERS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FUNCTION_QUALIFIERS))
       .matches("const")
       .matches("async")
       .matches("")
@@ -46,7 +47,7 @@ class FunctionTest {
 
   @Test
   void testAbi() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ABI))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ABI))
       .matches("r\"foo\"")
       .matches("\"abc\"")
       .matches("r#\"foo\"#")
@@ -56,7 +57,7 @@ class FunctionTest {
 
   @Test
   void testFunctionReturnType() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FUNCTION_RETURN_TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FUNCTION_RETURN_TYPE))
       .matches("->i32")
       .matches("-> i32");
 
@@ -64,7 +65,7 @@ class FunctionTest {
 
   @Test
   void testFunctionParam() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FUNCTION_PARAM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FUNCTION_PARAM))
       .matches("x : i32")
       .matches("y:i64")
       .matches("f: &mut fmt::Formatter")
@@ -77,7 +78,7 @@ class FunctionTest {
 
   @Test
   void testFunctionParameters() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FUNCTION_PARAMETERS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FUNCTION_PARAMETERS))
       .matches("y:i64")
       .matches("x : i32")
       .matches("x : i32, y:i64")
@@ -91,7 +92,7 @@ class FunctionTest {
 
   @Test
   void testFunction() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FUNCTION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FUNCTION))
       .matches("fn same(x : i32)->i32 {;}")
       .matches("fn same(x : i32) -> i32 {;}")
       .matches("fn answer_to_life_the_universe_and_everything() -> i32 {\n" +
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class ImplementationTest {
 
   @Test
   void testInherentImplItem() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ASSOCIATED_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ASSOCIATED_ITEM))
       .matches("println!(\"hello\");") // macro invocation semi
       .matches("#[outer] println!(\"hello\");") // macro invocation semi
       .matches("const BIT2: u32 = 1 << 1;") // constant
@@ -72,7 +73,7 @@ class ImplementationTest {
 
   @Test
   void testInherentImpl() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.INHERENT_IMPL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.INHERENT_IMPL))
       .matches("impl Color {}")
       .matches("impl <T> Color {}")
       .matches("impl Color where 'a : 'b +'c +'d {}")
@@ -135,7 +136,7 @@ class ImplementationTest {
 
   @Test
   void testTraitImpl() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TRAIT_IMPL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TRAIT_IMPL))
       .matches("impl abc::(isize) -> isize for Circle {}")
       .matches("impl abc::(isize) -> isize for Circle {println!(\"hello\");}")
       .matches("impl abc::(isize) -> isize for Circle {type Point = (u8, u8);}")
@@ -200,7 +201,7 @@ class ImplementationTest {
 
   @Test
   void testTraitImplItem() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ASSOCIATED_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ASSOCIATED_ITEM))
       .matches("println!(\"hello\");") // macro invocation semi
       .matches("#[outer] println!(\"hello\");") // macro invocation semi
       .matches("type Point = (u8, u8);") // type alias
@@ -224,7 +225,7 @@ class ImplementationTest {
 
   @Test
   void testImplementation() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.IMPLEMENTATION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.IMPLEMENTATION))
       // trait impl
       .matches("impl abc::(isize) -> isize for Circle {}")
       .matches("impl abc::(isize) -> isize for Circle {println!(\"hello\");}")
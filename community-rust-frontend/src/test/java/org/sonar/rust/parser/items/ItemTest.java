@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -61,7 +62,7 @@ class ItemTest {
   @Test
   void VisItem() {
 
-    assertThat(RustGrammar.create().build().rule(RustGrammar.VIS_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.VIS_ITEM))
       // MODULE,
 
       .matches("extern crate pcre;") // extern crate
@@ -92,7 +93,7 @@ class ItemTest {
 
   @Test
   void MacroItem() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_ITEM))
       .matches("j!(AS);")
       .matches("println!(\"hello\");")
       .notMatches("")
@@ -104,7 +105,7 @@ class ItemTest {
 
   @Test
   void testItem() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ITEM))
       .matches("mod foo ;") // module item
       .matches("extern crate pcre;") // extern crate item
       .matches("use std::collections::hash_map::{self, HashMap};") // use item
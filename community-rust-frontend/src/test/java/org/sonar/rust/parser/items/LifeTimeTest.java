@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class LifeTimeTest {
 
   @Test
   void testForLifetimes() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FOR_LIFETIMES))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FOR_LIFETIMES))
       .matches("for <'a>")
       .matches("for <'ABC>")
       .matches("for <'a>")
@@ -43,7 +44,7 @@ class LifeTimeTest {
 
   @Test
   void testTypeBoundWhereClauseItem() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_BOUND_CLAUSE_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_BOUND_CLAUSE_ITEM))
       .matches("i32 :")
       .matches("for <'ABC> i32 :")
       .matches("for <'ABC> i32 : 'a")
@@ -52,7 +53,7 @@ class LifeTimeTest {
 
   @Test
   void testLifetimeWhereClauseItem() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.LIFETIME_WHERE_CLAUSE_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LIFETIME_WHERE_CLAUSE_ITEM))
       .matches("'a:'b+'c+'d")
       .matches("'a : 'b+'c+'d")
       .matches("'ABC : 'b+ 'c+ 'd")
@@ -62,7 +63,7 @@ class LifeTimeTest {
 
   @Test
   void testWhereClauseItem() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.WHERE_CLAUSE_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.WHERE_CLAUSE_ITEM))
       // type bound clause item
       .matches("i32 :")
       .matches("for <'ABC> i32 :")
@@ -78,7 +79,7 @@ class LifeTimeTest {
 
   @Test
   void testWhereClause() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.WHERE_CLAUSE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.WHERE_CLAUSE))
       .matches("where i32 :")
       .matches("where i32 :,f64:")
       .matches("where for <'ABC> i32 :, i32:")
@@ -97,7 +98,7 @@ class LifeTimeTest {
 
   @Test
   void testLifetime() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.LIFETIME))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LIFETIME))
       .matches("'a")
       .matches("'ABC")
       .notMatches("'trait") // no keyword allowed
@@ -109,7 +110,7 @@ class LifeTimeTest {
 
   @Test
   void testTraitBound() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TRAIT_BOUND))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TRAIT_BOUND))
       .matches("? abc::def")
       .matches("for <'a> abc::def")
       .matches("? for <'a> abc::def<T>")
@@ -125,7 +126,7 @@ class LifeTimeTest {
 
   @Test
   void testTypeParamBound() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_PARAM_BOUND))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_PARAM_BOUND))
       // lifetime
       .matches("'a")
       .matches("'ABC")
@@ -147,7 +148,7 @@ class LifeTimeTest {
 
   @Test
   void testTypeParamBounds() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_PARAM_BOUNDS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_PARAM_BOUNDS))
       .matches("'a")
       .matches("'a+'a")
       .matches("'a + 'b + 'c")
@@ -169,7 +170,7 @@ class LifeTimeTest {
 
   @Test
   void testTypeParam() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_PARAM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_PARAM))
       .matches("AAA")
       .matches("AAA : 'a")
       .matches("AAA : 'a = u32")
@@ -180,7 +181,7 @@ class LifeTimeTest {
 
   @Test
   void testConstParam() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CONST_PARAM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CONST_PARAM))
       .matches("const AAA : i32")
 
     ;
@@ -188,7 +189,7 @@ class LifeTimeTest {
 
   @Test
   void testLifetimeParam() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.LIFETIME_PARAM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LIFETIME_PARAM))
       .matches("'a")
       .matches("'de")
       .matches("'ABC")
@@ -202,7 +203,7 @@ class LifeTimeTest {
 
   @Test
   void testLifetimeBounds() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.LIFETIME_BOUNDS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LIFETIME_BOUNDS))
       .matches("'a+'b+'c")
       .matches("'a + 'b + 'c")
       .matches("'BCD");
@@ -210,7 +211,7 @@ class LifeTimeTest {
 
   @Test
   void testGenericParam() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.GENERIC_PARAM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.GENERIC_PARAM))
       .matches("T")
       .matches("'de")
       .notMatches("'trait")
@@ -232,7 +233,7 @@ class LifeTimeTest {
 
   @Test
   void testGenericParams() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.GENERIC_PARAMS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.GENERIC_PARAMS))
       .matches("<>")
       .matches("< >")
       .matches("<T>")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class ModuleTest {
 
   @Test
   void testModule() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MODULE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MODULE))
       .matches("mod foo ;")
       .matches("mod bar {}")
       .matches("mod foobar{#![crate_type = \"lib\"]}")
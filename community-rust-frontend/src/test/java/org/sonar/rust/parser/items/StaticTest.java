@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class StaticTest {
   @Test
   void testStatic() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STATIC_ITEM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STATIC_ITEM))
       .matches("static mut LEVELS: u32 = 0;")
       .matches("static mut LEVELS: u32;")
       .matches("static INIT_ARRAY: unsafe extern \"C\" fn(c::c_int, *mut *mut u8, *mut *mut u8) = {\n" +
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class StructTest {
   @Test
   void testStruct() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT))
       .matches("struct Point {x:i32, y: i32}")
       .matches("struct UnaryPermission<T: Eq + Hash> {\n" +
         "    #[serde(skip)]\n" +
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class TraitTest {
 
   @Test
   void testTrait() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TRAIT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TRAIT))
       .matches("trait Seq<T> {\n" +
         "    fn len(&self) -> u32;\n" +
         "    fn elt_at(&self, n: u32) -> T;\n" +
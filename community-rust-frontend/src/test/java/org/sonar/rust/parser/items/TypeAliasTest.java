@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class TypeAliasTest {
 
   @Test
   void testTypeAlias() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_ALIAS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_ALIAS))
       .matches("type Point = (u8, u8);")
       .matches("type Ok = JsValue<'a>;")
       .matches("type Snapshot: Snapshot;")
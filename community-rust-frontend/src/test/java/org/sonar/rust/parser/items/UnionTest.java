@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class UnionTest {
   @Test
   void testUnion() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.UNION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.UNION))
       .matches("union MyUnion {\n" +
         "    f1: u32,\n" +
         "    f2: f32,\n" +
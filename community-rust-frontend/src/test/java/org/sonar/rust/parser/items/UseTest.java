@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class UseTest {
 
   @Test
   void testUseDeclaration() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.USE_DECLARATION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.USE_DECLARATION))
       .matches("use std::option::Option::{Some, None};")
       .matches("use std::collections::hash_map::{self, HashMap};")
       .matches("use std::collections::hash_map::{self, HashMap, Foo, Bar};")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.items;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class VisibilityTest {
   @Test
   void testVisibility() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.VISIBILITY))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.VISIBILITY))
       .matches("pub")
       .matches("pub (crate)")
       .matches("pub (self)")
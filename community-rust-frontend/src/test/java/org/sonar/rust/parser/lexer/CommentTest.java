@@ -25,6 +25,7 @@ import com.sonar.sslr.api.Token;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 import org.sonar.rust.RustParser;
 import org.sonar.rust.RustParserConfiguration;
 import org.sonar.sslr.tests.Assertions;
@@ -50,7 +51,7 @@ class CommentTest {
 
   @Test
   void lineComment() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.LINE_COMMENT))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LINE_COMMENT))
       .matches("//")
       .matches("//comment")
       .matches("// comment")
@@ -64,7 +65,7 @@ class CommentTest {
 
   @Test
   void testInnerLineDoc() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.INNER_LINE_DOC))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.INNER_LINE_DOC))
       .matches("//!")
       .matches("//! - some documentation")
     ;
@@ -72,7 +73,7 @@ class CommentTest {
 
   @Test
   void testOuterLineDoc() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.OUTER_LINE_DOC))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.OUTER_LINE_DOC))
       .matches("///")
       .matches("///- some documentation")
       .notMatches("////")
@@ -81,14 +82,14 @@ class CommentTest {
 
   @Test
   void testInnerBlockDoc() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.INNER_BLOCK_DOC))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.INNER_BLOCK_DOC))
       .matches("/*!  - Inner block doc */")
     ;
   }
 
   @Test
   void testOuterBlockDoc() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.OUTER_BLOCK_DOC))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.OUTER_BLOCK_DOC))
       .matches("/**  - Outer block doc (exactly) 2 asterisks */")
       .notMatches("/*** 3 asteriks */")
       .notMatches("/* 1 asteriks */")
@@ -97,7 +98,7 @@ class CommentTest {
 
   @Test
   void testBlockComment() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.BLOCK_COMMENT))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BLOCK_COMMENT))
       .matches("/**/")
       .matches("/***/")
       .matches("/*  Only a comment */")
@@ -107,7 +108,7 @@ class CommentTest {
 
   @Test
   void testBlockCommentOrDoc() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.BLOCK_COMMENT_OR_DOC))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BLOCK_COMMENT_OR_DOC))
       .matches("/**/")
       .matches("/***/")
       .matches("/*** comment */")
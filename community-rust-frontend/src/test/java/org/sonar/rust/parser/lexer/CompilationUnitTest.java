@@ -22,6 +22,7 @@ package org.sonar.rust.parser.lexer;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class CompilationUnitTest {
   @Test
   void reallife() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.COMPILATION_UNIT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.COMPILATION_UNIT))
       .matches("")
       .matches("println!(\"hello\");")
       .matches("let n=42;")
@@ -22,13 +22,14 @@ package org.sonar.rust.parser.lexer;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 import org.sonar.sslr.tests.Assertions;
 
 class IdentifierTest {
 
   @Test
   void checkRawIdentifier() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.RAW_IDENTIFIER))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RAW_IDENTIFIER))
       .notMatches("r#")
       .matches("r#a")
       .matches("r#_52")
@@ -45,7 +46,7 @@ class IdentifierTest {
 
   @Test
   void testNonKeywords() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.NON_KEYWORD_IDENTIFIER))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.NON_KEYWORD_IDENTIFIER))
       .matches("a")
       .matches("bc")
       .matches("Abc")
@@ -66,12 +67,17 @@ class IdentifierTest {
       .matches("_identifier")
       .matches("Москва")
       .matches("東京")
-      .notMatches("i|");
+      .notMatches("i|")
+      // keywords are only rejected at the end of the input
+      .matchesPrefix("as", " ")
+      .matchesPrefix("trai", "t")
+      .matchesPrefix("supe", "r\n")
+      .matchesPrefix("matc", "h\r\n");
   }
 
   @Test
   void testIdentifierOrKeyword() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.IDENTIFIER_OR_KEYWORD))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.IDENTIFIER_OR_KEYWORD))
       .matches("a")
       .matches("bc")
       .matches("Abc")
@@ -97,7 +103,7 @@ class IdentifierTest {
 
   @Test
   void testIdentifier() {
-    Assertions.assertThat(RustGrammar.create().build().rule(RustGrammar.IDENTIFIER))
+    Assertions.assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.IDENTIFIER))
       .matches("a")
       .matches("bc")
       .matches("Abc")
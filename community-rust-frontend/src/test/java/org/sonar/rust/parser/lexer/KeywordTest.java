@@ -22,6 +22,7 @@ package org.sonar.rust.parser.lexer;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class KeywordTest {
   @Test
   void checkList() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.KEYWORD))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.KEYWORD))
       .matches("as")
       .matches("break")
       .matches("const")
@@ -68,4 +69,15 @@ class KeywordTest {
       .matches("await")
       .matches("dyn");
   }
+
+  @Test
+  void longestMatch() {
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.KEYWORD))
+      .matches("typeof")
+      .matchesPrefix("type", "s")
+      .matchesPrefix("unsized", "_t")
+      .matchesPrefix("in", "to")
+      .notMatches("i")
+      .notMatches("foo");
+  }
 }
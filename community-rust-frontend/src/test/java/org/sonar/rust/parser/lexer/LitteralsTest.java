@@ -22,6 +22,7 @@ package org.sonar.rust.parser.lexer;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class LitteralsTest {
   @Test
   void charLitterals() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CHAR_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CHAR_LITERAL))
       .matches("'f'")
       .matches("'\"'")
       .notMatches("'\\'")
@@ -40,20 +41,20 @@ class LitteralsTest {
 
   @Test
   void testUnicode() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.UNICODE_ESCAPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.UNICODE_ESCAPE))
       .matches("\\u{0027}");
   }
 
   @Test
   void testQuote() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.QUOTE_ESCAPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.QUOTE_ESCAPE))
       .matches("\\'")
       .matches("\\\"");
   }
 
   @Test
   void testAscii() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ASCII_ESCAPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ASCII_ESCAPE))
       .matches("\\x7f")
       .matches("\\r")
       .matches("\\t")
@@ -65,7 +66,7 @@ class LitteralsTest {
 
   @Test
   void testChars() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.CHAR_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.CHAR_LITERAL))
       .matches("'a'")
       .matches("'5'")
       .matches("'t'")
@@ -79,7 +80,7 @@ class LitteralsTest {
 
   @Test
   void testStringContent() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRING_CONTENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRING_CONTENT))
       .matches("abc")
       .matches("abc,def!@")
       .matches("\r\n")
@@ -94,7 +95,7 @@ class LitteralsTest {
 
   @Test
   void testStrings() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRING_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRING_LITERAL))
       .matches("\"a\"")
       .matches("\"5\"")
       .matches("\"some text\"")
@@ -123,7 +124,7 @@ class LitteralsTest {
 
   @Test
   void testRawStringContent() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RAW_STRING_CONTENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RAW_STRING_CONTENT))
       .matches("\"a string\"")
 
     ;
@@ -131,7 +132,7 @@ class LitteralsTest {
 
   @Test
   void testRawStrings() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RAW_STRING_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RAW_STRING_LITERAL))
       .matches("r\"foo\"")
       .matches("r#\"foo\"#")
       .matches("r#\"\"foo\"\"#")
@@ -159,7 +160,7 @@ class LitteralsTest {
 
   @Test
   void testByteEscape() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BYTE_ESCAPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BYTE_ESCAPE))
       .matches("\\xff")
       .matches("\\xBB")
       .matches("\\x00")
@@ -175,7 +176,7 @@ class LitteralsTest {
 
   @Test
   void testByteLiteral() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BYTE_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BYTE_LITERAL))
       .matches("b'a'")
       .matches("b'5'")
       .notMatches("b'',")
@@ -191,7 +192,7 @@ class LitteralsTest {
 
   @Test
   void testAsciiForString() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.ASCII_FOR_STRING))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.ASCII_FOR_STRING))
       .matches("a")
       .matches("y")
       .notMatches("\"")
@@ -201,7 +202,7 @@ class LitteralsTest {
 
   @Test
   void testByteStringLiteral() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BYTE_STRING_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BYTE_STRING_LITERAL))
       .matches("b\"a\"")
       .matches("b\"5\"")
       .matches("b\"a string\"")
@@ -226,7 +227,7 @@ class LitteralsTest {
 
   @Test
   void testRawByteStrings() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RAW_BYTE_STRING_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RAW_BYTE_STRING_LITERAL))
       .matches("br\"foo\"")
       .matches("br#\"\"foo\"\"#")
       .matches("br\"R\"")
@@ -239,14 +240,14 @@ class LitteralsTest {
 
   @Test
   void testDecLiteral() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.DEC_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.DEC_LITERAL))
       .matches("123");
 
   }
 
   @Test
   void testHexa() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.HEX_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.HEX_LITERAL))
       .matches("0xf") // type i32
       .matches("0xff")
 
@@ -255,7 +256,7 @@ class LitteralsTest {
 
   @Test
   void testOct() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.OCT_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.OCT_LITERAL))
       .matches("0o70")
 
     ;
@@ -264,7 +265,7 @@ class LitteralsTest {
 
   @Test
   void testBin() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BIN_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BIN_LITERAL))
       .matches("0b1111_1111")
 
     ;
@@ -273,7 +274,7 @@ class LitteralsTest {
 
   @Test
   void testInteger() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.INTEGER_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.INTEGER_LITERAL))
       .matches("123") // type i32
 
       .matches("123i32") // type i32
@@ -317,14 +318,14 @@ class LitteralsTest {
 
   @Test
   void testFloatSuffix() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FLOAT_SUFFIX))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FLOAT_SUFFIX))
       .matches("f32")
       .matches("f64");
   }
 
   @Test
   void testFloatExponent() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FLOAT_EXPONENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FLOAT_EXPONENT))
       .matches("E-33")
       .matches("e5_1")
       .matches("E+99_");
@@ -332,7 +333,7 @@ class LitteralsTest {
 
   @Test
   void testFloat() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FLOAT_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FLOAT_LITERAL))
       .matches("12E+99f32")
       .matches("12E+99_f64") // type f64
       .matches("1.23")
@@ -346,7 +347,7 @@ class LitteralsTest {
 
   @Test
   void testBoolean() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BOOLEAN_LITERAL))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BOOLEAN_LITERAL))
       .matches("true")
       .matches("false")
       .notMatches("true_lies");
@@ -354,7 +355,7 @@ class LitteralsTest {
 
   @Test
   void testPunctuation() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PUNCTUATION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PUNCTUATION))
       .matches("+")
       .matches("-")
       .matches("*")
@@ -403,7 +404,7 @@ class LitteralsTest {
 
   @Test
   void testDelimiters() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.DELIMITERS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.DELIMITERS))
       .matches("{")
       .matches("}")
       .matches("(")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.lexer;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -29,7 +30,7 @@ import static org.sonar.sslr.tests.Assertions.assertThat;
 class PathTest {
   @Test
   void testSimplePathSegment() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.SIMPLE_PATH_SEGMENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.SIMPLE_PATH_SEGMENT))
       .matches("super")
       .matches("self")
       .matches("crate")
@@ -42,7 +43,7 @@ class PathTest {
 
   @Test
   void testSimplePath() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.SIMPLE_PATH))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.SIMPLE_PATH))
       .matches("std::io::Write")
       .matches("std::io::super")
       .matches("Write")
@@ -51,7 +52,7 @@ class PathTest {
 
   @Test
   void testPathExprSegment() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PATH_EXPR_SEGMENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PATH_EXPR_SEGMENT))
       .matches("f")
       .matches("f::<>")
       .matches("f::<T>")
@@ -61,7 +62,7 @@ class PathTest {
 
   @Test
   void testPathInExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PATH_IN_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PATH_IN_EXPRESSION))
       .matches("Vec::<u8>::with_capacity")
       .matches("collect::<Vec<_>>")
       .matches("S")
@@ -77,14 +78,14 @@ class PathTest {
 
   @Test
   void testGenericArgsBinding() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.GENERIC_ARGS_BINDING))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.GENERIC_ARGS_BINDING))
       .matches("V=f64")
       .matches("U=Circle");
   }
 
   @Test
   void testGenericArg() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.GENERIC_ARG))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.GENERIC_ARG))
       .matches("T")
       .matches("i32")
       .matches("Circle")
@@ -102,7 +103,7 @@ class PathTest {
 
   @Test
   void testGenericArgs() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.GENERIC_ARGS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.GENERIC_ARGS))
       .matches("<>")
       .matches("<T>")
       .matches("<T,>")
@@ -126,7 +127,7 @@ class PathTest {
 
   @Test
   void testQualifiedPathType() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.QUALIFIED_PATH_TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.QUALIFIED_PATH_TYPE))
       .matches("<T1>")
       .matches("<T1 as T>")
       .matches("<X as Default>")
@@ -136,7 +137,7 @@ class PathTest {
 
   @Test
   void testQualifiedPathInExpression() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.QUALIFIED_PATH_IN_EXPRESSION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.QUALIFIED_PATH_IN_EXPRESSION))
       .matches("<S as T1>::f")
       .matches("<X as Default>::default")
 
@@ -145,7 +146,7 @@ class PathTest {
 
   @Test
   void testQualifiedPathInType() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.QUALIFIED_PATH_IN_TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.QUALIFIED_PATH_IN_TYPE))
       .matches("<S as T1>::f")
       .matches("<X as Default>::default()")
       .matches("<[T] as SpanlessEq>::eq(self, other)");
@@ -153,7 +154,7 @@ class PathTest {
 
   @Test
   void testPathIdentSegment() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PATH_IDENT_SEGMENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PATH_IDENT_SEGMENT))
       .matches("super")
       .matches("self")
       .matches("crate")
@@ -167,7 +168,7 @@ class PathTest {
 
   @Test
   void testTypePathFnInputs() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_PATH_FN_INPUTS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_PATH_FN_INPUTS))
       .matches("isize")
       .matches("&mut OpState, u32, &mut [ZeroCopyBuf]")
 
@@ -176,7 +177,7 @@ class PathTest {
 
   @Test
   void testTypePathFn() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_PATH_FN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_PATH_FN))
       .matches("(isize) -> isize")
       .matches("(&mut OpState, u32, &mut [ZeroCopyBuf]) -> Result<R, AnyError>")
 
@@ -185,7 +186,7 @@ class PathTest {
 
   @Test
   void testTypePathSegment() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_PATH_SEGMENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_PATH_SEGMENT))
       .matches("super")
       .matches("abc")
       .matches("r#a")
@@ -199,7 +200,7 @@ class PathTest {
 
   @Test
   void testTypePath() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_PATH))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_PATH))
       .matches("abc::(isize) -> isize")
       .notMatches("abc::abc for")
       .matches("T")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.lexer;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class PunctuationTest {
 
   @Test
   void reallife() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PUNCTUATION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PUNCTUATION))
 
       .matches("=").matches("+").matches("-").matches("*").matches("/").matches("%")
       .matches("^").matches("!").matches("=").matches("=").matches("=").matches("=")
@@ -44,5 +45,21 @@ class PunctuationTest {
       .matches("$").matches("?")
     ;
   }
+
+  @Test
+  void longestMatch() {
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PUNCTUATION))
+      .matchesPrefix("..=", "=")
+      .matchesPrefix("<<=", "<")
+      .matchesPrefix("::", ":")
+      .matchesPrefix("-", "a")
+      .notMatches("")
+      .notMatches("a")
+      .notMatches("é");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PUNCTUATION_EXCEPT_DOLLAR))
+      .matches("::").notMatches("$").matchesPrefix("::", "$");
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PUNCTUATION_EXCEPT_SEMI))
+      .matches("$").notMatches(";").matchesPrefix(">>=", ";");
+  }
 }
 
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.lexer;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class SpacingTest {
 
   @Test
   void reallife() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.SPC))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.SPC))
       .matches("/*foo*/")
       .matches("/*foo \n bar*/")
       .matches(" ")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.lexer;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class TokenTest {
 
   @Test
   void testTupleIndex() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TUPLE_INDEX))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TUPLE_INDEX))
       .matches("0")
       .matches("42")
       .matches("123")
@@ -41,7 +42,7 @@ class TokenTest {
 
   @Test
   void testToken() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TOKEN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TOKEN))
       .matches("a") //identifiers
       .matches("abc")
       .matches("A")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.lexer;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class UnknownCharacterTest {
 
   @Test
   void reallife() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.UNKNOWN_CHAR))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.UNKNOWN_CHAR))
       .matches("?");
   }
 }
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.macro;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class MacroTest {
 
   @Test
   void testTokenExceptDelimiters() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TOKEN_EXCEPT_DELIMITERS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TOKEN_EXCEPT_DELIMITERS))
       .matches("abc")
       .matches("42")
       .matches(";")
@@ -43,17 +44,20 @@ class MacroTest {
 
   @Test
   void testDelimTokenTree() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.DELIM_TOKEN_TREE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.DELIM_TOKEN_TREE))
       .matches("(abc)")
       .matches("(\"hello\")")
       .matches("()")
       .matches("(\"{}, {}\", word, j)")
+      .matches("{ \")\" /* } */ ']' r#\"}\"# [a, (b)] }")
+      .notMatches("(a]")
+      .notMatches("(a")
       .notMatches("");
   }
 
   @Test
   void testTokenTree() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TOKEN_TREE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TOKEN_TREE))
       .matches("abc")
       .matches("\"hello\"")
       .matches("(abc)")
@@ -67,7 +71,7 @@ class MacroTest {
 
   @Test
   void testMacroInvocationSemi() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_INVOCATION_SEMI))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_INVOCATION_SEMI))
       .matches("j!(AS);")
       .matches("println!(\"hello\");")
       .matches("println!(\"hello,world!\");")
@@ -81,7 +85,7 @@ class MacroTest {
 
   @Test
   void testMacroInvocation() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_INVOCATION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_INVOCATION))
       .matches("std::io::Write!()")
       .matches("panic!()")
       .matches("println!(\"{}, {}\", word, j)")
@@ -100,7 +104,7 @@ class MacroTest {
 
   @Test
   void testMacroFragSpec() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_FRAG_SPEC))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_FRAG_SPEC))
       .matches("block")
       .matches("expr")
       .matches("ident")
@@ -121,7 +125,7 @@ class MacroTest {
 
   @Test
   void testRepOp() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_REP_OP))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_REP_OP))
       .matches("+")
       .matches("*")
       .matches("?")
@@ -134,7 +138,7 @@ class MacroTest {
 
   @Test
   void testRepSep() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_REP_SEP))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_REP_SEP))
       .matches("else")
 
     ;
@@ -142,7 +146,7 @@ class MacroTest {
 
   @Test
   void testMacroMatch() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_MATCH))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_MATCH))
       .matches("token")
       .matches("$(token token)*")
       .matches("$i:ident")
@@ -166,7 +170,7 @@ class MacroTest {
 
   @Test
   void testMacroMatcher() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_MATCHER))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_MATCHER))
       .matches("(token)")
       .matches("($(token token)*)")
       .matches("[$(token)*]")
@@ -195,7 +199,7 @@ class MacroTest {
 
   @Test
   void testMacroRule() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_RULE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_RULE))
       .matches("($l:tt) => { bar!($l); }")
       .matches("($($name:ident($ty:ty, $to:ident, $lt:lifetime);)*) => {\n" +
         "        $(fn $name(self, v: $ty) -> JsResult<$lt> {\n" +
@@ -231,7 +235,7 @@ class MacroTest {
 
   @Test
   void testMacroRules() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_RULES))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_RULES))
       .matches("($l:tt) => { bar!($l); }")
       .matches("($($name:ident($ty:ty, $to:ident, $lt:lifetime);)*) => {\n" +
         "        $(fn $name(self, v: $ty) -> JsResult<$lt> {\n" +
@@ -253,7 +257,7 @@ class MacroTest {
 
   @Test
   void testMacroRulesDef() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_RULES_DEF))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_RULES_DEF))
       .matches("{($l:tt) => { bar!($l); }}")
       .matches("{($ l:tt) => { bar!($ l); }}")
       .matches("{($($name:ident($ty:ty, $to:ident, $lt:lifetime);)*) => {\n" +
@@ -290,7 +294,7 @@ class MacroTest {
 
   @Test
   void testMacroRulesDefinition() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MACRO_RULES_DEFINITION))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MACRO_RULES_DEFINITION))
       .matches("macro_rules! foo {\n" +
         "    ($l:tt) => { bar!($l); }\n" +
         "}")
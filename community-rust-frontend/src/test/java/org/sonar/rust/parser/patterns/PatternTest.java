@@ -22,6 +22,7 @@ package org.sonar.rust.parser.patterns;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class PatternTest {
 
   @Test
   void testLitteralPattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.LITERAL_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LITERAL_PATTERN))
       .matches("42")
       .matches("'z'")
       .matches("b'c'")
@@ -41,7 +42,7 @@ class PatternTest {
 
   @Test
   void testIdentifierPattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.IDENTIFIER_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.IDENTIFIER_PATTERN))
       .matches("e @ 1..=5")
       .matches("f @ 'a'..='z'")
       .matches("None")
@@ -54,7 +55,7 @@ class PatternTest {
 
   @Test
   void testWildcardPattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.WILDCARD_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.WILDCARD_PATTERN))
       .matches("_")
 
     ;
@@ -63,7 +64,7 @@ class PatternTest {
 
   @Test
   void testRestPattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.REST_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.REST_PATTERN))
       .matches("..")
 
     ;
@@ -72,7 +73,7 @@ class PatternTest {
 
   @Test
   void testRangePatternBound() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RANGE_PATTERN_BOUND))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RANGE_PATTERN_BOUND))
       .matches("1")
       .matches("'a'")
       .matches("'z'")
@@ -83,28 +84,28 @@ class PatternTest {
 
   @Test
   void testInclusiveRangePattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.INCLUSIVE_RANGE_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.INCLUSIVE_RANGE_PATTERN))
       .matches("1..=9")
     ;
   }
 
   @Test
   void testHalfOpenRangePattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.HALF_OPEN_RANGE_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.HALF_OPEN_RANGE_PATTERN))
       .matches("1..")
     ;
   }
 
   @Test
   void testObsoleteRangePattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.OBSOLETE_RANGE_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.OBSOLETE_RANGE_PATTERN))
       .matches("1...9")
     ;
   }
 
   @Test
   void testRangePattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.RANGE_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.RANGE_PATTERN))
       .matches("1..=9")
       .matches("1..")
       .matches("1...9")
@@ -113,7 +114,7 @@ class PatternTest {
 
   @Test
   void testReferencePattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.REFERENCE_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.REFERENCE_PATTERN))
       .matches("&42")
       .matches("&&42")
       .matches("&mut 42")
@@ -127,7 +128,7 @@ class PatternTest {
 
   @Test
   void testStructPatternElements() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_PATTERN_ELEMENTS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_PATTERN_ELEMENTS))
       .matches("..")
       .matches("x: 10")
       .matches("x: 10, y : 20")
@@ -141,7 +142,7 @@ class PatternTest {
 
   @Test
   void testStructPatternField() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_PATTERN_FIELD))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_PATTERN_FIELD))
       .matches("1:42")
       .matches("#[outer]1:42")
       .matches("foo:42")
@@ -155,7 +156,7 @@ class PatternTest {
 
   @Test
   void testStructPattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STRUCT_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STRUCT_PATTERN))
       .matches("Point{}")
       .matches("Point{..}")
       .matches("TokenOrComment::Comment{..}")
@@ -168,7 +169,7 @@ class PatternTest {
 
   @Test
   void testTupleStructPattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TUPLE_STRUCT_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TUPLE_STRUCT_PATTERN))
       .matches("local_var()")
       .matches("S(z @ 1, _)")
       .matches("Error::Engine(EngineError(EngineErrorInner::Request(e)))")
@@ -180,7 +181,7 @@ class PatternTest {
 
   @Test
   void testTuplePatternItems() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TUPLE_PATTERN_ITEMS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TUPLE_PATTERN_ITEMS))
       .matches("42,")
       .matches("..")
       .matches("\"bacon\",")
@@ -198,7 +199,7 @@ class PatternTest {
 
   @Test
   void testTuplePattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TUPLE_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TUPLE_PATTERN))
       .matches("()")
       .matches("(42,)")
       .matches("(..)")
@@ -212,7 +213,7 @@ class PatternTest {
 
   @Test
   void testGroupedPattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.GROUPED_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.GROUPED_PATTERN))
       .matches("(42)")
       .matches("( foo )")
 
@@ -222,7 +223,7 @@ class PatternTest {
 
   @Test
   void testSlicePattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.SLICE_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.SLICE_PATTERN))
       .matches("[]")
       .matches("[42]")
       .matches("[42,foo, bar]")
@@ -236,7 +237,7 @@ class PatternTest {
 
   @Test
   void testPathPattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PATH_PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PATH_PATTERN))
       .matches("Vec::<u8>::with_capacity")
       .matches("<S as T1>::f")
       .matches("Token::BackQuote")
@@ -247,7 +248,7 @@ class PatternTest {
 
   @Test
   void testPatternWithoutRange() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PATTERN_WITHOUT_RANGE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PATTERN_WITHOUT_RANGE))
       .matches("i")
       .matches("&i")
     ;
@@ -256,7 +257,7 @@ class PatternTest {
 
   @Test
   void testPatternNoTopAlt() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PATTERN_NO_TOP_ALT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PATTERN_NO_TOP_ALT))
       .matches("Token::BackQuote") //path pattern
       //range patterns
       .matches("1..=9")
@@ -322,7 +323,7 @@ class PatternTest {
 
   @Test
   void testPattern() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PATTERN))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PATTERN))
       .matches("42")
       .matches("|42")
       .notMatches("|42|")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.statements;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class StatementTest {
 
   @Test
   void testLetStatement() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.LET_STATEMENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.LET_STATEMENT))
       .matches("let y=42;")
       .matches("let x;")
       .matches("let z = 40 + 2;")
@@ -72,7 +73,7 @@ class StatementTest {
 
   @Test
   void testExpressionStatement() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.EXPRESSION_STATEMENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.EXPRESSION_STATEMENT))
       .matches("return None;")
       .matches("a.b();")
 
@@ -81,7 +82,7 @@ class StatementTest {
 
   @Test
   void testStatement() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STATEMENT))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STATEMENT))
       .matches(";")
       .matches("extern crate pcre;")
       .matches("let y=42;")
@@ -117,7 +118,7 @@ class StatementTest {
 
   @Test
   void testStatements() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.STATEMENTS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.STATEMENTS))
 
       .matches(";")
       .matches("let y=42;")
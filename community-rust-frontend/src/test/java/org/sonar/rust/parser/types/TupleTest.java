@@ -22,6 +22,7 @@ package org.sonar.rust.parser.types;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class TupleTest {
 
   @Test
   void testTuple() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TUPLE_TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TUPLE_TYPE))
       .matches("()")
       .matches("(i32,i32)")
       .matches("(i32, u8)")
@@ -22,6 +22,7 @@ package org.sonar.rust.parser.types;
 
 import org.junit.jupiter.api.Test;
 import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustGrammarRegistry;
 
 
 import static org.sonar.sslr.tests.Assertions.assertThat;
@@ -30,7 +31,7 @@ class TypeTest {
 
   @Test
   void testParenthesisType() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.PARENTHESIZED_TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.PARENTHESIZED_TYPE))
       .matches("(i32)")
       .matches("( i32 )")
 
@@ -39,7 +40,7 @@ class TypeTest {
 
   @Test
   void testImplTraitTypeOneBound() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.IMPL_TRAIT_TYPE_ONE_BOUND))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.IMPL_TRAIT_TYPE_ONE_BOUND))
       .matches("impl ? abc::def")
       .matches("impl for <'a> abc::def")
       .matches("impl ? for <'a> abc::def<T>")
@@ -54,7 +55,7 @@ class TypeTest {
 
   @Test
   void testTraitObjectTypeOneBound() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TRAIT_OBJECT_TYPE_ONE_BOUND))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TRAIT_OBJECT_TYPE_ONE_BOUND))
       .matches("? abc::def")
       .matches("for <'a> abc::def")
       .matches("? for <'a> abc::def<T>")
@@ -78,7 +79,7 @@ class TypeTest {
 
   @Test
   void testMaybeNamedParam() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MAYBE_NAMED_PARAM))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MAYBE_NAMED_PARAM))
       .matches("this: *mut iasset")
       .matches("::c_int")
       .matches("*const ::c_char")
@@ -88,7 +89,7 @@ class TypeTest {
 
   @Test
   void testMaybeNamedFunctionParam() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.MAYBE_NAMED_FUNCTION_PARAMETERS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.MAYBE_NAMED_FUNCTION_PARAMETERS))
       .matches("this: *mut iasset")
       .matches("::c_int")
       .matches("*const ::c_char")
@@ -99,7 +100,7 @@ class TypeTest {
 
   @Test
   void testFunctionParameterMaybeNamedVariadic() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.FUNCTION_PARAMETERS_MAYBE_NAMED_VARIADIC))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.FUNCTION_PARAMETERS_MAYBE_NAMED_VARIADIC))
       .matches("this: *mut iasset")
       .matches("::c_int, *const ::c_char")
       .matches("::c_int, *const ::c_char, ...")
@@ -109,7 +110,7 @@ class TypeTest {
 
   @Test
   void testBareFunctionType() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.BARE_FUNCTION_TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.BARE_FUNCTION_TYPE))
       .matches("extern \"C\" fn(this: *mut iasset) -> i32")
       .matches("unsafe extern \"C\" fn(::c_int, *const ::c_char)")
       .matches("unsafe extern \"C\" fn(::c_int, *const ::c_char, ...)")
@@ -119,7 +120,7 @@ class TypeTest {
 
   @Test
   void testTypeNoBounds() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE_NO_BOUNDS))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE_NO_BOUNDS))
       .matches("i32")
       .matches("(i32, u8)")
       .matches("Circle")
@@ -133,7 +134,7 @@ class TypeTest {
 
   @Test
   void testimplTraitType() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.IMPL_TRAIT_TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.IMPL_TRAIT_TYPE))
       .matches("impl Foo")
       .matches("impl Foo")
       .matches("impl FnOnce()")
@@ -144,7 +145,7 @@ class TypeTest {
 
   @Test
   void testTraitObjectType() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TRAIT_OBJECT_TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TRAIT_OBJECT_TYPE))
       .matches("'a")
       .matches("'a+'a")
       .matches("'a + 'b + 'c")
@@ -185,7 +186,7 @@ class TypeTest {
 
   @Test
   void testReferenceType() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.REFERENCE_TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.REFERENCE_TYPE))
       .matches("&i32")
       .matches("&(i32, u8)")
       .matches("&Circle")
@@ -202,7 +203,7 @@ class TypeTest {
 
   @Test
   void testType() {
-    assertThat(RustGrammar.create().build().rule(RustGrammar.TYPE))
+    assertThat(RustGrammarRegistry.rustGrammar().rule(RustGrammar.TYPE))
       .matches("extern \"C\" fn(this: *mut iasset) -> i32")
       .matches("i32")
       .matches("(i32, u8)")
@@ -31,6 +31,7 @@ import org.elegoff.plugins.communityrust.settings.RustLanguageSettings;
 import org.elegoff.plugins.communityrust.xunit.XUnitSensor;
 import org.sonar.api.Plugin;
 import org.sonar.api.PropertyType;
+import org.sonar.api.SonarProduct;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.resources.Qualifiers;
 
@@ -45,8 +46,20 @@ public class CommunityRustPlugin implements Plugin {
   public static final String DEFAULT_COBERTURA_REPORT_PATHS = "cobertura.xml";
   public static final String UNIT_TEST_ATTRIBUTES = "community.rust.unittests.attributes";
   public static final String IGNORE_DUPLICATION_FOR_TESTS = "community.rust.cpd.ignoretests";
+  public static final String CPD_NORMALIZATION = "community.rust.cpd.normalization";
+  public static final String CPD_NORMALIZATION_NONE = "none";
+  public static final String CPD_NORMALIZATION_LITERALS = "literals";
+  public static final String CPD_NORMALIZATION_IDENTIFIERS = "identifiers";
+  public static final String DEFAULT_CPD_NORMALIZATION = CPD_NORMALIZATION_NONE;
   public static final String TEST_AND_COVERAGE = "Test and Coverage";
   public static final String DEFAULT_UNIT_TEST_ATTRIBUTES = "test,tokio::test";
+  public static final String ANALYSIS_THREADS = "community.rust.analysis.threads";
+  public static final int DEFAULT_ANALYSIS_THREADS = 1;
+  public static final String PARSE_TIMEOUT = "community.rust.parse.timeout";
+  public static final long DEFAULT_PARSE_TIMEOUT = 0;
+  public static final String PARSE_MEMOIZATION = "community.rust.parse.memoization";
+  public static final String PARSE_RECOVERY = "community.rust.parse.recovery";
+  public static final String PARSE_PARALLEL = "community.rust.parse.parallel";
   private static final String EXTERNAL_ANALYZERS_CATEGORY = "External Analyzers";
   private static final String RUST_SUBCATEGORY = "Rust";
 
@@ -58,6 +71,54 @@ public class CommunityRustPlugin implements Plugin {
     // Add plugin settings (file extensions, etc.)
     context.addExtensions(RustLanguageSettings.getProperties());
     context.addExtensions(RustRulesDefinition.class, RustSensor.class);
+    if (context.getRuntime().getProduct() == SonarProduct.SONARLINT) {
+      context.addExtension(RustParserCache.class);
+    }
+    context.addExtensions(
+      PropertyDefinition.builder(ANALYSIS_THREADS)
+        .defaultValue(Integer.toString(DEFAULT_ANALYSIS_THREADS))
+        .name("Analysis threads")
+        .description("Number of threads used to analyze Rust files. 0 means one thread per available processor.")
+        .onQualifiers(Qualifiers.PROJECT)
+        .category("Rust")
+        .type(PropertyType.INTEGER)
+        .build(),
+      PropertyDefinition.builder(PARSE_TIMEOUT)
+        .defaultValue(Long.toString(DEFAULT_PARSE_TIMEOUT))
+        .name("Parse timeout")
+        .description("Maximum time in seconds spent parsing a single Rust file. Files exceeding it only get a token-level analysis. "
+          + "0 means no limit.")
+        .onQualifiers(Qualifiers.PROJECT)
+        .category("Rust")
+        .type(PropertyType.INTEGER)
+        .build(),
+      PropertyDefinition.builder(PARSE_MEMOIZATION)
+        .defaultValue(Boolean.toString(false))
+        .name("Parse memoization")
+        .description("If true, the parser memoizes the results of the expression, type and pattern rules, which speeds up "
+          + "files with long method chains or deeply nested generics at the cost of memory.")
+        .onQualifiers(Qualifiers.PROJECT)
+        .category("Rust")
+        .type(PropertyType.BOOLEAN)
+        .build(),
+      PropertyDefinition.builder(PARSE_RECOVERY)
+        .defaultValue(Boolean.toString(true))
+        .name("Parse error recovery")
+        .description("If true, the items of a Rust file which cannot be parsed are skipped and the rest of the file is "
+          + "analyzed. If false, files with a parse error only get the rules which do not need the syntax tree.")
+        .onQualifiers(Qualifiers.PROJECT)
+        .category("Rust")
+        .type(PropertyType.BOOLEAN)
+        .build(),
+      PropertyDefinition.builder(PARSE_PARALLEL)
+        .defaultValue(Boolean.toString(false))
+        .name("Parallel parsing")
+        .description("If true, the top-level items of large Rust files are parsed concurrently, which speeds up the "
+          + "analysis of projects with a few very large files.")
+        .onQualifiers(Qualifiers.PROJECT)
+        .category("Rust")
+        .type(PropertyType.BOOLEAN)
+        .build());
 
     // clippy rules
     context.addExtension(ClippySensor.class);
@@ -111,6 +172,16 @@ public class CommunityRustPlugin implements Plugin {
         .subCategory(TEST_AND_COVERAGE)
         .category("Rust")
         .type(PropertyType.BOOLEAN)
+        .build(),
+      PropertyDefinition.builder(CPD_NORMALIZATION)
+        .defaultValue(DEFAULT_CPD_NORMALIZATION)
+        .name("Duplications normalization")
+        .description("If '" + CPD_NORMALIZATION_LITERALS + "', CPD replaces literals by their type and ignores use declarations "
+          + "and attributes. If '" + CPD_NORMALIZATION_IDENTIFIERS + "', it also replaces identifiers by a single value.")
+        .onQualifiers(Qualifiers.PROJECT)
+        .category("Rust")
+        .type(PropertyType.SINGLE_SELECT_LIST)
+        .options(CPD_NORMALIZATION_NONE, CPD_NORMALIZATION_LITERALS, CPD_NORMALIZATION_IDENTIFIERS)
         .build());
 
     context.addExtensions(
@@ -21,6 +21,9 @@
 package org.elegoff.plugins.communityrust;
 
 import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.sonar.api.config.Configuration;
 import org.sonar.rust.RustParserConfiguration;
 
 public class CommunityRustPluginConfiguration {
@@ -30,4 +33,16 @@ public class CommunityRustPluginConfiguration {
       .setCharset(charset)
       .build();
   }
+
+  RustParserConfiguration getParserConfiguration(Charset charset, Configuration config) {
+    long parseTimeout = config.getLong(CommunityRustPlugin.PARSE_TIMEOUT).orElse(CommunityRustPlugin.DEFAULT_PARSE_TIMEOUT);
+    boolean memoization = config.getBoolean(CommunityRustPlugin.PARSE_MEMOIZATION).orElse(false);
+    boolean parallel = config.getBoolean(CommunityRustPlugin.PARSE_PARALLEL).orElse(false);
+    return RustParserConfiguration.builder()
+      .setCharset(charset)
+      .setParseTimeoutMillis(TimeUnit.SECONDS.toMillis(Math.max(0, parseTimeout)))
+      .setMemoizedRules(memoization ? RustParserConfiguration.BACKTRACKING_RULES : Collections.emptyList())
+      .setParallelChunkLength(parallel ? RustParserConfiguration.DEFAULT_PARALLEL_CHUNK_LENGTH : 0)
+      .build();
+  }
 }
@@ -0,0 +1,142 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.elegoff.plugins.communityrust;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.CheckForNull;
+import org.elegoff.rust.checks.CheckList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.sensor.SensorContext;
+
+/**
+ * Stores the {@link RustFileAnalysis} of each file in the scanner cache, so that files whose content did not change
+ * since the previous analysis are not analyzed again.
+ * Entries are keyed by the hash of the file content and by a fingerprint of everything else the results depend on:
+ * cache format, plugin version, active rules and their parameters, and the settings used by the analysis.
+ */
+class RustAnalysisCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RustAnalysisCache.class);
+  private static final String KEY_PREFIX = "community-rust:analysis:";
+  private static final int FORMAT_VERSION = 2;
+
+  private final SensorContext context;
+  private final boolean enabled;
+  private final String fingerprint;
+  private final Set<String> writtenKeys = new HashSet<>();
+
+  RustAnalysisCache(SensorContext context) {
+    this.context = context;
+    this.enabled = context.isCacheEnabled();
+    this.fingerprint = enabled ? fingerprint(context) : "";
+  }
+
+  @CheckForNull
+  RustFileAnalysis read(InputFile inputFile) {
+    if (!enabled) {
+      return null;
+    }
+    String key = key(inputFile);
+    if (!context.previousCache().contains(key)) {
+      return null;
+    }
+    RustFileAnalysis analysis;
+    try (InputStream in = context.previousCache().read(key)) {
+      analysis = RustFileAnalysis.readFrom(inputFile, new DataInputStream(new BufferedInputStream(in)));
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Unable to read cached analysis of {}", inputFile, e);
+      return null;
+    }
+    if (writtenKeys.add(key)) {
+      context.nextCache().copyFromPrevious(key);
+    }
+    LOG.debug("Rust analysis of {} read from cache", inputFile);
+    return analysis;
+  }
+
+  void write(RustFileAnalysis analysis) {
+    if (!enabled || !analysis.isCacheable()) {
+      return;
+    }
+    String key = key(analysis.inputFile());
+    // files with the same content share the same entry
+    if (!writtenKeys.add(key)) {
+      return;
+    }
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(bytes)) {
+      analysis.writeTo(out);
+    } catch (IOException e) {
+      LOG.debug("Unable to cache analysis of {}", analysis.inputFile(), e);
+      return;
+    }
+    context.nextCache().write(key, bytes.toByteArray());
+  }
+
+  private String key(InputFile inputFile) {
+    return KEY_PREFIX + fingerprint + ":" + inputFile.md5Hash();
+  }
+
+  private static String fingerprint(SensorContext context) {
+    var builder = new StringBuilder()
+      .append(FORMAT_VERSION).append('\n')
+      .append(RustAnalysisCache.class.getPackage().getImplementationVersion()).append('\n');
+    context.activeRules().findByRepository(CheckList.REPOSITORY_KEY).stream()
+      .sorted(Comparator.comparing(ActiveRule::ruleKey))
+      .forEach(rule -> builder.append(rule.ruleKey()).append(new TreeMap<>(rule.params())).append('\n'));
+    var config = context.config();
+    builder.append(Arrays.toString(config.getStringArray(CommunityRustPlugin.UNIT_TEST_ATTRIBUTES))).append('\n')
+      .append(config.getBoolean(CommunityRustPlugin.IGNORE_DUPLICATION_FOR_TESTS).orElse(false)).append('\n')
+      .append(config.get(CommunityRustPlugin.CPD_NORMALIZATION).orElse(CommunityRustPlugin.DEFAULT_CPD_NORMALIZATION)).append('\n')
+      .append(config.getBoolean(CommunityRustPlugin.PARSE_RECOVERY).orElse(true));
+    return sha1(builder.toString());
+  }
+
+  private static String sha1(String value) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+      var hex = new StringBuilder();
+      for (byte b : digest) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
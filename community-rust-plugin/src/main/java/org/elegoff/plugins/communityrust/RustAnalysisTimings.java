@@ -0,0 +1,270 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.elegoff.plugins.communityrust;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.SonarProduct;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+
+/**
+ * Time spent in each phase of the analysis of each file. A summary with the time per phase and the slowest files is
+ * logged at the end of the analysis, with the time per check in debug logs, and the timings of all files are written as
+ * JSON in the scanner work directory, except in SonarLint where files are analyzed again on each edit.
+ */
+class RustAnalysisTimings {
+
+  static final String READ = "read";
+  static final String PARSE = "parse";
+  static final String LEX = "lex";
+  static final String METRICS = "metrics";
+  // metrics and checks, when the checks are not timed separately
+  static final String WALK = "metrics and checks";
+  static final String TOKENS = "tokens";
+  static final String CHECK_PREFIX = "check:";
+  static final String SAVE = "save";
+  static final String REPORT_FILE_NAME = "community-rust-timings.json";
+  static final int SLOWEST_FILES = 10;
+
+  private static final Logger LOG = LoggerFactory.getLogger(RustAnalysisTimings.class);
+
+  private final long start = System.nanoTime();
+  private final List<FileTimings> files = new ArrayList<>();
+
+  /**
+   * @return whether the time spent in each check is measured, which is only done with debug logs as it slows down the
+   * walk of the syntax trees
+   */
+  static boolean isDetailed() {
+    return LOG.isDebugEnabled();
+  }
+
+  void add(FileTimings fileTimings) {
+    files.add(fileTimings);
+  }
+
+  void report(SensorContext context) {
+    long elapsed = System.nanoTime() - start;
+    long lines = files.stream().mapToLong(f -> f.lines).sum();
+    long cached = files.stream().filter(f -> f.cached).count();
+    double seconds = Math.max(elapsed, 1) / 1e9;
+    Map<String, Long> phases = phaseTotals();
+    // a single message, so that the lines of the summary are not interleaved with the logs of other sensors
+    var summary = new StringBuilder(String.format(Locale.ENGLISH, "Rust analysis of %d files (%d from cache), %d lines in %d ms: %s files/s, %s lines/s",
+      files.size(), cached, lines, millis(elapsed), format(files.size() / seconds), format(lines / seconds)));
+    appendPhases(summary, phases);
+    appendSlowestFiles(summary);
+    LOG.info(summary.toString());
+    if (LOG.isDebugEnabled()) {
+      logChecks(phases);
+    }
+
+    if (context.runtime().getProduct() != SonarProduct.SONARLINT) {
+      writeReport(context.fileSystem().workDir().toPath().resolve(REPORT_FILE_NAME), elapsed, lines, phases);
+    }
+  }
+
+  private static void appendPhases(StringBuilder summary, Map<String, Long> phases) {
+    String times = phases.entrySet().stream()
+      .filter(e -> !e.getKey().startsWith(CHECK_PREFIX))
+      .map(e -> e.getKey() + " " + millis(e.getValue()) + " ms")
+      .collect(Collectors.joining(", "));
+    if (!times.isEmpty()) {
+      summary.append("\nTime per phase: ").append(times);
+    }
+  }
+
+  private void appendSlowestFiles(StringBuilder summary) {
+    List<FileTimings> slowest = files.stream()
+      .sorted(Comparator.comparingLong(FileTimings::total).reversed())
+      .limit(SLOWEST_FILES)
+      .collect(Collectors.toList());
+    if (!slowest.isEmpty()) {
+      summary.append("\nSlowest files:");
+      slowest.forEach(f -> summary.append("\n  ").append(millis(f.total())).append(" ms ").append(f.file).append(" (").append(f.lines).append(" lines)"));
+    }
+  }
+
+  /**
+   * Time spent in each check, only measured with debug logs.
+   */
+  private static void logChecks(Map<String, Long> phases) {
+    String times = phases.entrySet().stream()
+      .filter(e -> e.getKey().startsWith(CHECK_PREFIX))
+      .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+      .map(e -> e.getKey().substring(CHECK_PREFIX.length()) + " " + millis(e.getValue()) + " ms")
+      .collect(Collectors.joining(", "));
+    if (!times.isEmpty()) {
+      LOG.debug("Rust analysis time per check: {}", times);
+    }
+  }
+
+  private Map<String, Long> phaseTotals() {
+    Map<String, Long> totals = new LinkedHashMap<>();
+    for (FileTimings file : files) {
+      file.phases.forEach((phase, nanos) -> totals.merge(phase, nanos, Long::sum));
+    }
+    return totals;
+  }
+
+  private void writeReport(Path path, long elapsed, long lines, Map<String, Long> phases) {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("files", files.size());
+    report.put("lines", lines);
+    report.put("durationMicros", micros(elapsed));
+    report.put("phasesMicros", toMicros(phases));
+    List<Object> fileReports = new ArrayList<>();
+    for (FileTimings file : files) {
+      Map<String, Object> fileReport = new LinkedHashMap<>();
+      fileReport.put("file", file.file);
+      fileReport.put("lines", file.lines);
+      fileReport.put("cached", file.cached);
+      fileReport.put("totalMicros", micros(file.total()));
+      fileReport.put("phasesMicros", toMicros(file.phases));
+      fileReports.add(fileReport);
+    }
+    report.put("timings", fileReports);
+    try {
+      Files.createDirectories(path.getParent());
+      var json = new StringBuilder();
+      appendJson(json, report);
+      Files.write(path, json.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      LOG.warn("Unable to write Rust analysis timings to {}", path, e);
+    }
+  }
+
+  /**
+   * Appends the given maps, lists, strings, numbers and booleans as JSON.
+   */
+  private static void appendJson(StringBuilder json, Object value) {
+    if (value instanceof Map) {
+      json.append('{');
+      String separator = "";
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        json.append(separator);
+        appendJsonString(json, entry.getKey().toString());
+        json.append(':');
+        appendJson(json, entry.getValue());
+        separator = ",";
+      }
+      json.append('}');
+    } else if (value instanceof List) {
+      json.append('[');
+      String separator = "";
+      for (Object element : (List<?>) value) {
+        json.append(separator);
+        appendJson(json, element);
+        separator = ",";
+      }
+      json.append(']');
+    } else if (value instanceof Number || value instanceof Boolean) {
+      json.append(value);
+    } else {
+      appendJsonString(json, String.valueOf(value));
+    }
+  }
+
+  private static void appendJsonString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c == '\n') {
+        json.append("\\n");
+      } else if (c == '\r') {
+        json.append("\\r");
+      } else if (c == '\t') {
+        json.append("\\t");
+      } else if (c < 0x20) {
+        json.append(String.format(Locale.ENGLISH, "\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+    json.append('"');
+  }
+
+  private static Map<String, Object> toMicros(Map<String, Long> phases) {
+    Map<String, Object> result = new LinkedHashMap<>();
+    phases.forEach((phase, nanos) -> result.put(phase, micros(nanos)));
+    return result;
+  }
+
+  private static long micros(long nanos) {
+    return nanos / 1_000L;
+  }
+
+  private static long millis(long nanos) {
+    return nanos / 1_000_000L;
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ENGLISH, "%.1f", value);
+  }
+
+  static class FileTimings {
+    private final String file;
+    private final int lines;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private boolean cached;
+
+    FileTimings(InputFile inputFile) {
+      this.file = inputFile.toString();
+      this.lines = inputFile.lines();
+    }
+
+    void setCached() {
+      this.cached = true;
+    }
+
+    /**
+     * Adds the time elapsed since {@code since} to the given phase, and returns the current time.
+     */
+    long record(String phase, long since) {
+      long now = System.nanoTime();
+      add(phase, now - since);
+      return now;
+    }
+
+    void add(String phase, long nanos) {
+      phases.merge(phase, nanos, Long::sum);
+    }
+
+    long total() {
+      return phases.values().stream().mapToLong(Long::longValue).sum();
+    }
+  }
+
+}
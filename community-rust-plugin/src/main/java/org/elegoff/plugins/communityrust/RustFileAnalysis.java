@@ -0,0 +1,345 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.elegoff.plugins.communityrust;
+
+import com.sonar.sslr.api.RecognitionException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.FileLinesContextFactory;
+import org.sonar.api.notifications.AnalysisWarnings;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.rust.InternPool;
+import org.sonar.rust.metrics.LineSet;
+
+/**
+ * Outcome of the analysis of a single file. Results are only recorded here, so that the analysis
+ * can run on a worker thread while everything is saved to the {@link SensorContext} from the sensor thread,
+ * in input file order.
+ */
+class RustFileAnalysis {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RustFileAnalysis.class);
+
+  private final InputFile inputFile;
+  private final List<Range> highlightings = new ArrayList<>();
+  private final List<Range> cpdTokens = new ArrayList<>();
+  private final List<FileIssue> issues = new ArrayList<>();
+  private final RustAnalysisTimings.FileTimings timings;
+  private RecognitionException parseError;
+  // whether the rest of the file was parsed despite the parse error
+  private boolean recovered;
+  // warning about a parse which did not complete in time, such analyses are not cached
+  private String parseTimeoutWarning;
+  private LineSet linesOfCode;
+  private int statements;
+  private int complexity;
+  private int commentLines;
+  private int functions;
+  private boolean cacheable = true;
+
+  RustFileAnalysis(InputFile inputFile) {
+    this.inputFile = inputFile;
+    this.timings = new RustAnalysisTimings.FileTimings(inputFile);
+  }
+
+  InputFile inputFile() {
+    return inputFile;
+  }
+
+  RustAnalysisTimings.FileTimings timings() {
+    return timings;
+  }
+
+  void setParseError(RecognitionException parseError) {
+    this.parseError = parseError;
+  }
+
+  void setRecovered() {
+    this.recovered = true;
+  }
+
+  void setParseTimeoutWarning(String warning) {
+    this.parseTimeoutWarning = warning;
+    setNotCacheable();
+  }
+
+  @CheckForNull
+  RecognitionException parseError() {
+    return parseError;
+  }
+
+  /**
+   * Results which do not only depend on the content of the file, like a failure to read it, must not be cached.
+   */
+  void setNotCacheable() {
+    this.cacheable = false;
+  }
+
+  boolean isCacheable() {
+    return cacheable;
+  }
+
+  void setMetrics(LineSet linesOfCode, int statements, int complexity, int commentLines, int functions) {
+    this.linesOfCode = linesOfCode;
+    this.statements = statements;
+    this.complexity = complexity;
+    this.commentLines = commentLines;
+    this.functions = functions;
+  }
+
+  void highlight(int startLine, int startLineOffset, int endLine, int endLineOffset, TypeOfText typeOfText) {
+    highlightings.add(new Range(startLine, startLineOffset, endLine, endLineOffset, typeOfText, null));
+  }
+
+  void addCpdToken(int startLine, int startLineOffset, int endLine, int endLineOffset, String image) {
+    cpdTokens.add(new Range(startLine, startLineOffset, endLine, endLineOffset, null, image));
+  }
+
+  void addIssue(RuleKey ruleKey, @Nullable Integer line, String message) {
+    issues.add(new FileIssue(ruleKey, line, message));
+  }
+
+  /**
+   * @param analysisWarnings null in SonarLint, where the warnings of the analysis are only logged
+   */
+  void save(SensorContext context, FileLinesContextFactory fileLinesContextFactory, @Nullable AnalysisWarnings analysisWarnings) {
+    if (parseTimeoutWarning != null) {
+      LOG.warn(parseTimeoutWarning);
+      if (analysisWarnings != null) {
+        analysisWarnings.addUnique(parseTimeoutWarning);
+      }
+    }
+    if (parseError != null) {
+      logParseError(context);
+    }
+    // files parsed after recovering from an error get metrics, highlighting and duplications as well
+    if (linesOfCode != null) {
+      saveMetrics(context, fileLinesContextFactory);
+      saveHighlighting(context);
+      saveCpdTokens(context);
+    }
+    saveIssues(context);
+  }
+
+  private void logParseError(SensorContext context) {
+    if (recovered) {
+      LOG.warn("Recovered from parse error in {}, the items which could not be parsed are skipped: {}", inputFile,
+        parseError.getMessage());
+      return;
+    }
+    LOG.error("Unable to parse file: {}", inputFile);
+    LOG.error(parseError.getMessage());
+
+    context.newAnalysisError()
+      .onFile(inputFile)
+      .message(parseError.getMessage())
+      // we can't easily report the precise line when %INCLUDE is used
+      // and reporting an incorrect line can cause a failure (SONARPLI-198)
+      .save();
+  }
+
+  private void saveMetrics(SensorContext context, FileLinesContextFactory fileLinesContextFactory) {
+    saveMeasure(context, CoreMetrics.NCLOC_KEY, linesOfCode.size());
+    saveMeasure(context, CoreMetrics.STATEMENTS_KEY, statements);
+    saveMeasure(context, CoreMetrics.COMPLEXITY_KEY, complexity);
+    saveMeasure(context, CoreMetrics.COMMENT_LINES_KEY, commentLines);
+    saveMeasure(context, CoreMetrics.FUNCTIONS_KEY, functions);
+
+    var fileLinesContext = fileLinesContextFactory.createFor(inputFile);
+    linesOfCode.forEachLine(line -> fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, 1));
+    fileLinesContext.save();
+  }
+
+  private void saveMeasure(SensorContext context, String metricKey, int value) {
+    context.<Integer>newMeasure()
+      .on(inputFile)
+      .forMetric(CoreMetrics.getMetric(metricKey))
+      .withValue(value)
+      .save();
+  }
+
+  private void saveHighlighting(SensorContext context) {
+    var highlighting = context.newHighlighting();
+    highlighting.onFile(inputFile);
+    for (Range range : highlightings) {
+      highlighting.highlight(range.startLine, range.startLineOffset, range.endLine, range.endLineOffset, range.typeOfText);
+    }
+    highlighting.save();
+  }
+
+  private void saveCpdTokens(SensorContext context) {
+    var newCpdTokens = context.newCpdTokens();
+    newCpdTokens.onFile(inputFile);
+    for (Range range : cpdTokens) {
+      newCpdTokens.addToken(range.startLine, range.startLineOffset, range.endLine, range.endLineOffset, range.image);
+    }
+    newCpdTokens.save();
+  }
+
+  private void saveIssues(SensorContext context) {
+    for (FileIssue fileIssue : issues) {
+      var issue = context.newIssue();
+      NewIssueLocation location = issue.newLocation()
+        .on(inputFile)
+        .message(fileIssue.message);
+      if (fileIssue.line != null) {
+        location.at(inputFile.selectLine(fileIssue.line));
+      }
+      issue.at(location)
+        .forRule(fileIssue.ruleKey)
+        .save();
+    }
+  }
+
+  void writeTo(DataOutputStream out) throws IOException {
+    out.writeBoolean(parseError != null);
+    if (parseError != null) {
+      out.writeInt(parseError.getLine());
+      writeString(out, String.valueOf(parseError.getMessage()));
+      out.writeBoolean(recovered);
+    }
+    out.writeBoolean(linesOfCode != null);
+    if (linesOfCode != null) {
+      out.writeInt(linesOfCode.size());
+      for (int line : linesOfCode.toArray()) {
+        out.writeInt(line);
+      }
+      out.writeInt(statements);
+      out.writeInt(complexity);
+      out.writeInt(commentLines);
+      out.writeInt(functions);
+    }
+    out.writeInt(highlightings.size());
+    for (Range range : highlightings) {
+      range.writeTo(out);
+      writeString(out, range.typeOfText.name());
+    }
+    out.writeInt(cpdTokens.size());
+    for (Range range : cpdTokens) {
+      range.writeTo(out);
+      writeString(out, range.image);
+    }
+    out.writeInt(issues.size());
+    for (FileIssue issue : issues) {
+      writeString(out, issue.ruleKey.toString());
+      out.writeInt(issue.line == null ? 0 : issue.line);
+      writeString(out, issue.message);
+    }
+  }
+
+  static RustFileAnalysis readFrom(InputFile inputFile, DataInputStream in) throws IOException {
+    var analysis = new RustFileAnalysis(inputFile);
+    analysis.timings.setCached();
+    if (in.readBoolean()) {
+      int line = in.readInt();
+      analysis.setParseError(new RecognitionException(line, readString(in)));
+      if (in.readBoolean()) {
+        analysis.setRecovered();
+      }
+    }
+    if (in.readBoolean()) {
+      int size = in.readInt();
+      var linesOfCode = new LineSet();
+      for (int i = 0; i < size; i++) {
+        linesOfCode.add(in.readInt());
+      }
+      analysis.setMetrics(linesOfCode, in.readInt(), in.readInt(), in.readInt(), in.readInt());
+    }
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      analysis.highlight(in.readInt(), in.readInt(), in.readInt(), in.readInt(), TypeOfText.valueOf(readString(in)));
+    }
+    size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      analysis.addCpdToken(in.readInt(), in.readInt(), in.readInt(), in.readInt(), InternPool.intern(readString(in)));
+    }
+    size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      RuleKey ruleKey = RuleKey.parse(readString(in));
+      int line = in.readInt();
+      analysis.addIssue(ruleKey, line == 0 ? null : line, readString(in));
+    }
+    return analysis;
+  }
+
+  // DataOutputStream#writeUTF is limited to 64KB, which a string literal can exceed
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Range {
+    private final int startLine;
+    private final int startLineOffset;
+    private final int endLine;
+    private final int endLineOffset;
+    private final TypeOfText typeOfText;
+    private final String image;
+
+    private Range(int startLine, int startLineOffset, int endLine, int endLineOffset, @Nullable TypeOfText typeOfText, @Nullable String image) {
+      this.startLine = startLine;
+      this.startLineOffset = startLineOffset;
+      this.endLine = endLine;
+      this.endLineOffset = endLineOffset;
+      this.typeOfText = typeOfText;
+      this.image = image;
+    }
+
+    private void writeTo(DataOutputStream out) throws IOException {
+      out.writeInt(startLine);
+      out.writeInt(startLineOffset);
+      out.writeInt(endLine);
+      out.writeInt(endLineOffset);
+    }
+  }
+
+  private static class FileIssue {
+    private final RuleKey ruleKey;
+    private final Integer line;
+    private final String message;
+
+    private FileIssue(RuleKey ruleKey, @Nullable Integer line, String message) {
+      this.ruleKey = ruleKey;
+      this.line = line;
+      this.message = message;
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.elegoff.plugins.communityrust;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Parser;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.elegoff.rust.checks.CheckList;
+import org.elegoff.rust.checks.Issue;
+import org.elegoff.rust.checks.RustCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.Checks;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.rust.IncrementalParser;
+import org.sonar.rust.ParseTimeoutException;
+import org.sonar.rust.RustGrammar;
+import org.sonar.rust.RustParser;
+import org.sonar.rust.RustParserConfiguration;
+import org.sonar.rust.RustTokenizer;
+import org.sonar.rust.RustTreeWalker;
+import org.sonar.rust.RustVisitor;
+import org.sonar.rust.RustVisitorContext;
+import org.sonar.rust.metrics.MetricsVisitor;
+
+/**
+ * Parser, visitors and checks needed to analyze one file at a time.
+ * None of them is thread-safe: an analyzer must only be used by one thread at once.
+ */
+class RustFileAnalyzer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RustFileAnalyzer.class);
+
+  private final RustParserConfiguration parserConfiguration;
+  private final Parser<Grammar> parser;
+  @Nullable
+  private final IncrementalParser incrementalParser;
+  @Nullable
+  private final Parser<Grammar> recoveringParser;
+  private final MetricsVisitor metricsVisitor;
+  private final RustTokensVisitor tokensVisitor;
+  private final Checks<RustCheck> checks;
+  // metrics and checks share a single walk of the tree
+  private final RustTreeWalker walker;
+  private final RustTreeWalker checksWalker;
+
+  RustFileAnalyzer(SensorContext context, CheckFactory checkFactory, RustParserConfiguration parserConfiguration) {
+    this(context, checkFactory, parserConfiguration, null);
+  }
+
+  RustFileAnalyzer(SensorContext context, CheckFactory checkFactory, RustParserConfiguration parserConfiguration, @Nullable IncrementalParser incrementalParser) {
+    this.parserConfiguration = parserConfiguration;
+    this.parser = RustParser.create(parserConfiguration);
+    this.incrementalParser = incrementalParser;
+    boolean recovery = context.config().getBoolean(CommunityRustPlugin.PARSE_RECOVERY).orElse(true);
+    this.recoveringParser = recovery ? RustParser.createRecovering(parserConfiguration) : null;
+    this.metricsVisitor = new MetricsVisitor();
+    this.tokensVisitor = new RustTokensVisitor(context);
+    this.checks = checkFactory
+      .<RustCheck>create(CheckList.REPOSITORY_KEY)
+      .addAnnotatedChecks(CheckList.getRustChecks());
+    List<RustVisitor> visitors = new ArrayList<>(metricsVisitor.visitors());
+    visitors.addAll(checks.all());
+    // timing each visitor costs two clock reads per visited node, it is only done with debug logs
+    boolean timed = RustAnalysisTimings.isDetailed();
+    this.walker = new RustTreeWalker(visitors, timed);
+    this.checksWalker = new RustTreeWalker(new ArrayList<>(checks.all()), timed);
+  }
+
+  RustFileAnalysis analyze(InputFile inputFile) {
+    var analysis = new RustFileAnalysis(inputFile);
+    var timings = analysis.timings();
+    var rustFile = SonarQubeRustFile.create(inputFile);
+    LOG.debug("Rust parsing {}", inputFile.filename());
+    long time = System.nanoTime();
+    try {
+      String contents = inputFile.contents();
+      time = timings.record(RustAnalysisTimings.READ, time);
+      AstNode tree = parse(inputFile, contents, analysis);
+      time = timings.record(RustAnalysisTimings.PARSE, time);
+      // the file is lexed once, tokens are shared by metrics, highlighting, CPD and checks
+      List<Token> tokens = RustTokenizer.tokenize(contents);
+      if (tree == null) {
+        tree = tokenTree(tokens);
+      }
+      var visitorContext = new RustVisitorContext(rustFile, tree, analysis.parseError(), tokens);
+      time = timings.record(RustAnalysisTimings.LEX, time);
+
+      scan(walker, visitorContext, analysis);
+      analysis.setMetrics(
+        metricsVisitor.linesOfCodeSet(),
+        metricsVisitor.numberOfStatements(),
+        metricsVisitor.complexity(),
+        metricsVisitor.commentLinesSet().size(),
+        metricsVisitor.numberOfFunctions());
+      time = System.nanoTime();
+      tokensVisitor.scanFile(visitorContext, analysis);
+      timings.record(RustAnalysisTimings.TOKENS, time);
+
+    } catch (RecognitionException e) {
+      analysis.setParseError(e);
+      timings.record(RustAnalysisTimings.PARSE, time);
+      scan(checksWalker, new RustVisitorContext(rustFile, e), analysis);
+    } catch (IOException e) {
+      var re = new RecognitionException(0, e.getMessage());
+      analysis.setParseError(re);
+      analysis.setNotCacheable();
+      timings.record(RustAnalysisTimings.READ, time);
+      scan(checksWalker, new RustVisitorContext(rustFile, re), analysis);
+    }
+    return analysis;
+  }
+
+  private void scan(RustTreeWalker treeWalker, RustVisitorContext visitorContext, RustFileAnalysis analysis) {
+    long start = System.nanoTime();
+    treeWalker.scanFile(visitorContext);
+    long checksTime = 0;
+    for (RustCheck check : checks.all()) {
+      List<Issue> issues = check.pollIssues();
+      var ruleKey = checks.ruleKey(check);
+      if (ruleKey == null) {
+        continue;
+      }
+      for (Issue issue : issues) {
+        analysis.addIssue(ruleKey, issue.line(), issue.message());
+      }
+      if (treeWalker.isTimed()) {
+        long checkTime = treeWalker.timeNanos(check);
+        analysis.timings().add(RustAnalysisTimings.CHECK_PREFIX + ruleKey.rule(), checkTime);
+        checksTime += checkTime;
+      }
+    }
+    // walking the tree and the metrics visitors, as well as the checks when they are not timed separately
+    analysis.timings().add(treeWalker.isTimed() ? RustAnalysisTimings.METRICS : RustAnalysisTimings.WALK, System.nanoTime() - start - checksTime);
+  }
+
+  /**
+   * When the file has a syntax error and recovery is enabled, the error is recorded and the tree of the rest of the
+   * file is returned, with {@link RustGrammar#PARSE_ERROR} nodes in place of the top-level items which could not be
+   * parsed. Both parses share the parse timeout of the file.
+   */
+  @CheckForNull
+  private AstNode parse(InputFile inputFile, String contents, RustFileAnalysis analysis) {
+    return RustParser.withinTimeout(parserConfiguration, () -> parseWithRecovery(inputFile, contents, analysis));
+  }
+
+  @CheckForNull
+  private AstNode parseWithRecovery(InputFile inputFile, String contents, RustFileAnalysis analysis) {
+    try {
+      if (incrementalParser != null) {
+        return parse(source -> incrementalParser.parse(inputFile.key(), source), inputFile, contents, analysis);
+      }
+      return parse(parser::parse, inputFile, contents, analysis);
+    } catch (RecognitionException e) {
+      if (recoveringParser == null) {
+        throw e;
+      }
+      analysis.setParseError(e);
+      AstNode tree = parse(recoveringParser::parse, inputFile, contents, analysis);
+      if (tree != null) {
+        analysis.setRecovered();
+      }
+      return tree;
+    }
+  }
+
+  @CheckForNull
+  private static AstNode parse(Function<String, AstNode> parser, InputFile inputFile, String contents, RustFileAnalysis analysis) {
+    try {
+      return parser.apply(contents);
+    } catch (ParseTimeoutException e) {
+      // logged and reported as an analysis warning when the analysis is saved
+      analysis.setParseTimeoutWarning(inputFile + ": " + e.getMessage() + ". Only token-level analysis is done on this file.");
+      return null;
+    }
+  }
+
+  /**
+   * Flat tree of the tokens of a file which could not be parsed in time: metrics, highlighting, CPD and checks relying
+   * on tokens only still work, checks looking for syntax nodes simply find nothing.
+   */
+  private static AstNode tokenTree(List<Token> tokens) {
+    var root = new AstNode(RustGrammar.COMPILATION_UNIT, RustGrammar.COMPILATION_UNIT.name(), tokens.get(0));
+    for (Token token : tokens) {
+      root.addChild(new AstNode(token));
+    }
+    return root;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.elegoff.plugins.communityrust;
+
+import java.util.Arrays;
+import java.util.List;
+import org.sonar.rust.IncrementalParser;
+import org.sonar.rust.RustParser;
+import org.sonar.rust.RustParserConfiguration;
+import org.sonarsource.api.sonarlint.SonarLintSide;
+
+/**
+ * Keeps the trees of the files analyzed by SonarLint from one analysis to the next, so that a file edited in the IDE is
+ * only parsed again around the edit. The parser is created again when the parser configuration changes.
+ */
+@SonarLintSide(lifespan = SonarLintSide.INSTANCE)
+public class RustParserCache {
+
+  private List<Object> configurationKey;
+  private IncrementalParser parser;
+
+  synchronized IncrementalParser parser(RustParserConfiguration configuration) {
+    List<Object> key = Arrays.asList(
+      configuration.getCharset(),
+      configuration.getParseTimeoutMillis(),
+      configuration.getMemoizedRules(),
+      configuration.getMemoTableSize(),
+      configuration.getParallelChunkLength());
+    if (parser == null || !key.equals(configurationKey)) {
+      parser = RustParser.createIncremental(configuration);
+      configurationKey = key;
+    }
+    return parser;
+  }
+
+}
@@ -20,59 +20,78 @@
  */
 package org.elegoff.plugins.communityrust;
 
-import com.sonar.sslr.api.AstNode;
-import com.sonar.sslr.api.Grammar;
-import com.sonar.sslr.api.RecognitionException;
-import com.sonar.sslr.impl.Parser;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import org.elegoff.plugins.communityrust.language.RustLanguage;
-import org.elegoff.rust.checks.CheckList;
-import org.elegoff.rust.checks.Issue;
-import org.elegoff.rust.checks.RustCheck;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.rule.CheckFactory;
-import org.sonar.api.batch.rule.Checks;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
-import org.sonar.api.batch.sensor.issue.NewIssueLocation;
-import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContextFactory;
-import org.sonar.rust.RustLexer;
-import org.sonar.rust.RustParser;
+import org.sonar.api.notifications.AnalysisWarnings;
+import org.sonar.rust.IncrementalParser;
 import org.sonar.rust.RustParserConfiguration;
-import org.sonar.rust.RustVisitorContext;
-import org.sonar.rust.metrics.MetricsVisitor;
-
-import java.io.IOException;
-import java.util.Collection;
-import java.util.List;
 
 public class RustSensor implements Sensor {
 
   private static final Logger LOG = LoggerFactory.getLogger(RustSensor.class);
 
   private final FileLinesContextFactory fileLinesContextFactory;
-  private final Checks<RustCheck> checks;
+  private final CheckFactory checkFactory;
+  @Nullable
+  private final RustParserCache parserCache;
+  @Nullable
+  private final AnalysisWarnings analysisWarnings;
 
   public RustSensor(CheckFactory checkFactory, FileLinesContextFactory fileLinesContextFactory) {
-    this.checks = checkFactory
-      .<RustCheck>create(CheckList.REPOSITORY_KEY)
-      .addAnnotatedChecks(CheckList.getRustChecks());
-    this.fileLinesContextFactory = fileLinesContextFactory;
+    this(checkFactory, fileLinesContextFactory, null, null);
   }
 
-  private static void logParseError(SensorContext sensorContext, InputFile inputFile, RecognitionException e) {
-    LOG.error("Unable to parse file: {}", inputFile);
-    LOG.error(e.getMessage());
+  /**
+   * In SonarLint, the trees of the analyzed files are kept by the given cache, so that edited files are only parsed
+   * again around the edits.
+   */
+  public RustSensor(CheckFactory checkFactory, FileLinesContextFactory fileLinesContextFactory, @Nullable RustParserCache parserCache) {
+    this(checkFactory, fileLinesContextFactory, parserCache, null);
+  }
 
-    sensorContext.newAnalysisError()
-      .onFile(inputFile)
-      .message(e.getMessage())
-      // we can't easily report the precise line when %INCLUDE is used
-      // and reporting an incorrect line can cause a failure (SONARPLI-198)
-      .save();
+  /**
+   * In SonarQube, the files which cannot be parsed in time are reported as analysis warnings, which SonarLint does not
+   * provide.
+   */
+  public RustSensor(CheckFactory checkFactory, FileLinesContextFactory fileLinesContextFactory, @Nullable AnalysisWarnings analysisWarnings) {
+    this(checkFactory, fileLinesContextFactory, null, analysisWarnings);
+  }
+
+  RustSensor(CheckFactory checkFactory, FileLinesContextFactory fileLinesContextFactory, @Nullable RustParserCache parserCache,
+    @Nullable AnalysisWarnings analysisWarnings) {
+    this.checkFactory = checkFactory;
+    this.fileLinesContextFactory = fileLinesContextFactory;
+    this.parserCache = parserCache;
+    this.analysisWarnings = analysisWarnings;
+  }
+
+  static int analysisThreads(SensorContext context) {
+    int threads = context.config().getInt(CommunityRustPlugin.ANALYSIS_THREADS).orElse(CommunityRustPlugin.DEFAULT_ANALYSIS_THREADS);
+    if (threads < 1) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    return threads;
   }
 
   @Override
@@ -90,104 +109,109 @@ public class RustSensor implements Sensor {
       fileSystem.predicates().hasLanguage(RustLanguage.KEY),
       fileSystem.predicates().hasType(InputFile.Type.MAIN));
 
-    RustParserConfiguration parserConfiguration = new CommunityRustPluginConfiguration().getParserConfiguration(fileSystem.encoding());
-    Parser<Grammar> parser = RustParser.create(parserConfiguration);
-    var metricsVisitor = new MetricsVisitor(parserConfiguration);
-    var tokensVisitor = new RustTokensVisitor(context, RustLexer.create(parserConfiguration));
+    RustParserConfiguration parserConfiguration = new CommunityRustPluginConfiguration().getParserConfiguration(fileSystem.encoding(), context.config());
+    List<InputFile> inputFiles = new ArrayList<>();
+    fileSystem.inputFiles(mainFilePredicates).forEach(inputFiles::add);
 
-    Collection<RustCheck> rustChecks = checks.all();
+    var timings = new RustAnalysisTimings();
+    var cache = new RustAnalysisCache(context);
+    IncrementalParser incrementalParser = parserCache == null ? null : parserCache.parser(parserConfiguration);
+    int threads = Math.min(analysisThreads(context), Math.max(1, inputFiles.size()));
+    try {
+      if (threads == 1) {
+        executeSequentially(context, parserConfiguration, incrementalParser, cache, timings, inputFiles);
+      } else {
+        executeInParallel(context, parserConfiguration, incrementalParser, cache, timings, inputFiles, threads);
+      }
+    } finally {
+      timings.report(context);
+    }
+  }
 
-    for (InputFile file : fileSystem.inputFiles(mainFilePredicates)) {
-      scanFile(context, file, metricsVisitor, tokensVisitor, parser, rustChecks);
+  private void executeSequentially(SensorContext context, RustParserConfiguration parserConfiguration, @Nullable IncrementalParser incrementalParser,
+    RustAnalysisCache cache, RustAnalysisTimings timings, List<InputFile> inputFiles) {
+    var analyzer = new RustFileAnalyzer(context, checkFactory, parserConfiguration, incrementalParser);
+    for (InputFile file : inputFiles) {
+      RustFileAnalysis analysis = cache.read(file);
+      if (analysis == null) {
+        analysis = analyzer.analyze(file);
+      }
+      save(context, cache, timings, analysis);
       if (context.isCancelled()) {
         return;
       }
     }
   }
 
-  private void scanFile(
-    SensorContext sensorContext,
-    InputFile inputFile,
-    MetricsVisitor metricsVisitor,
-    RustTokensVisitor tokensVisitor,
-    Parser<Grammar> parser,
-    Collection<RustCheck> checks) {
-
-    var rustFile = SonarQubeRustFile.create(inputFile);
-    RustVisitorContext visitorContext;
-    String fileName = inputFile.filename();
-    LOG.debug("Rust parsing {}", fileName);
-    try {
-      AstNode tree = parser.parse(inputFile.contents());
-      visitorContext = new RustVisitorContext(rustFile, tree);
-
-      saveMetrics(sensorContext, inputFile, visitorContext, metricsVisitor);
-      tokensVisitor.scanFile(inputFile, visitorContext);
-
-    } catch (RecognitionException e) {
-      visitorContext = new RustVisitorContext(rustFile, e);
-      logParseError(sensorContext, inputFile, e);
-    } catch (IOException e) {
-      var re = new RecognitionException(0, e.getMessage());
-      visitorContext = new RustVisitorContext(rustFile, re);
-      logParseError(sensorContext, inputFile, re);
+  /**
+   * Files are analyzed by a pool of workers, each one owning its own {@link RustFileAnalyzer}.
+   * Results are saved from the calling thread in input file order, so that the outcome does not depend on scheduling.
+   * At most two files per worker are analyzed ahead of the one being saved.
+   */
+  private void executeInParallel(SensorContext context, RustParserConfiguration parserConfiguration, @Nullable IncrementalParser incrementalParser,
+    RustAnalysisCache cache, RustAnalysisTimings timings, List<InputFile> inputFiles, int threads) {
+    LOG.debug("Analyzing {} Rust files with {} threads", inputFiles.size(), threads);
+    BlockingQueue<RustFileAnalyzer> analyzers = new ArrayBlockingQueue<>(threads);
+    for (int i = 0; i < threads; i++) {
+      analyzers.add(new RustFileAnalyzer(context, checkFactory, parserConfiguration, incrementalParser));
     }
 
-    for (RustCheck check : checks) {
-      saveIssues(sensorContext, inputFile, check, check.scanFileForIssues(visitorContext));
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+    Deque<Future<RustFileAnalysis>> pending = new ArrayDeque<>();
+    var nextFile = 0;
+    try {
+      while (nextFile < inputFiles.size() || !pending.isEmpty()) {
+        while (nextFile < inputFiles.size() && pending.size() < 2 * threads) {
+          InputFile file = inputFiles.get(nextFile++);
+          RustFileAnalysis cached = cache.read(file);
+          pending.add(cached != null ? CompletableFuture.completedFuture(cached) : executor.submit(() -> analyze(context, analyzers, file)));
+        }
+        RustFileAnalysis analysis = pending.poll().get();
+        if (analysis != null) {
+          save(context, cache, timings, analysis);
+        }
+        if (context.isCancelled()) {
+          pending.forEach(future -> future.cancel(true));
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Rust analysis failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
     }
   }
 
-  private void saveMetrics(SensorContext context, InputFile inputFile, RustVisitorContext visitorContext, MetricsVisitor metricsVisitor) {
-    metricsVisitor.scanFile(visitorContext);
-    context.<Integer>newMeasure()
-      .on(inputFile)
-      .forMetric(CoreMetrics.NCLOC)
-      .withValue(metricsVisitor.linesOfCode().size())
-      .save();
-    context.<Integer>newMeasure()
-      .on(inputFile)
-      .forMetric(CoreMetrics.STATEMENTS)
-      .withValue(metricsVisitor.numberOfStatements())
-      .save();
-    context.<Integer>newMeasure()
-      .on(inputFile)
-      .forMetric(CoreMetrics.COMPLEXITY)
-      .withValue(metricsVisitor.complexity())
-      .save();
-    context.<Integer>newMeasure()
-      .on(inputFile)
-      .forMetric(CoreMetrics.COMMENT_LINES)
-      .withValue(metricsVisitor.commentLines().size())
-      .save();
-    context.<Integer>newMeasure()
-      .on(inputFile)
-      .forMetric(CoreMetrics.FUNCTIONS)
-      .withValue(metricsVisitor.numberOfFunctions())
-      .save();
-
-    var fileLinesContext = fileLinesContextFactory.createFor(inputFile);
-    for (Integer line : metricsVisitor.linesOfCode()) {
-      fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, 1);
+  private void save(SensorContext context, RustAnalysisCache cache, RustAnalysisTimings timings, RustFileAnalysis analysis) {
+    long time = System.nanoTime();
+    cache.write(analysis);
+    analysis.save(context, fileLinesContextFactory, analysisWarnings);
+    analysis.timings().record(RustAnalysisTimings.SAVE, time);
+    timings.add(analysis.timings());
+  }
+
+  private static RustFileAnalysis analyze(SensorContext context, BlockingQueue<RustFileAnalyzer> analyzers, InputFile file) throws InterruptedException {
+    if (context.isCancelled()) {
+      return null;
+    }
+    RustFileAnalyzer analyzer = analyzers.take();
+    try {
+      return analyzer.analyze(file);
+    } finally {
+      analyzers.add(analyzer);
     }
-    fileLinesContext.save();
   }
 
-  private void saveIssues(SensorContext context, InputFile inputFile, RustCheck check, List<Issue> issues) {
-    var ruleKey = checks.ruleKey(check);
-    if (ruleKey == null)
-      return;
-    for (Issue rustIssue : issues) {
-      var issue = context.newIssue();
-      NewIssueLocation location = issue.newLocation()
-        .on(inputFile)
-        .message(rustIssue.message());
-      if (rustIssue.line() != null) {
-        location.at(inputFile.selectLine(rustIssue.line()));
-      }
-      issue.at(location)
-        .forRule(ruleKey)
-        .save();
+  private static class WorkerThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      var thread = new Thread(runnable, "rust-analysis-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
     }
   }
 
@@ -20,145 +20,162 @@
  */
 package org.elegoff.plugins.communityrust;
 
+import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.Trivia;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
-import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
-import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 import org.sonar.api.config.Configuration;
+import org.sonar.rust.InternPool;
+import org.sonar.rust.LineIndex;
+import org.sonar.rust.RustGrammar;
 import org.sonar.rust.RustVisitorContext;
-import org.sonar.rust.api.RustKeyword;
 import org.sonar.rust.api.RustTokenType;
-import org.sonar.sslr.parser.LexerlessGrammar;
-import org.sonar.sslr.parser.ParserAdapter;
-import org.sonarsource.analyzer.commons.TokenLocation;
 
 public class RustTokensVisitor {
 
-  private final Set<String> keywords = new HashSet<>(Arrays.asList(RustKeyword.keywordValues()));
+  private static final Map<RustTokenType, TypeOfText> TYPES_OF_TEXT = new EnumMap<>(RustTokenType.class);
+
+  static {
+    TYPES_OF_TEXT.put(RustTokenType.CHARACTER_LITERAL, TypeOfText.STRING);
+    TYPES_OF_TEXT.put(RustTokenType.STRING_LITERAL, TypeOfText.STRING);
+    TYPES_OF_TEXT.put(RustTokenType.RAW_STRING_LITERAL, TypeOfText.STRING);
+    TYPES_OF_TEXT.put(RustTokenType.RAW_BYTE_STRING_LITERAL, TypeOfText.STRING);
+    TYPES_OF_TEXT.put(RustTokenType.KEYWORD, TypeOfText.KEYWORD);
+    TYPES_OF_TEXT.put(RustTokenType.FLOAT_LITERAL, TypeOfText.CONSTANT);
+    TYPES_OF_TEXT.put(RustTokenType.BOOLEAN_LITERAL, TypeOfText.CONSTANT);
+    TYPES_OF_TEXT.put(RustTokenType.INTEGER_LITERAL, TypeOfText.CONSTANT);
+  }
+
   private final SensorContext context;
-  private final ParserAdapter<LexerlessGrammar> lexer;
   private final boolean ignoreCPDTests;
+  private final boolean normalizeLiterals;
+  private final boolean normalizeIdentifiers;
+  private final Set<String> unitTestAttributes;
 
-  public RustTokensVisitor(SensorContext context, ParserAdapter<LexerlessGrammar> lexer) {
+  public RustTokensVisitor(SensorContext context) {
     this.context = context;
-    this.lexer = lexer;
     this.ignoreCPDTests = context.config().getBoolean(CommunityRustPlugin.IGNORE_DUPLICATION_FOR_TESTS).orElse(false);
+    this.unitTestAttributes = getUnitTestAttributes();
+    String cpdNormalization = context.config().get(CommunityRustPlugin.CPD_NORMALIZATION).orElse(CommunityRustPlugin.DEFAULT_CPD_NORMALIZATION);
+    this.normalizeIdentifiers = CommunityRustPlugin.CPD_NORMALIZATION_IDENTIFIERS.equalsIgnoreCase(cpdNormalization);
+    this.normalizeLiterals = normalizeIdentifiers || CommunityRustPlugin.CPD_NORMALIZATION_LITERALS.equalsIgnoreCase(cpdNormalization);
   }
 
   private static String getTokenImage(Token token) {
     if (token.getType().equals(RustTokenType.CHARACTER_LITERAL)) {
       return RustTokenType.CHARACTER_LITERAL.getValue();
     }
-    return token.getValue().toLowerCase(Locale.ENGLISH);
-  }
-
-  private static void highlight(NewHighlighting highlighting, TokenLocation tokenLocation, TypeOfText typeOfText) {
-    highlighting.highlight(tokenLocation.startLine(), tokenLocation.startLineOffset(), tokenLocation.endLine(), tokenLocation.endLineOffset(), typeOfText);
-  }
-
-  private static TokenLocation tokenLocation(Token token) {
-    return new TokenLocation(token.getLine(), token.getColumn(), token.getOriginalValue());
+    return InternPool.toLowerCase(token.getValue());
   }
 
-  public void scanFile(InputFile inputFile, RustVisitorContext visitorContext) {
-    var highlighting = context.newHighlighting();
-    highlighting.onFile(inputFile);
+  public void scanFile(RustVisitorContext visitorContext, RustFileAnalysis analysis) {
+    List<Token> parsedTokens = visitorContext.tokens();
+    LineIndex lineIndex = visitorContext.lineIndex();
+    var unitTests = new UnitTestRegions(visitorContext.rootTree(), parsedTokens, unitTestAttributes);
+    var highlighting = new Highlighting(analysis);
+    var unitTestHighlighting = new Highlighting(analysis);
+    // index of the last token of the use declaration or attribute being skipped for duplications
+    int skippedUntil = -1;
 
-    var cpdTokens = context.newCpdTokens();
-    cpdTokens.onFile(inputFile);
-
-    List<Token> parsedTokens = lexer.parse(visitorContext.file().content()).getTokens();
-    Set<Token> unitTestTokens = identifyUnitTestTokens(parsedTokens);
-
-    for (Token token : parsedTokens) {
-
-      final var tokenLocation = tokenLocation(token);
-
-      highlightToken(token, tokenLocation, highlighting);
+    for (int i = 0; i < parsedTokens.size(); i++) {
+      Token token = parsedTokens.get(i);
+      boolean unitTestToken = unitTests.contains(i);
 
       for (Trivia trivia : token.getTrivia()) {
-        highlight(highlighting, tokenLocation(trivia.getToken()), TypeOfText.COMMENT);
+        highlighting.add(new TokenLocation(lineIndex, trivia.getToken()), TypeOfText.COMMENT);
       }
 
-      if (unitTestTokens.contains(token)) {
-        highlight(highlighting, tokenLocation, TypeOfText.ANNOTATION);
+      final var tokenLocation = new TokenLocation(lineIndex, token);
+
+      if (unitTestToken != unitTestHighlighting.isPending()) {
+        // ranges do not cross the bounds of the unit tests, so that they are nested in the unit test ranges
+        highlighting.flush();
       }
+      highlighting.add(tokenLocation, typeOfText(token));
+      unitTestHighlighting.add(tokenLocation, unitTestToken ? TypeOfText.ANNOTATION : null);
 
-      if (!GenericTokenType.EOF.equals(token.getType()) && !(unitTestTokens.contains(token) && this.ignoreCPDTests)) {
-        cpdTokens.addToken(tokenLocation.startLine(), tokenLocation.startLineOffset(), tokenLocation.endLine(), tokenLocation.endLineOffset(), getTokenImage(token));
+      if (normalizeLiterals && i > skippedUntil) {
+        skippedUntil = skippedRunEnd(parsedTokens, i);
+      }
+      if (!GenericTokenType.EOF.equals(token.getType()) && !(unitTestToken && this.ignoreCPDTests) && i > skippedUntil) {
+        analysis.addCpdToken(tokenLocation.startLine, tokenLocation.startLineOffset, tokenLocation.endLine, tokenLocation.endLineOffset, cpdImage(token));
       }
     }
-
-    highlighting.save();
-    cpdTokens.save();
+    highlighting.flush();
+    unitTestHighlighting.flush();
   }
 
-  private void highlightToken(Token token, TokenLocation tokenLocation, NewHighlighting highlighting) {
-    final String tokenImage = getTokenImage(token);
-    if (token.getType().equals(RustTokenType.CHARACTER_LITERAL)
-      || token.getType().equals(RustTokenType.STRING_LITERAL)
-      || token.getType().equals(RustTokenType.RAW_STRING_LITERAL)
-      || token.getType().equals(RustTokenType.RAW_BYTE_STRING_LITERAL)
-
-    ) {
-      highlight(highlighting, tokenLocation, TypeOfText.STRING);
-
-    } else if (keywords.contains(tokenImage)) {
-      highlight(highlighting, tokenLocation, TypeOfText.KEYWORD);
+  /**
+   * Literals are replaced by their type and, if configured, identifiers by a single image, so that code differing only
+   * by them is detected as duplicated.
+   */
+  private String cpdImage(Token token) {
+    if (normalizeLiterals && token.getType() instanceof RustTokenType) {
+      var type = (RustTokenType) token.getType();
+      if (type != RustTokenType.KEYWORD && (type != RustTokenType.IDENTIFIER || normalizeIdentifiers)) {
+        return type.getValue();
+      }
     }
+    return getTokenImage(token);
+  }
 
-    if (token.getType().equals(RustTokenType.FLOAT_LITERAL)
-      || token.getType().equals(RustTokenType.BOOLEAN_LITERAL)
-      || token.getType().equals(RustTokenType.INTEGER_LITERAL)) {
-      highlight(highlighting, tokenLocation, TypeOfText.CONSTANT);
+  /**
+   * @return the index of the last token of the use declaration or the attribute starting at the given index, or -1 when
+   * none starts there
+   */
+  private static int skippedRunEnd(List<Token> tokens, int start) {
+    Token token = tokens.get(start);
+    if (token.getType() == RustTokenType.KEYWORD && "use".equals(token.getValue())) {
+      int i = start + 1;
+      while (i < tokens.size() - 1 && !";".equals(tokens.get(i).getValue())) {
+        i++;
+      }
+      return i;
     }
+    if ("#".equals(token.getValue())) {
+      int i = start + 1;
+      if (i < tokens.size() && "!".equals(tokens.get(i).getValue())) {
+        i++;
+      }
+      if (i < tokens.size() && "[".equals(tokens.get(i).getValue())) {
+        return closing(tokens, i, "[", "]");
+      }
+    }
+    return -1;
   }
 
-  private Set<Token> identifyUnitTestTokens(List<Token> parsedTokens) {
-    Set<Token> testTokens = new HashSet<>();
-    Set<String> unitTestsAttributes = getUnitTestAttributes();
-    int i = 0;
-    while (i < parsedTokens.size()) {
-      if ("#".equals(getTokenImage(parsedTokens.get(i))) && ("[".equals(getTokenImage(parsedTokens.get(i + 1))))
-        && (unitTestsAttributes.contains(getTokenImage(parsedTokens.get(i + 2)))) && ("]".equals(getTokenImage(parsedTokens.get(i + 3))))
-        && ("fn".equals(getTokenImage(parsedTokens.get(i + 4))))) {
-        int j = i + 5;
-        // lookup for opening bracket
-        while (!"{".equals(getTokenImage(parsedTokens.get(j)))) {
-          j++;
-        }
-
-        int cptOpeningBracket = 1;
-        // lookup for outer closing bracket (end of test function position)
-        while (cptOpeningBracket > 0) {
-          j++;
-          String tokenImage = getTokenImage(parsedTokens.get(j));
-          if ("{".equals(tokenImage)) {
-            cptOpeningBracket++;
-          } else if ("}".equals(tokenImage)) {
-            cptOpeningBracket--;
-          }
-
-        }
-
-        // all tokens constituting a test function are added to the set
-        IntStream.rangeClosed(i, j).mapToObj(parsedTokens::get).forEach(testTokens::add);
+  /**
+   * @return the index of the token closing the one at the given index, or of the last token when it is not closed
+   */
+  private static int closing(List<Token> tokens, int opening, String open, String close) {
+    int depth = 0;
+    int i = opening;
+    while (i < tokens.size() - 1) {
+      String value = tokens.get(i).getValue();
+      if (open.equals(value)) {
+        depth++;
+      } else if (close.equals(value) && --depth == 0) {
+        break;
       }
       i++;
     }
-    return testTokens;
+    return i;
+  }
+
+  @Nullable
+  private static TypeOfText typeOfText(Token token) {
+    return token.getType() instanceof RustTokenType ? TYPES_OF_TEXT.get((RustTokenType) token.getType()) : null;
   }
 
   private Set<String> getUnitTestAttributes() {
@@ -180,4 +197,240 @@ public class RustTokensVisitor {
     return nonEmptyStrings.toArray(new String[nonEmptyStrings.size()]);
   }
 
+  /**
+   * Highlighting ranges of the tokens and comments given in order, the consecutive ones of the same type being
+   * coalesced: only spacing separates them, or comments nested in the coalesced range for the unit tests.
+   */
+  private static final class Highlighting {
+
+    private final RustFileAnalysis analysis;
+    private TypeOfText typeOfText;
+    private TokenLocation start;
+    private TokenLocation end;
+
+    private Highlighting(RustFileAnalysis analysis) {
+      this.analysis = analysis;
+    }
+
+    private boolean isPending() {
+      return typeOfText != null;
+    }
+
+    private void add(TokenLocation location, @Nullable TypeOfText type) {
+      if (type != typeOfText) {
+        flush();
+        typeOfText = type;
+        start = location;
+      }
+      end = location;
+    }
+
+    private void flush() {
+      if (typeOfText != null) {
+        analysis.highlight(start.startLine, start.startLineOffset, end.endLine, end.endLineOffset, typeOfText);
+        typeOfText = null;
+      }
+    }
+
+  }
+
+  /**
+   * Start and end of a token, the end being found in the line index of the file rather than by splitting the token value.
+   */
+  private static final class TokenLocation {
+
+    private final int startLine;
+    private final int startLineOffset;
+    private final int endLine;
+    private final int endLineOffset;
+
+    private TokenLocation(LineIndex lineIndex, Token token) {
+      startLine = token.getLine();
+      startLineOffset = token.getColumn();
+      int end = lineIndex.offset(startLine, startLineOffset) + token.getOriginalValue().length();
+      endLine = lineIndex.line(end);
+      endLineOffset = end - lineIndex.lineStart(endLine);
+    }
+
+  }
+
+  /**
+   * Intervals of the indexes of the tokens of the unit tests: the functions having one of the unit test attributes and
+   * the modules having the {@code cfg(test)} attribute, found in the syntax tree, or in the tokens when the tree has no
+   * items: the flat tree of a file which could not be parsed in time. The intervals are sorted and disjoint, so that the
+   * tokens are checked in order by advancing a cursor.
+   */
+  private static final class UnitTestRegions {
+
+    private static final String CFG_TEST = "cfg(test)";
+
+    private final List<Token> tokens;
+    private final Set<String> attributes;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int size;
+    private int cursor;
+
+    private UnitTestRegions(@Nullable AstNode tree, List<Token> tokens, Set<String> attributes) {
+      this.tokens = tokens;
+      this.attributes = attributes;
+      if (tree != null && tree.hasDescendant(RustGrammar.ITEM)) {
+        addRegions(tree);
+      } else {
+        addTokenRegions();
+      }
+    }
+
+    /**
+     * To be called with increasing token indexes.
+     */
+    private boolean contains(int tokenIndex) {
+      while (cursor < size && ends[cursor] < tokenIndex) {
+        cursor++;
+      }
+      return cursor < size && starts[cursor] <= tokenIndex;
+    }
+
+    private void addRegions(AstNode node) {
+      if (node.is(RustGrammar.ITEM, RustGrammar.ASSOCIATED_ITEM) && isUnitTest(node)) {
+        addRegion(node.getToken(), node.getLastToken());
+        return;
+      }
+      for (AstNode child : node.getChildren()) {
+        if (child.hasChildren()) {
+          addRegions(child);
+        }
+      }
+    }
+
+    private boolean isUnitTest(AstNode item) {
+      AstNode declaration = item.getLastChild();
+      if (declaration.is(RustGrammar.VIS_ITEM)) {
+        declaration = declaration.getLastChild();
+      }
+      boolean function = declaration.is(RustGrammar.FUNCTION);
+      if (!function && !declaration.is(RustGrammar.MODULE)) {
+        return false;
+      }
+      for (AstNode attribute : item.getChildren(RustGrammar.OUTER_ATTRIBUTE)) {
+        AstNode attr = attribute.getFirstChild(RustGrammar.ATTR);
+        if (function ? attributes.contains(text(attr.getFirstChild(RustGrammar.SIMPLE_PATH))) : CFG_TEST.equals(text(attr))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void addTokenRegions() {
+      int i = 0;
+      while (i < tokens.size()) {
+        int end = isAttribute(i) ? unitTestEnd(i) : -1;
+        if (end < 0) {
+          i++;
+        } else {
+          addRegion(i, end);
+          i = end + 1;
+        }
+      }
+    }
+
+    /**
+     * @return the index of the last token of the unit test whose outer attributes start at the given index, its closing
+     * brace or semicolon, or -1 when the attributes are not those of a unit test
+     */
+    private int unitTestEnd(int start) {
+      boolean testAttribute = false;
+      boolean cfgTest = false;
+      int i = start;
+      while (isAttribute(i)) {
+        int close = closing(tokens, i + 1, "[", "]");
+        int pathEnd = i + 2;
+        while (pathEnd < close && !"(".equals(value(pathEnd)) && !"=".equals(value(pathEnd))) {
+          pathEnd++;
+        }
+        testAttribute |= attributes.contains(text(i + 2, pathEnd));
+        cfgTest |= CFG_TEST.equals(text(i + 2, close));
+        i = close + 1;
+      }
+      String declaration = null;
+      while (i < tokens.size() - 1 && !"{".equals(value(i)) && !";".equals(value(i))) {
+        if (declaration == null && ("fn".equals(value(i)) || "mod".equals(value(i)))) {
+          declaration = value(i);
+        }
+        i++;
+      }
+      boolean unitTest = "fn".equals(declaration) ? testAttribute : ("mod".equals(declaration) && cfgTest);
+      if (!unitTest) {
+        return -1;
+      }
+      return "{".equals(value(i)) ? closing(tokens, i, "{", "}") : i;
+    }
+
+    private boolean isAttribute(int i) {
+      return "#".equals(value(i)) && "[".equals(value(i + 1));
+    }
+
+    private String value(int i) {
+      return i < tokens.size() ? tokens.get(i).getValue() : "";
+    }
+
+    private String text(int from, int to) {
+      var text = new StringBuilder();
+      for (int i = from; i < to; i++) {
+        text.append(tokens.get(i).getOriginalValue());
+      }
+      return text.toString();
+    }
+
+    private static String text(AstNode node) {
+      var text = new StringBuilder();
+      for (Token token : node.getTokens()) {
+        text.append(token.getOriginalValue());
+      }
+      return text.toString();
+    }
+
+    private void addRegion(Token first, Token last) {
+      addRegion(indexOf(first, false), indexOf(last, true));
+    }
+
+    private void addRegion(int start, int end) {
+      if (start > end) {
+        return;
+      }
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, 2 * size);
+        ends = Arrays.copyOf(ends, 2 * size);
+      }
+      starts[size] = start;
+      ends[size] = end;
+      size++;
+    }
+
+    /**
+     * @return the index of the first token starting at or after the given one, or of the last token starting at or
+     * before it, the tokens of the tree and of the lexer being different instances
+     */
+    private int indexOf(Token token, boolean last) {
+      int low = 0;
+      int high = tokens.size() - 1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        Token candidate = tokens.get(middle);
+        int comparison = candidate.getLine() != token.getLine()
+          ? Integer.compare(candidate.getLine(), token.getLine())
+          : Integer.compare(candidate.getColumn(), token.getColumn());
+        if (comparison < 0) {
+          low = middle + 1;
+        } else if (comparison > 0) {
+          high = middle - 1;
+        } else {
+          return middle;
+        }
+      }
+      return last ? high : low;
+    }
+
+  }
+
 }
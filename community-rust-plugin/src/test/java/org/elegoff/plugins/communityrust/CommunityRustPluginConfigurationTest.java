@@ -24,6 +24,7 @@ import java.nio.charset.Charset;
 import org.elegoff.plugins.communityrust.settings.RustLanguageSettings;
 import org.junit.jupiter.api.Test;
 import org.sonar.api.config.internal.MapSettings;
+import org.sonar.rust.RustParserConfiguration;
 
 
 import static org.fest.assertions.Assertions.assertThat;
@@ -38,6 +39,28 @@ class CommunityRustPluginConfigurationTest {
     assertThat(pluginConf.getParserConfiguration(charset).getCharset()).isEqualTo(charset);
   }
 
+  @Test
+  void getParserConfigurationMemoization() {
+    CommunityRustPluginConfiguration pluginConf = new CommunityRustPluginConfiguration();
+    MapSettings settings = getDefaultSettings();
+    assertThat(pluginConf.getParserConfiguration(Charset.defaultCharset(), settings.asConfig()).getMemoizedRules()).isEmpty();
+
+    settings.setProperty(CommunityRustPlugin.PARSE_MEMOIZATION, "true");
+    assertThat(pluginConf.getParserConfiguration(Charset.defaultCharset(), settings.asConfig()).getMemoizedRules())
+      .containsOnly(RustParserConfiguration.BACKTRACKING_RULES.toArray());
+  }
+
+  @Test
+  void getParserConfigurationParallelParsing() {
+    CommunityRustPluginConfiguration pluginConf = new CommunityRustPluginConfiguration();
+    MapSettings settings = getDefaultSettings();
+    assertThat(pluginConf.getParserConfiguration(Charset.defaultCharset(), settings.asConfig()).getParallelChunkLength()).isEqualTo(0);
+
+    settings.setProperty(CommunityRustPlugin.PARSE_PARALLEL, "true");
+    assertThat(pluginConf.getParserConfiguration(Charset.defaultCharset(), settings.asConfig()).getParallelChunkLength())
+      .isEqualTo(RustParserConfiguration.DEFAULT_PARALLEL_CHUNK_LENGTH);
+  }
+
   static MapSettings getDefaultSettings() {
     return new MapSettings()
       .setProperty(RustLanguageSettings.FILE_SUFFIXES_KEY, ".foo");
@@ -0,0 +1,149 @@
+/*
+ * Community Rust Plugin
+ * Copyright (C) 2021-2025 Vladimir Shelkovnikov
+ * mailto:community-rust AT pm DOT me
+ * http://github.com/C4tWithShell/community-rust
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.elegoff.plugins.communityrust;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import org.elegoff.plugins.communityrust.language.RustLanguage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.event.Level;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.rule.internal.NewActiveRule;
+import org.sonar.api.batch.sensor.cpd.internal.TokensLine;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.FileLinesContext;
+import org.sonar.api.measures.FileLinesContextFactory;
+import org.sonar.api.notifications.AnalysisWarnings;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.testfixtures.log.LogTesterJUnit5;
+import org.sonar.rust.RustParserConfiguration;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RustFileAnalyzerTest {
+
+  @RegisterExtension
+  public LogTesterJUnit5 logTester = new LogTesterJUnit5().setLevel(Level.DEBUG);
+
+  @Test
+  void fallbackToTokensWhenParseTimesOut() {
+    SensorContextTester context = SensorContextTester.create(new File("src/test/resources/"));
+    StringBuilder content = new StringBuilder("// generated\nfn main() {\n");
+    for (int i = 0; i < 5_000; i++) {
+      content.append("  let a").append(i).append(" = (1 + 2) * foo(\"bar\", [1, 2, 3]);\n");
+    }
+    content.append("}\n");
+    DefaultInputFile inputFile = new TestInputFileBuilder(context.module().key(), "generated.rs")
+      .setModuleBaseDir(context.fileSystem().baseDirPath())
+      .setType(InputFile.Type.MAIN)
+      .setLanguage(RustLanguage.KEY)
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents(content.toString())
+      .build();
+    CheckFactory checkFactory = new CheckFactory(new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder().setRuleKey(RuleKey.of("community-rust", "LineLength")).setParam("maximumLineLength", "10").build())
+      .build());
+    RustParserConfiguration conf = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParseTimeoutMillis(1)
+      .build();
+
+    RustFileAnalysis analysis = new RustFileAnalyzer(context, checkFactory, conf).analyze(inputFile);
+    FileLinesContextFactory fileLinesContextFactory = mock(FileLinesContextFactory.class);
+    when(fileLinesContextFactory.createFor(any(InputFile.class))).thenReturn(mock(FileLinesContext.class));
+    AnalysisWarnings analysisWarnings = mock(AnalysisWarnings.class);
+    analysis.save(context, fileLinesContextFactory, analysisWarnings);
+
+    assertThat(logTester.logs(Level.WARN)).containsExactly(
+      "generated.rs: Parsing did not complete within 1 ms. Only token-level analysis is done on this file.");
+    verify(analysisWarnings).addUnique("generated.rs: Parsing did not complete within 1 ms. Only token-level analysis is done on this file.");
+    assertThat(analysis.isCacheable()).isFalse();
+    assertThat(context.allAnalysisErrors()).isEmpty();
+    assertThat(context.measure(inputFile.key(), CoreMetrics.NCLOC).value()).isEqualTo(5_002);
+    assertThat(context.measure(inputFile.key(), CoreMetrics.COMMENT_LINES).value()).isZero();
+    assertThat(context.measure(inputFile.key(), CoreMetrics.FUNCTIONS).value()).isZero();
+    assertThat(context.highlightingTypeAt(inputFile.key(), 1, 0)).containsExactly(TypeOfText.COMMENT);
+    assertThat(context.highlightingTypeAt(inputFile.key(), 2, 0)).containsExactly(TypeOfText.KEYWORD);
+    assertThat(context.cpdTokens(inputFile.key())).isNotEmpty();
+    assertThat(context.allIssues()).hasSize(5_002);
+  }
+
+  @Test
+  void unitTestsFoundInTokensWhenParseTimesOut() {
+    SensorContextTester context = SensorContextTester.create(new File("src/test/resources/"));
+    context.settings().setProperty(CommunityRustPlugin.IGNORE_DUPLICATION_FOR_TESTS, true);
+    StringBuilder content = new StringBuilder("// generated\nfn main() {\n");
+    for (int i = 0; i < 5_000; i++) {
+      content.append("  let a").append(i).append(" = (1 + 2) * foo(\"bar\", [1, 2, 3]);\n");
+    }
+    content.append("}\n")
+      .append("#[tokio::test]\n")
+      .append("async fn adds() {\n")
+      .append("    assert_eq!(1 + 1, 2);\n")
+      .append("}\n")
+      .append("#[cfg(test)]\n")
+      .append("mod tests {\n")
+      .append("    #[test]\n")
+      .append("    fn adds() { if true { assert!(true); } }\n")
+      .append("}\n")
+      .append("fn after() {}\n");
+    DefaultInputFile inputFile = new TestInputFileBuilder(context.module().key(), "generated.rs")
+      .setModuleBaseDir(context.fileSystem().baseDirPath())
+      .setType(InputFile.Type.MAIN)
+      .setLanguage(RustLanguage.KEY)
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents(content.toString())
+      .build();
+    RustParserConfiguration conf = RustParserConfiguration.builder()
+      .setCharset(StandardCharsets.UTF_8)
+      .setParseTimeoutMillis(1)
+      .build();
+
+    RustFileAnalysis analysis = new RustFileAnalyzer(context, new CheckFactory(new ActiveRulesBuilder().build()), conf).analyze(inputFile);
+    FileLinesContextFactory fileLinesContextFactory = mock(FileLinesContextFactory.class);
+    when(fileLinesContextFactory.createFor(any(InputFile.class))).thenReturn(mock(FileLinesContext.class));
+    analysis.save(context, fileLinesContextFactory, null);
+
+    assertThat(logTester.logs(Level.WARN)).containsExactly(
+      "generated.rs: Parsing did not complete within 1 ms. Only token-level analysis is done on this file.");
+    assertThat(context.highlightingTypeAt(inputFile.key(), 5_004, 0)).containsOnly(TypeOfText.ANNOTATION);
+    assertThat(context.highlightingTypeAt(inputFile.key(), 5_008, 0)).containsOnly(TypeOfText.ANNOTATION);
+    assertThat(context.highlightingTypeAt(inputFile.key(), 5_010, 4)).containsOnly(TypeOfText.ANNOTATION);
+    assertThat(context.highlightingTypeAt(inputFile.key(), 5_013, 0)).containsOnly(TypeOfText.KEYWORD);
+    assertThat(context.cpdTokens(inputFile.key()))
+      .extracting(TokensLine::getStartLine)
+      .contains(5_003, 5_013)
+      .noneMatch(line -> line > 5_003 && line < 5_013);
+  }
+
+}
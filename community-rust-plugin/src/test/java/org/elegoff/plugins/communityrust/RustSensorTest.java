@@ -20,15 +20,25 @@
  */
 package org.elegoff.plugins.communityrust;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.elegoff.plugins.communityrust.language.RustLanguage;
 import org.fest.assertions.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.slf4j.event.Level;
 import org.sonar.api.batch.fs.InputFile;
@@ -36,13 +46,18 @@ import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+import org.sonar.api.batch.sensor.cpd.internal.TokensLine;
 import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.testfixtures.log.LogTesterJUnit5;
+import org.sonar.api.utils.Version;
 
 
 import static org.junit.Assert.assertEquals;
@@ -55,7 +70,10 @@ class RustSensorTest {
 
   private static final String LIBFILE = "sensor/lib.rs";
   private static final String SIMPLE = "sensor/simple.rs";
+  private static final String ERROR = "sensor/error.rs";
   private final File dir = new File("src/test/resources/");
+  @TempDir
+  Path workDir;
   @RegisterExtension
   public LogTesterJUnit5 logTester = new LogTesterJUnit5().setLevel(Level.DEBUG);
   @RegisterExtension
@@ -67,6 +85,7 @@ class RustSensorTest {
   @BeforeEach
   void init() {
     tester = SensorContextTester.create(dir);
+    tester.fileSystem().setWorkDir(workDir);
 
     MapSettings settings = CommunityRustPluginConfigurationTest.getDefaultSettings();
     tester.setSettings(settings);
@@ -106,6 +125,45 @@ class RustSensorTest {
 
   }
 
+  @Test
+  void reportTimings() throws IOException {
+    executeSensorOnSingleFile(SIMPLE);
+
+    Assertions.assertThat(logTester.logs(Level.INFO)).hasSize(1);
+    Assertions.assertThat(logTester.logs(Level.INFO).get(0))
+      .startsWith("Rust analysis of 1 files (0 from cache), 16 lines in ")
+      .contains("\nTime per phase: read ")
+      .contains("\nSlowest files:\n  ")
+      .endsWith(" ms sensor/simple.rs (16 lines)");
+    String report = new String(Files.readAllBytes(workDir.resolve(RustAnalysisTimings.REPORT_FILE_NAME)), StandardCharsets.UTF_8);
+    Assertions.assertThat(report)
+      .startsWith("{\"files\":1,\"lines\":16,")
+      .contains("\"file\":\"sensor/simple.rs\"")
+      .contains("\"parse\":");
+  }
+
+  @Test
+  void noTimingsReportInSonarLint() throws IOException {
+    tester.setRuntime(SonarRuntimeImpl.forSonarLint(Version.create(9, 9)));
+    executeSensorOnSingleFile(SIMPLE);
+
+    Assertions.assertThat(logTester.logs(Level.INFO).get(0)).startsWith("Rust analysis of 1 files");
+    Assertions.assertThat(workDir.resolve(RustAnalysisTimings.REPORT_FILE_NAME).toFile()).doesNotExist();
+  }
+
+  @Test
+  void checksAreOnlyTimedWithDebugLogs() throws IOException {
+    logTester.setLevel(Level.INFO);
+    executeSensorOnSingleFile(SIMPLE);
+
+    // the summary does not depend on debug logs
+    Assertions.assertThat(logTester.logs(Level.INFO).get(0)).contains("\nTime per phase: ").contains("\nSlowest files:");
+    String report = new String(Files.readAllBytes(workDir.resolve(RustAnalysisTimings.REPORT_FILE_NAME)), StandardCharsets.UTF_8);
+    Assertions.assertThat(report)
+      .contains("\"" + RustAnalysisTimings.WALK + "\":")
+      .excludes("\"" + RustAnalysisTimings.METRICS + "\":");
+  }
+
   @Test
   void canParse() throws IOException {
     DefaultInputFile inputFile = executeSensorOnSingleFile("sensor/checkme.rs");
@@ -113,6 +171,31 @@ class RustSensorTest {
     Assertions.assertThat(tester.allAnalysisErrors()).isEmpty();
   }
 
+  @Test
+  void analyzeTheRestOfAFileWithAParseError() throws IOException {
+    DefaultInputFile inputFile = executeSensorOnSingleFile(ERROR);
+
+    Assertions.assertThat(tester.allAnalysisErrors()).isEmpty();
+    Assertions.assertThat(logTester.logs(Level.ERROR)).isEmpty();
+    Assertions.assertThat(logTester.logs(Level.WARN).stream().anyMatch(log -> log.startsWith("Recovered from parse error in " + ERROR))).isTrue();
+    assertEquals((Integer) 11, tester.measure(inputFile.key(), CoreMetrics.NCLOC).value());
+    assertEquals((Integer) 1, tester.measure(inputFile.key(), CoreMetrics.COMMENT_LINES).value());
+    assertEquals((Integer) 1, tester.measure(inputFile.key(), CoreMetrics.FUNCTIONS).value());
+    assertEquals(Collections.singletonList(TypeOfText.KEYWORD), tester.highlightingTypeAt(inputFile.key(), 10, 0));
+    Assertions.assertThat(tester.cpdTokens(inputFile.key())).isNotEmpty();
+  }
+
+  @Test
+  void noRecoveryFromParseErrors() throws IOException {
+    tester.settings().setProperty(CommunityRustPlugin.PARSE_RECOVERY, false);
+    DefaultInputFile inputFile = executeSensorOnSingleFile(ERROR);
+
+    Assertions.assertThat(tester.allAnalysisErrors()).hasSize(1);
+    Assertions.assertThat(logTester.logs(Level.ERROR)).contains("Unable to parse file: " + ERROR);
+    Assertions.assertThat(tester.measure(inputFile.key(), CoreMetrics.NCLOC)).isNull();
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 10, 0)).isEmpty();
+  }
+
   @Test
   void checkDuplication() throws IOException {
     DefaultInputFile inputFile = executeSensorOnSingleFile("sensor/cpd.rs");
@@ -128,12 +211,70 @@ class RustSensorTest {
     tester.settings().setProperty(CommunityRustPlugin.IGNORE_DUPLICATION_FOR_TESTS, true);
     DefaultInputFile inputFile = executeSensorOnSingleFile("sensor/cpd.rs");
 
-    assertEquals(3, tester.cpdTokens(inputFile.key()).size());
+    // the whole file is a cfg(test) module
+    assertEquals(0, tester.cpdTokens(inputFile.key()).size());
     verify(fileLinesContext).save();
     assertEquals(Collections.singletonList(TypeOfText.ANNOTATION), tester.highlightingTypeAt(inputFile.key(), 5, 5));
     Assertions.assertThat(tester.allAnalysisErrors()).isEmpty();
   }
 
+  @Test
+  void consecutiveRangesOfTheSameTypeAreCoalesced() {
+    DefaultInputFile inputFile = addInputFile("coalesced.rs", "// one\n// two\npub unsafe fn f() -> u8 { 1 }\n");
+    sensor.execute(tester);
+
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 1, 6)).containsOnly(TypeOfText.COMMENT);
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 1, 7)).containsOnly(TypeOfText.COMMENT);
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 3, 3)).containsOnly(TypeOfText.KEYWORD);
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 3, 10)).containsOnly(TypeOfText.KEYWORD);
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 3, 13)).isEmpty();
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 3, 26)).containsOnly(TypeOfText.CONSTANT);
+  }
+
+  @Test
+  void duplicationsWithoutNormalization() {
+    // integer literals include the spacing which follows them
+    assertEquals(Arrays.asList("#![allow(unused)]", "usestd::io::{self,read};", "#[derive(debug)]", "structpoint{x:u8}",
+      "fnf()->point{lets=\"a\";point{x:1 }}"),
+      cpdLines(CommunityRustPlugin.CPD_NORMALIZATION_NONE));
+  }
+
+  @Test
+  void duplicationsWithNormalizedLiterals() {
+    assertEquals(Arrays.asList("structpoint{x:u8}", "fnf()->point{lets=STRING_LITERAL;point{x:INTEGER_LITERAL}}"),
+      cpdLines(CommunityRustPlugin.CPD_NORMALIZATION_LITERALS));
+  }
+
+  @Test
+  void duplicationsWithNormalizedIdentifiers() {
+    assertEquals(Arrays.asList("structIDENTIFIER{IDENTIFIER:IDENTIFIER}",
+      "fnIDENTIFIER()->IDENTIFIER{letIDENTIFIER=STRING_LITERAL;IDENTIFIER{IDENTIFIER:INTEGER_LITERAL}}"),
+      cpdLines(CommunityRustPlugin.CPD_NORMALIZATION_IDENTIFIERS));
+  }
+
+  private List<String> cpdLines(String normalization) {
+    tester.settings().setProperty(CommunityRustPlugin.CPD_NORMALIZATION, normalization);
+    DefaultInputFile inputFile = addInputFile("normalized.rs",
+      "#![allow(unused)]\nuse std::io::{self, Read};\n#[derive(Debug)]\nstruct Point { x: u8 }\nfn f() -> Point { let s = \"a\"; Point { x: 1 } }\n");
+    sensor.execute(tester);
+    Assertions.assertThat(tester.allAnalysisErrors()).isEmpty();
+    return tester.cpdTokens(inputFile.key()).stream().map(TokensLine::getValue).collect(Collectors.toList());
+  }
+
+  @Test
+  void unitTestsWithPathAttributesAndInImplementations() throws IOException {
+    tester.settings().setProperty(CommunityRustPlugin.IGNORE_DUPLICATION_FOR_TESTS, true);
+    DefaultInputFile inputFile = executeSensorOnSingleFile("sensor/unit_tests.rs");
+
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 1, 0)).containsOnly(TypeOfText.KEYWORD);
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 5, 0)).containsOnly(TypeOfText.ANNOTATION);
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 7, 4)).containsOnly(TypeOfText.ANNOTATION);
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 12, 0)).containsOnly(TypeOfText.KEYWORD);
+    Assertions.assertThat(tester.highlightingTypeAt(inputFile.key(), 15, 8)).containsOnly(TypeOfText.ANNOTATION);
+    assertEquals(Arrays.asList(1, 2, 3, 10, 12, 17),
+      tester.cpdTokens(inputFile.key()).stream().map(TokensLine::getStartLine).collect(Collectors.toList()));
+  }
+
   private DefaultInputFile executeSensorOnSingleFile(String fileName) throws IOException {
     DefaultInputFile inputFile = addInputFile(fileName);
     sensor.execute(tester);
@@ -159,18 +300,149 @@ class RustSensorTest {
     Assertions.assertThat(tester.measure(file1.key(), CoreMetrics.NCLOC)).isNull();
   }
 
+  @Test
+  void two_files_in_parallel() throws Exception {
+    tester.settings().setProperty(CommunityRustPlugin.ANALYSIS_THREADS, 2);
+    DefaultInputFile file1 = addInputFile(LIBFILE);
+    DefaultInputFile file2 = addInputFile(SIMPLE);
+    sensor.execute(tester);
+    Assertions.assertThat(tester.measure(file1.key(), CoreMetrics.NCLOC)).isNotNull();
+    assertEquals((Integer) 10, tester.measure(file2.key(), CoreMetrics.NCLOC).value());
+    assertEquals((Integer) 4, tester.measure(file2.key(), CoreMetrics.STATEMENTS).value());
+    assertEquals(10, tester.cpdTokens(file2.key()).size());
+    assertEquals(Collections.singletonList(TypeOfText.KEYWORD), tester.highlightingTypeAt(file2.key(), 1, 1));
+    Assertions.assertThat(tester.allAnalysisErrors()).isEmpty();
+  }
+
+  @Test
+  void two_files_in_parallel_with_cancellation() throws Exception {
+    tester.settings().setProperty(CommunityRustPlugin.ANALYSIS_THREADS, 2);
+    DefaultInputFile file1 = addInputFile(LIBFILE);
+    DefaultInputFile file2 = addInputFile(SIMPLE);
+    tester.setCancelled(true);
+    sensor.execute(tester);
+    Assertions.assertThat(tester.measure(file1.key(), CoreMetrics.NCLOC)).isNull();
+    Assertions.assertThat(tester.measure(file2.key(), CoreMetrics.NCLOC)).isNull();
+  }
+
+  @Test
+  void unchanged_files_are_read_from_cache() throws Exception {
+    MapCache firstCache = new MapCache(new MapCache(null));
+    tester.setCacheEnabled(true);
+    tester.setPreviousCache(firstCache.previous);
+    tester.setNextCache(firstCache);
+    addInputFile(SIMPLE);
+    sensor.execute(tester);
+    Assertions.assertThat(firstCache.entries).hasSize(1);
+    Assertions.assertThat(logTester.logs(Level.DEBUG)).contains("Rust parsing simple.rs");
+
+    init();
+    logTester.clear();
+    MapCache secondCache = new MapCache(firstCache);
+    tester.setCacheEnabled(true);
+    tester.setPreviousCache(firstCache);
+    tester.setNextCache(secondCache);
+    DefaultInputFile inputFile = addInputFile(SIMPLE);
+    sensor.execute(tester);
+
+    Assertions.assertThat(logTester.logs(Level.DEBUG)).excludes("Rust parsing simple.rs");
+    Assertions.assertThat(secondCache.entries).isEqualTo(firstCache.entries);
+    assertEquals((Integer) 10, tester.measure(inputFile.key(), CoreMetrics.NCLOC).value());
+    assertEquals((Integer) 4, tester.measure(inputFile.key(), CoreMetrics.STATEMENTS).value());
+    assertEquals((Integer) 4, tester.measure(inputFile.key(), CoreMetrics.COMPLEXITY).value());
+    assertEquals((Integer) 1, tester.measure(inputFile.key(), CoreMetrics.COMMENT_LINES).value());
+    assertEquals((Integer) 2, tester.measure(inputFile.key(), CoreMetrics.FUNCTIONS).value());
+    assertEquals(10, tester.cpdTokens(inputFile.key()).size());
+    assertEquals(Collections.singletonList(TypeOfText.KEYWORD), tester.highlightingTypeAt(inputFile.key(), 1, 1));
+    assertEquals(Collections.singletonList(TypeOfText.STRING), tester.highlightingTypeAt(inputFile.key(), 6, 13));
+    verify(fileLinesContext).setIntValue(CoreMetrics.NCLOC_DATA_KEY, 1, 1);
+  }
+
+  @Test
+  void modified_files_are_not_read_from_cache() throws Exception {
+    MapCache cache = new MapCache(new MapCache(null));
+    cache.previous.entries.put("community-rust:analysis:unrelated", new byte[0]);
+    tester.setCacheEnabled(true);
+    tester.setPreviousCache(cache.previous);
+    tester.setNextCache(cache);
+    addInputFile(SIMPLE);
+    sensor.execute(tester);
+    Assertions.assertThat(logTester.logs(Level.DEBUG)).contains("Rust parsing simple.rs");
+    Assertions.assertThat(cache.entries).hasSize(1);
+  }
+
+  @Test
+  void sonarlint_parses_edited_files_again_around_the_edits() throws Exception {
+    RustParserCache parserCache = new RustParserCache();
+    CheckFactory checkFactory = new CheckFactory(new ActiveRulesBuilder().build());
+    FileLinesContextFactory fileLinesContextFactory = mock(FileLinesContextFactory.class);
+    when(fileLinesContextFactory.createFor(any(InputFile.class))).thenReturn(fileLinesContext);
+    sensor = new RustSensor(checkFactory, fileLinesContextFactory, parserCache);
+    executeSensorOnSingleFile(SIMPLE);
+
+    init();
+    sensor = new RustSensor(checkFactory, fileLinesContextFactory, parserCache);
+    String content = new String(Files.readAllBytes(new File(dir, SIMPLE).toPath()));
+    DefaultInputFile inputFile = addInputFile(SIMPLE, content + "\nfn added() {\n    if true {}\n}\n");
+    sensor.execute(tester);
+
+    assertEquals((Integer) 13, tester.measure(inputFile.key(), CoreMetrics.NCLOC).value());
+    assertEquals((Integer) 3, tester.measure(inputFile.key(), CoreMetrics.FUNCTIONS).value());
+    assertEquals((Integer) 5, tester.measure(inputFile.key(), CoreMetrics.COMPLEXITY).value());
+    Assertions.assertThat(tester.allAnalysisErrors()).isEmpty();
+  }
+
   private DefaultInputFile addInputFile(String fileName) throws IOException {
     String content = new String(Files.readAllBytes(new File(dir, fileName).toPath()));
+    return addInputFile(fileName, content);
+  }
+
+  private DefaultInputFile addInputFile(String fileName, String content) {
     Assertions.assertThat(content).isNotEmpty();
     DefaultInputFile inputFile = new TestInputFileBuilder(tester.module().key(), fileName)
       .setModuleBaseDir(tester.fileSystem().baseDirPath())
       .setType(InputFile.Type.MAIN)
       .setLanguage(RustLanguage.KEY)
       .setCharset(StandardCharsets.UTF_8)
-      .initMetadata(content)
+      .setContents(content)
       .build();
     tester.fileSystem().add(inputFile);
     return inputFile;
   }
 
+  private static class MapCache implements ReadCache, WriteCache {
+    private final Map<String, byte[]> entries = new HashMap<>();
+    private final MapCache previous;
+
+    private MapCache(@Nullable MapCache previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public InputStream read(String key) {
+      return new ByteArrayInputStream(entries.get(key));
+    }
+
+    @Override
+    public boolean contains(String key) {
+      return entries.containsKey(key);
+    }
+
+    @Override
+    public void write(String key, InputStream data) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void write(String key, byte[] data) {
+      Assertions.assertThat(entries.containsKey(key)).isFalse();
+      entries.put(key, data);
+    }
+
+    @Override
+    public void copyFromPrevious(String key) {
+      write(key, previous.entries.get(key));
+    }
+  }
+
 }
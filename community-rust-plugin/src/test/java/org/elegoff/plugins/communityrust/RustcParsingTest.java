@@ -24,9 +24,11 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import org.elegoff.plugins.communityrust.language.RustLanguage;
 import org.fest.assertions.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
@@ -45,12 +47,15 @@ import static org.mockito.Mockito.when;
 
 class RustcParsingTest {
   private final File dir = new File("src/test/resources/rustc");
+  @TempDir
+  Path workDir;
   private FileLinesContext fileLinesContext;
   private SensorContextTester tester;
   private RustSensor sensor;
 
   void reinit() {
     tester = SensorContextTester.create(dir);
+    tester.fileSystem().setWorkDir(workDir);
 
     MapSettings settings = CommunityRustPluginConfigurationTest.getDefaultSettings();
     tester.setSettings(settings);
@@ -0,0 +1,13 @@
+fn main() {
+    let x = 1;
+    println!("{}", x);
+}
+
+fn broken(a: u8 { // skipped with the item
+    a + 1
+}
+
+struct Point {
+    x: i32,
+    y: i32,
+}
@@ -0,0 +1,17 @@
+fn add(a: i32, b: i32) -> i32 {
+    a + b
+}
+
+#[tokio::test]
+async fn adds() {
+    assert_eq!(add(2, 2), 4);
+}
+
+struct Adder;
+
+impl Adder {
+    #[test]
+    fn adds_in_impl() {
+        assert_eq!(add(1, 2), 3);
+    }
+}